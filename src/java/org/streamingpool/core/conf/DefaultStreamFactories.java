@@ -26,12 +26,22 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.streamingpool.core.service.TypedStreamFactory;
+import org.streamingpool.core.service.streamfactory.CombineLatestStreamFactory;
 import org.streamingpool.core.service.streamfactory.CombineWithLatestStreamFactory;
 import org.streamingpool.core.service.streamfactory.CompositionStreamFactory;
+import org.streamingpool.core.service.streamfactory.ConflatedStreamFactory;
 import org.streamingpool.core.service.streamfactory.DelayedStreamFactory;
 import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
 import org.streamingpool.core.service.streamfactory.FilteredStreamFactory;
+import org.streamingpool.core.service.streamfactory.HistoryStreamFactory;
+import org.streamingpool.core.service.streamfactory.JournalStreamFactory;
+import org.streamingpool.core.service.streamfactory.LastValueCachedStreamFactory;
+import org.streamingpool.core.service.streamfactory.MergedStreamFactory;
 import org.streamingpool.core.service.streamfactory.OverlapBufferStreamFactory;
+import org.streamingpool.core.service.streamfactory.PartitionedStreamFactory;
+import org.streamingpool.core.service.streamfactory.ScheduledStreamFactory;
+import org.streamingpool.core.service.streamfactory.WindowedAggregationStreamFactory;
+import org.streamingpool.core.service.streamfactory.ZipStreamFactory;
 
 /**
  * Configuration for including the {@link TypedStreamFactory}s provided in the core project.
@@ -71,5 +81,55 @@ public class DefaultStreamFactories {
     public FilteredStreamFactory filteredStreamFactory() {
         return new FilteredStreamFactory();
     }
-    
+
+    @Bean
+    public CombineLatestStreamFactory combineLatestStreamFactory() {
+        return new CombineLatestStreamFactory();
+    }
+
+    @Bean
+    public ZipStreamFactory zipStreamFactory() {
+        return new ZipStreamFactory();
+    }
+
+    @Bean
+    public MergedStreamFactory mergedStreamFactory() {
+        return new MergedStreamFactory();
+    }
+
+    @Bean
+    public PartitionedStreamFactory partitionedStreamFactory() {
+        return new PartitionedStreamFactory();
+    }
+
+    @Bean
+    public WindowedAggregationStreamFactory windowedAggregationStreamFactory() {
+        return new WindowedAggregationStreamFactory();
+    }
+
+    @Bean
+    public ConflatedStreamFactory conflatedStreamFactory() {
+        return new ConflatedStreamFactory();
+    }
+
+    @Bean
+    public LastValueCachedStreamFactory lastValueCachedStreamFactory() {
+        return new LastValueCachedStreamFactory();
+    }
+
+    @Bean
+    public HistoryStreamFactory historyStreamFactory() {
+        return new HistoryStreamFactory();
+    }
+
+    @Bean
+    public JournalStreamFactory journalStreamFactory() {
+        return new JournalStreamFactory();
+    }
+
+    @Bean
+    public ScheduledStreamFactory scheduledStreamFactory() {
+        return new ScheduledStreamFactory();
+    }
+
 }
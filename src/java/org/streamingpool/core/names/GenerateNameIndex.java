@@ -0,0 +1,43 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.streamingpool.core.names.processor.NameIndexProcessor;
+
+/**
+ * Requests the generation of a {@link NameIndex} for the annotated {@link ConstantsContainer} at compile time (by the
+ * {@link NameIndexProcessor}), so that the names of its constants can be resolved without reflection.
+ */
+@Documented
+@Retention(SOURCE)
+@Target(TYPE)
+public @interface GenerateNameIndex {
+    /* marker annotation */
+}
@@ -0,0 +1,47 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names;
+
+import java.util.Map;
+
+import org.streamingpool.core.names.processor.NameIndexProcessor;
+
+/**
+ * The names of the constants of one {@link ConstantsContainer} class, resolved at build time. Implementations are
+ * generated by the {@link NameIndexProcessor} for the containers annotated with {@link GenerateNameIndex} and are
+ * registered as services, so that they can be found by {@link NameIndices} without reflecting over the fields of the
+ * containers.
+ */
+public interface NameIndex {
+
+    /**
+     * Returns the container class whose constants are indexed.
+     */
+    Class<? extends ConstantsContainer> containerClass();
+
+    /**
+     * Returns the names of the public constants (public static final fields) of the container, by their values.
+     */
+    Map<Object, String> names();
+
+}
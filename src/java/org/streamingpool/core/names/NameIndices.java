@@ -0,0 +1,57 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names;
+
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Finds the generated {@link NameIndex} of {@link ConstantsContainer} classes. The indices are looked up as services
+ * in the class loader of each container and the result (also the absence of an index) is cached per class.
+ */
+public final class NameIndices {
+
+    private static final ClassValue<Optional<NameIndex>> INDICES = new ClassValue<Optional<NameIndex>>() {
+        @Override
+        protected Optional<NameIndex> computeValue(Class<?> type) {
+            for (NameIndex index : ServiceLoader.load(NameIndex.class, type.getClassLoader())) {
+                if (index.containerClass().equals(type)) {
+                    return Optional.of(index);
+                }
+            }
+            return Optional.empty();
+        }
+    };
+
+    private NameIndices() {
+        /* Only static methods */
+    }
+
+    /**
+     * Returns the generated index of the given container class, if there is one.
+     */
+    public static Optional<NameIndex> forContainer(Class<? extends ConstantsContainer> containerClass) {
+        return INDICES.get(containerClass);
+    }
+
+}
@@ -31,9 +31,11 @@ import static java.util.stream.Collectors.toMap;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import org.streamingpool.core.names.impl.ImmutableNameRepository;
+import org.streamingpool.core.names.impl.LazyNameRepository;
 
 public final class NameRepositories {
 
@@ -45,6 +47,32 @@ public final class NameRepositories {
         return new ImmutableNameRepository(NameRepositories.mapNamesFrom(constantsContainers));
     }
 
+    /**
+     * Creates a repository which indexes the constants of the given containers only when the first name is looked up,
+     * and which can be extended with more containers later on (see {@link LazyNameRepository#addContainer}).
+     */
+    public static LazyNameRepository newLazyFromConstantContainers(List<ConstantsContainer> constantsContainers) {
+        return new LazyNameRepository(constantsContainers);
+    }
+
+    /**
+     * Returns the names of the public constants (public static final fields) of the given container, by their values.
+     * The generated {@link NameIndex} of the container is used if there is one, otherwise the fields are reflected.
+     * 
+     * @throws IllegalStateException if two constants have the same value
+     */
+    public static Map<Object, String> constantNamesOf(ConstantsContainer constantsContainer) {
+        Optional<NameIndex> index = NameIndices.forContainer(constantsContainer.getClass());
+        if (index.isPresent()) {
+            return index.get().names();
+        }
+        //@formatter:off
+        return Stream.of(constantsContainer.getClass().getFields())
+                .filter(NameRepositories::isPublicConstant)
+                .collect(toMap(NameRepositories::valueOfField, NameRepositories::nameOfField));
+        //@formatter:on
+    }
+
     private static Map<Object, String> mapNamesFrom(List<ConstantsContainer> constantContainers) {
         //@formatter:off
         return constantContainers.stream()
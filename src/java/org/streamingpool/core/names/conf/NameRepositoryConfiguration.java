@@ -42,7 +42,7 @@ public class NameRepositoryConfiguration {
 
     @Bean
     public NameRepository nameRepository() {
-        return NameRepositories.newFromConstantContainers(expressionConstantsContainers);
+        return NameRepositories.newLazyFromConstantContainers(expressionConstantsContainers);
     }
 
     @Bean
@@ -0,0 +1,127 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.impl;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.streamingpool.core.names.ConstantsContainer;
+import org.streamingpool.core.names.NameRepositories;
+import org.streamingpool.core.names.NameRepository;
+
+/**
+ * Thread-safe repository for the names of the constants of {@link ConstantsContainer}s, which are indexed lazily:
+ * creating the repository and adding containers to it is cheap, the reflective indexing of the pending containers is
+ * done by the next lookup. Containers can be added at any time, only the new ones are indexed then.
+ * <p>
+ * As for the eager {@link ImmutableNameRepository}, the constants must have distinct values. This is checked while
+ * indexing, so a conflict is reported by the first lookup after the conflicting container was added. The failure is
+ * sticky: as the repository is inconsistent from then on, all the later lookups fail as well.
+ * 
+ * @see NameRepositories#newLazyFromConstantContainers(java.util.List)
+ */
+public class LazyNameRepository implements NameRepository {
+
+    private final Map<Object, String> objectNames = new ConcurrentHashMap<>();
+    private final Queue<ConstantsContainer> pendingContainers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Set<Class<?>> indexedClasses = new HashSet<>();
+    private volatile IllegalStateException indexingFailure;
+
+    public LazyNameRepository(Collection<? extends ConstantsContainer> constantsContainers) {
+        addContainers(constantsContainers);
+    }
+
+    /**
+     * Adds the constants of the given container to this repository. Containers of an already added class are ignored.
+     */
+    public void addContainer(ConstantsContainer constantsContainer) {
+        requireNonNull(constantsContainer, "constantsContainer must not be null");
+        pendingContainers.add(constantsContainer);
+        pendingCount.incrementAndGet();
+    }
+
+    public void addContainers(Collection<? extends ConstantsContainer> constantsContainers) {
+        requireNonNull(constantsContainers, "constantsContainers must not be null");
+        constantsContainers.forEach(this::addContainer);
+    }
+
+    @Override
+    public String nameFor(Object object) {
+        if (pendingCount.get() > 0 || indexingFailure != null) {
+            indexPendingContainers();
+        }
+        return objectNames.get(object);
+    }
+
+    /**
+     * Returns a snapshot of all the names of this repository, indexing the pending containers if needed.
+     */
+    public Map<Object, String> content() {
+        indexPendingContainers();
+        return new HashMap<>(objectNames);
+    }
+
+    private synchronized void indexPendingContainers() {
+        ConstantsContainer container;
+        while (indexingFailure == null && (container = pendingContainers.poll()) != null) {
+            try {
+                if (indexedClasses.add(container.getClass())) {
+                    index(container);
+                }
+            } catch (IllegalStateException e) {
+                indexingFailure = e;
+            } finally {
+                /* Only decremented once the names are visible, so that concurrent lookups wait for them */
+                pendingCount.decrementAndGet();
+            }
+        }
+        if (indexingFailure != null) {
+            throw new IllegalStateException(indexingFailure.getMessage(), indexingFailure);
+        }
+    }
+
+    private void index(ConstantsContainer container) {
+        Map<Object, String> names = NameRepositories.constantNamesOf(container);
+        for (Entry<Object, String> name : names.entrySet()) {
+            String existing = objectNames.get(name.getKey());
+            if (existing != null && !existing.equals(name.getValue())) {
+                throw new IllegalStateException(format("The value of the constant %s of %s is already named %s",
+                        name.getValue(), container.getClass().getName(), existing));
+            }
+        }
+        objectNames.putAll(names);
+    }
+
+}
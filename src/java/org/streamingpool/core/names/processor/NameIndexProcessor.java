@@ -0,0 +1,214 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.processor;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.streamingpool.core.names.ConstantsContainer;
+import org.streamingpool.core.names.GenerateNameIndex;
+import org.streamingpool.core.names.NameIndex;
+
+/**
+ * Annotation processor generating a {@link NameIndex} for each {@link ConstantsContainer} annotated with
+ * {@link GenerateNameIndex}. The index of a container {@code Foo} is the class {@code Foo_NameIndex} in the same
+ * package, which refers to the constants directly (the same ones as the reflective
+ * {@link org.streamingpool.core.names.NameRepositories#constantNamesOf(ConstantsContainer)}: all the public static
+ * final fields, including the inherited ones). The generated indices are registered in
+ * {@code META-INF/services/org.streamingpool.core.names.NameIndex}.
+ * <p>
+ * To use it, put this library on the annotation processor path of the project defining the containers.
+ */
+@SupportedAnnotationTypes("org.streamingpool.core.names.GenerateNameIndex")
+public class NameIndexProcessor extends AbstractProcessor {
+
+    /* Keeps the generated methods well below the limit of 64 KiB of byte code per method */
+    private static final int CONSTANTS_PER_METHOD = 1000;
+    private static final String SERVICE_FILE = "META-INF/services/" + NameIndex.class.getName();
+    private static final Set<Modifier> PUBLIC_STATIC_FINAL = EnumSet.of(Modifier.PUBLIC, Modifier.STATIC,
+            Modifier.FINAL);
+
+    private final Set<String> generatedIndices = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateNameIndex.class)) {
+            if (isValidContainer(element)) {
+                generateIndex((TypeElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !generatedIndices.isEmpty()) {
+            writeServiceFile();
+        }
+        return true;
+    }
+
+    private boolean isValidContainer(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@%s can only be applied to classes", GenerateNameIndex.class.getSimpleName());
+            return false;
+        }
+        TypeMirror containerType = processingEnv.getElementUtils()
+                .getTypeElement(ConstantsContainer.class.getCanonicalName()).asType();
+        if (!processingEnv.getTypeUtils().isAssignable(element.asType(), containerType)) {
+            error(element, "%s must implement %s", element, ConstantsContainer.class.getName());
+            return false;
+        }
+        for (Element enclosing = element; enclosing.getKind().isClass(); enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                error(element, "%s must not be private, as its index refers to it", element);
+                return false;
+            }
+            if (((TypeElement) enclosing).getNestingKind() == NestingKind.TOP_LEVEL) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private void generateIndex(TypeElement container) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(container).getQualifiedName().toString();
+        String containerName = container.getQualifiedName().toString();
+        String indexSimpleName = binarySimpleName(container, packageName) + "_NameIndex";
+        String indexName = packageName.isEmpty() ? indexSimpleName : packageName + "." + indexSimpleName;
+
+        List<VariableElement> constants = new ArrayList<>();
+        for (Element member : processingEnv.getElementUtils().getAllMembers(container)) {
+            if (member.getKind() == ElementKind.FIELD && member.getModifiers().containsAll(PUBLIC_STATIC_FINAL)) {
+                constants.add((VariableElement) member);
+            }
+        }
+
+        try (PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(indexName, container).openWriter())) {
+            writeIndex(out, packageName, indexSimpleName, containerName, constants);
+        } catch (IOException e) {
+            error(container, "Could not generate the name index of %s: %s", containerName, e);
+            return;
+        }
+        generatedIndices.add(indexName);
+    }
+
+    private static String binarySimpleName(TypeElement container, String packageName) {
+        String qualifiedName = container.getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return simpleName.replace('.', '_');
+    }
+
+    private static void writeIndex(PrintWriter out, String packageName, String indexSimpleName, String containerName,
+            List<VariableElement> constants) {
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        /* No @Generated annotation, as it moved between JDK versions */
+        out.println("/** Generated by " + NameIndexProcessor.class.getName() + ", do not edit */");
+        out.println("public final class " + indexSimpleName + " implements " + NameIndex.class.getName() + " {");
+        out.println();
+        out.println("    @Override");
+        out.println("    public Class<" + containerName + "> containerClass() {");
+        out.println("        return " + containerName + ".class;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public java.util.Map<Object, String> names() {");
+        out.println("        java.util.Map<Object, String> names = new java.util.HashMap<>(" + (constants.size() * 2)
+                + ");");
+        int methodCount = (constants.size() + CONSTANTS_PER_METHOD - 1) / CONSTANTS_PER_METHOD;
+        for (int i = 0; i < methodCount; i++) {
+            out.println("        addNames" + i + "(names);");
+        }
+        out.println("        return names;");
+        out.println("    }");
+        for (int i = 0; i < methodCount; i++) {
+            out.println();
+            out.println("    private static void addNames" + i + "(java.util.Map<Object, String> names) {");
+            int end = Math.min(constants.size(), (i + 1) * CONSTANTS_PER_METHOD);
+            for (VariableElement constant : constants.subList(i * CONSTANTS_PER_METHOD, end)) {
+                /* Inherited constants are referred to through the container, their declaring class may be hidden */
+                String name = constant.getSimpleName().toString();
+                out.println("        add(names, " + containerName + "." + name + ", \"" + name + "\");");
+            }
+            out.println("    }");
+        }
+        out.println();
+        out.println("    private static void add(java.util.Map<Object, String> names, Object value, String name) {");
+        out.println("        String existing = names.put(value, name);");
+        out.println("        if (existing != null) {");
+        out.println("            throw new IllegalStateException(\"The constants \" + existing + \" and \" + name");
+        out.println("                    + \" of " + containerName + " have the same value\");");
+        out.println("        }");
+        out.println("    }");
+        out.println();
+        out.println("}");
+    }
+
+    private void writeServiceFile() {
+        try {
+            FileObject serviceFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    SERVICE_FILE);
+            try (Writer writer = serviceFile.openWriter()) {
+                for (String index : generatedIndices) {
+                    writer.write(index);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    format("Could not write %s: %s", SERVICE_FILE, e));
+        }
+    }
+
+    private void error(Element element, String message, Object... arguments) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, format(message, arguments), element);
+    }
+
+}
@@ -24,6 +24,7 @@ package org.streamingpool.core.names.resolve;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -97,14 +98,12 @@ public final class Chains {
 
         public <T1 extends T> BiFunctionBranchBuilder<T, T1, R, B> branchCase(Class<T1> caseClass,
                 Function<? super T1, R> mapper) {
-            return new BiFunctionBranchBuilder<>(caseClass::isInstance, caseClass::cast, newBiFunctionBuilder(),
-                    castedThis).or(mapper);
+            return new BiFunctionBranchBuilder<>(caseClass, newBiFunctionBuilder(), castedThis).or(mapper);
         }
 
         public <T1 extends T> BiFunctionBranchBuilder<T, T1, R, B> branchCase(Class<T1> condition,
                 BiFunction<? super T1, ? extends Function<Object, R>, R> mapper) {
-            return new BiFunctionBranchBuilder<>(condition::isInstance, condition::cast, newBiFunctionBuilder(),
-                    castedThis).or(mapper);
+            return new BiFunctionBranchBuilder<>(condition, newBiFunctionBuilder(), castedThis).or(mapper);
         }
 
         public <T1 extends T> B when(Predicate<T> condition, Function<T, T1> conv,
@@ -115,6 +114,13 @@ public final class Chains {
             return castedThis;
         }
 
+        <T1 extends T> B whenInstanceOf(Class<T1> caseClass,
+                BiFunction<T1, Function<? super T1, R>, R> mapperWithCallback) {
+            requireNonNull(mapperWithCallback, "mapper must not be null");
+            mappers.add(new ConditionedMapper<>(caseClass, mapperWithCallback));
+            return castedThis;
+        }
+
         public <T1 extends T> B when(Predicate<T> condition, Function<T, T1> conv, Function<T1, R> mapper) {
             requireNonNull(mapper, "mapper must not be null");
             when(condition, conv, (o, c) -> mapper.apply(o));
@@ -129,13 +135,26 @@ public final class Chains {
         final PB parentBuilder;
         final Predicate<PT> condition;
         final Function<PT, T> conversion;
+        /* Not null for the branches of branchCase(...), which can be dispatched by class */
+        final Class<T> caseClass;
 
         @SuppressWarnings("unchecked")
         private BB castedThis = (BB) this;
 
         AbstractBranchBuilder(Predicate<PT> condition, Function<PT, T> conversion, B delegate, PB parentBuilder) {
+            this(condition, conversion, null, delegate, parentBuilder);
+        }
+
+        AbstractBranchBuilder(Class<T> caseClass, B delegate, PB parentBuilder) {
+            this(requireNonNull(caseClass, "caseClass must not be null")::isInstance, caseClass::cast, caseClass,
+                    delegate, parentBuilder);
+        }
+
+        private AbstractBranchBuilder(Predicate<PT> condition, Function<PT, T> conversion, Class<T> caseClass,
+                B delegate, PB parentBuilder) {
             this.condition = requireNonNull(condition, "condition must not be null");
             this.conversion = requireNonNull(conversion, "conversion must not be null");
+            this.caseClass = caseClass;
             this.delegate = requireNonNull(delegate, "delegate must not be null");
             this.parentBuilder = requireNonNull(parentBuilder, "parentBuilder must not be null");
         }
@@ -198,16 +217,28 @@ public final class Chains {
             super(condition, conversion, delegate, parentBuilder);
         }
 
+        BiFunctionBranchBuilder(Class<T> caseClass,
+                ChainBuilder<T, R, BiFunction<T, Function<? super T, R>, R>> delegate, PB parentBuilder) {
+            super(caseClass, delegate, parentBuilder);
+        }
+
         public PB orElseThrow() {
-            return parentBuilder.when(condition, conversion, delegate.orElseThrow());
+            return addToParent(delegate.orElseThrow());
         }
 
         public PB orElseNull() {
-            return parentBuilder.when(condition, conversion, delegate.orElseNull());
+            return addToParent(delegate.orElseNull());
         }
 
         public PB orElse(R newDefaultValue) {
-            return parentBuilder.when(condition, conversion, delegate.orElse(newDefaultValue));
+            return addToParent(delegate.orElse(newDefaultValue));
+        }
+
+        private PB addToParent(BiFunction<T, Function<? super T, R>, R> branch) {
+            if (caseClass != null) {
+                return parentBuilder.whenInstanceOf(caseClass, branch);
+            }
+            return parentBuilder.when(condition, conversion, branch);
         }
 
     }
@@ -240,24 +271,61 @@ public final class Chains {
 
     }
 
+    /**
+     * The compiled form of a chain. The leading mappers which were added by {@code branchCase(...)} only depend on the
+     * class of the input, so the ones matching a class are computed once per class (see {@link ClassValue}) and only
+     * those are tried, still in the order in which they were added. The remaining mappers are tried one by one.
+     */
     private static final class BranchChain<T, R> implements BiFunction<T, Function<? super T, R>, R> {
 
         private final List<ConditionedMapper<T, ?, R>> conditionedMappers;
         private final R defaultValue;
         private final boolean throwIfAllReturnNull;
         private final Predicate<R> returnWhen;
+        private final int caseCount;
+        private final ClassValue<List<ConditionedMapper<T, ?, R>>> casesByClass;
 
         BranchChain(ChainBuilder<T, R, ?> builder) {
             this.conditionedMappers = builder.mappers.build();
             this.returnWhen = builder.returnWhen;
             this.defaultValue = builder.defaultValue;
             this.throwIfAllReturnNull = builder.throwIfAllReturnNull;
+            this.caseCount = leadingCaseCount(conditionedMappers);
+            this.casesByClass = new ClassValue<List<ConditionedMapper<T, ?, R>>>() {
+                @Override
+                protected List<ConditionedMapper<T, ?, R>> computeValue(Class<?> type) {
+                    List<ConditionedMapper<T, ?, R>> matchingCases = new ArrayList<>();
+                    for (ConditionedMapper<T, ?, R> mapper : conditionedMappers.subList(0, caseCount)) {
+                        if (mapper.caseClass().isAssignableFrom(type)) {
+                            matchingCases.add(mapper);
+                        }
+                    }
+                    return matchingCases;
+                }
+            };
+        }
+
+        private static int leadingCaseCount(List<? extends ConditionedMapper<?, ?, ?>> mappers) {
+            int count = 0;
+            while (count < mappers.size() && mappers.get(count).caseClass() != null) {
+                count++;
+            }
+            return count;
         }
 
         @Override
         public R apply(T input, Function<? super T, R> callback) {
             requireNonNull(input, "input value to chained functions must not be null.");
-            for (ConditionedMapper<T, ?, R> conditionedMapper : conditionedMappers) {
+            if (caseCount > 0) {
+                for (ConditionedMapper<T, ?, R> conditionedMapper : casesByClass.get(input.getClass())) {
+                    R returnValue = conditionedMapper.apply(input, callback);
+                    if (returnWhen.test(returnValue)) {
+                        return returnValue;
+                    }
+                }
+            }
+            for (ConditionedMapper<T, ?, R> conditionedMapper : conditionedMappers.subList(caseCount,
+                    conditionedMappers.size())) {
                 if (conditionedMapper.condition().test(input)) {
                     /*
                      * XXX Simply passing in the callback is of course dangerous. Proof of principle for the moment ...
@@ -299,11 +367,23 @@ public final class Chains {
         private final Predicate<T> condition;
         private final BiFunction<? super T1, ? extends Function<? super T1, R>, R> mapper;
         private final Function<T, T1> conversion;
+        private final Class<T1> caseClass;
 
         public ConditionedMapper(Predicate<T> condition, Function<T, T1> conversion,
                 BiFunction<? super T1, ? extends Function<? super T1, R>, R> mapper) {
+            this(condition, conversion, null, mapper);
+        }
+
+        public ConditionedMapper(Class<T1> caseClass,
+                BiFunction<? super T1, ? extends Function<? super T1, R>, R> mapper) {
+            this(caseClass::isInstance, caseClass::cast, caseClass, mapper);
+        }
+
+        private ConditionedMapper(Predicate<T> condition, Function<T, T1> conversion, Class<T1> caseClass,
+                BiFunction<? super T1, ? extends Function<? super T1, R>, R> mapper) {
             this.condition = requireNonNull(condition, "condition must not be null");
             this.conversion = requireNonNull(conversion, "conversion must not be null");
+            this.caseClass = caseClass;
             this.mapper = requireNonNull(mapper, "mapper must not be null");
         }
 
@@ -315,6 +395,14 @@ public final class Chains {
             return condition;
         }
 
+        /**
+         * Returns the class of the inputs this mapper applies to, or null if it applies to the inputs matching an
+         * arbitrary condition.
+         */
+        public Class<T1> caseClass() {
+            return caseClass;
+        }
+
         @Override
         public R apply(T input, Function<? super T1, R> callback) {
             T1 converted = conversion.apply(input);
@@ -0,0 +1,183 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.resolve;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A bounded cache in front of a (typically {@link Chains}-built) function, so that resolving e.g. the name of an
+ * already seen id is a single lookup. Null results are cached as well. Exceptions thrown by the delegate are
+ * propagated and nothing is cached for the input.
+ * <p>
+ * With {@link Builder#weakKeys()}, the inputs are compared by identity (as in any Guava cache with weak keys) and are
+ * not retained by the cache, so equal but distinct inputs are resolved separately. To share the results between equal
+ * inputs, {@link Builder#weakKeys(UnaryOperator)} canonicalises each input before the lookup, e.g. with
+ * {@code LocalPool#intern(StreamId)} for the ids of a pool. The recursive calls a chained function makes through its
+ * callback are not cached.
+ *
+ * @param <R> the type of the results of the function
+ */
+public final class MemoizingFunction<R> implements Function<Object, R> {
+
+    private final Function<Object, R> delegate;
+    private final UnaryOperator<Object> canonicalizer;
+    private final Cache<Object, Optional<R>> cache;
+
+    private MemoizingFunction(Function<Object, R> delegate, UnaryOperator<Object> canonicalizer,
+            Cache<Object, Optional<R>> cache) {
+        this.delegate = delegate;
+        this.canonicalizer = canonicalizer;
+        this.cache = cache;
+    }
+
+    /**
+     * Starts building a memoizing function in front of the given one. By default, at most 10 000 results are kept and
+     * they never expire.
+     */
+    public static <R> Builder<R> memoize(Function<Object, R> delegate) {
+        return new Builder<>(delegate);
+    }
+
+    @Override
+    public R apply(Object input) {
+        requireNonNull(input, "input value to memoized functions must not be null.");
+        Object key = requireNonNull(canonicalizer.apply(input), "canonicalizer must not return null");
+        try {
+            return cache.get(key, () -> Optional.ofNullable(delegate.apply(key))).orElse(null);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache, e.g. its {@link CacheStats#hitRate() hit rate}.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached results.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Discards all the cached results.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Builder for {@link MemoizingFunction}s
+     *
+     * @param <R> the type of the results of the function
+     */
+    public static final class Builder<R> {
+
+        private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+        private final Function<Object, R> delegate;
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Duration expireAfterAccess;
+        private boolean weakKeys;
+        private UnaryOperator<Object> canonicalizer = UnaryOperator.identity();
+
+        private Builder(Function<Object, R> delegate) {
+            this.delegate = requireNonNull(delegate, "delegate must not be null");
+        }
+
+        /**
+         * Limits the number of cached results. The least recently used ones are evicted first.
+         */
+        public Builder<R> maximumSize(long newMaximumSize) {
+            if (newMaximumSize < 0) {
+                throw new IllegalArgumentException("maximumSize must not be negative, but was " + newMaximumSize);
+            }
+            this.maximumSize = newMaximumSize;
+            return this;
+        }
+
+        /**
+         * Evicts the results which have not been used for the given duration.
+         */
+        public Builder<R> expireAfterAccess(Duration newExpireAfterAccess) {
+            this.expireAfterAccess = requireNonNull(newExpireAfterAccess, "expireAfterAccess must not be null");
+            return this;
+        }
+
+        /**
+         * Does not retain the inputs, which are then compared by identity.
+         */
+        public Builder<R> weakKeys() {
+            this.weakKeys = true;
+            return this;
+        }
+
+        /**
+         * Does not retain the inputs and replaces each of them by its canonical instance before the lookup, so that
+         * equal inputs share their result although the keys are compared by identity. For the ids of a pool:
+         *
+         * <pre>
+         * weakKeys(input -&gt; input instanceof StreamId ? pool.intern((StreamId&lt;?&gt;) input) : input)
+         * </pre>
+         *
+         * The canonical instance is also the one passed to the delegate.
+         */
+        public Builder<R> weakKeys(UnaryOperator<Object> newCanonicalizer) {
+            this.canonicalizer = requireNonNull(newCanonicalizer, "canonicalizer must not be null");
+            this.weakKeys = true;
+            return this;
+        }
+
+        public MemoizingFunction<R> build() {
+            CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize)
+                    .recordStats();
+            if (expireAfterAccess != null) {
+                cacheBuilder.expireAfterAccess(expireAfterAccess.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            if (weakKeys) {
+                cacheBuilder.weakKeys();
+            }
+            return new MemoizingFunction<>(delegate, canonicalizer, cacheBuilder.build());
+        }
+    }
+
+}
@@ -22,11 +22,19 @@
 
 package org.streamingpool.core.names.resolve;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
 
+/**
+ * Functions which resolve names of objects, typically used in {@link Chains}. The accessors used by the reflective
+ * functions are resolved once per class and cached (with {@link ClassValue}s), including the fact that a class does
+ * not have a suitable accessor, so that resolving names is cheap enough to be done on every lookup.
+ */
 public class Names {
 
     public static final Function<Object, String> FROM_NAME_METHOD = Names::fromNameMethod;
@@ -38,16 +46,31 @@ public class Names {
     private static final String NAME_METHOD_NAME = "name";
     private static final String TO_STRING_METHOD_NAME = "toString";
 
+    private static final MethodType NAME_ACCESSOR_TYPE = MethodType.methodType(String.class, Object.class);
+    private static final ClassValue<Optional<MethodHandle>> NAME_METHODS = nameAccessorsOfName(NAME_METHOD_NAME);
+    private static final ClassValue<Optional<MethodHandle>> GET_NAME_METHODS = nameAccessorsOfName(
+            GET_NAME_METHOD_NAME);
+    private static final ClassValue<Boolean> TO_STRING_OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return !type.getMethod(TO_STRING_METHOD_NAME).getDeclaringClass().equals(Object.class);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    };
+
     public static final String fromToString(Object object) {
         return Objects.toString(object);
     }
 
     public static String fromNameMethod(Object o) {
-        return nameFromMethodOfName(o, NAME_METHOD_NAME);
+        return nameFromAccessor(o, NAME_METHODS);
     }
 
     public static String fromGetNameMethod(Object o) {
-        return nameFromMethodOfName(o, GET_NAME_METHOD_NAME);
+        return nameFromAccessor(o, GET_NAME_METHODS);
     }
 
     public static String fromSimpleClassName(Object o) {
@@ -55,37 +78,45 @@ public class Names {
     }
 
     public static final String fromOverriddenToString(Object object) {
-        if (isToStringOverriden(object)) {
+        if (TO_STRING_OVERRIDDEN.get(object.getClass())) {
             return object.toString();
         }
         return null;
     }
 
-    private static boolean isToStringOverriden(Object object) {
-        try {
-            return !object.getClass().getMethod(TO_STRING_METHOD_NAME).getDeclaringClass().equals(Object.class);
-        } catch (Exception e) {
-            /* returning false */
-        }
-        return false;
-    }
-
-    private static String nameFromMethodOfName(Object object, String methodName) {
-        Method nameMethod;
-        try {
-            nameMethod = object.getClass().getMethod(methodName);
-        } catch (NoSuchMethodException e) {
-            /* Null On purpose! */
-            return null;
-        }
-        if (!String.class.isAssignableFrom(nameMethod.getReturnType())) {
+    private static String nameFromAccessor(Object object, ClassValue<Optional<MethodHandle>> accessors) {
+        Optional<MethodHandle> accessor = accessors.get(object.getClass());
+        if (!accessor.isPresent()) {
             return null;
         }
         try {
-            return (String) nameMethod.invoke(object);
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            return (String) accessor.get().invokeExact(object);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             return null;
         }
     }
 
+    /**
+     * Resolves, per class, a handle to the public no-arg method of the given name returning a string. Classes without
+     * such a method (or with one which is not accessible) are cached as empty.
+     */
+    private static ClassValue<Optional<MethodHandle>> nameAccessorsOfName(String methodName) {
+        return new ClassValue<Optional<MethodHandle>>() {
+            @Override
+            protected Optional<MethodHandle> computeValue(Class<?> type) {
+                try {
+                    Method method = type.getMethod(methodName);
+                    if (!String.class.isAssignableFrom(method.getReturnType())) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(MethodHandles.publicLookup().unreflect(method).asType(NAME_ACCESSOR_TYPE));
+                } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
+                    return Optional.empty();
+                }
+            }
+        };
+    }
+
 }
@@ -0,0 +1,318 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.journal.ElementSerializer;
+import org.streamingpool.core.service.journal.ElementSerializers;
+import org.streamingpool.core.service.streamid.ClassBasedId;
+import org.streamingpool.core.service.streamid.CombineLatestStreamId;
+import org.streamingpool.core.service.streamid.CombineWithLatestStreamId;
+import org.streamingpool.core.service.streamid.ConflatedStreamId;
+import org.streamingpool.core.service.streamid.DelayedStreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.service.streamid.FlattenedStreamId;
+import org.streamingpool.core.service.streamid.HistoryRetention;
+import org.streamingpool.core.service.streamid.HistoryStreamId;
+import org.streamingpool.core.service.streamid.JournalReplayStreamId;
+import org.streamingpool.core.service.streamid.JournaledStreamId;
+import org.streamingpool.core.service.streamid.LastValueCachedStreamId;
+import org.streamingpool.core.service.streamid.MergedStreamId;
+import org.streamingpool.core.service.streamid.PartitionedStreamId;
+import org.streamingpool.core.service.streamid.ReplayFromStreamId;
+import org.streamingpool.core.service.streamid.StreamingPoolHook;
+import org.streamingpool.core.service.streamid.ZipStreamId;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The codecs of the stream ids provided by the streaming pool. The tags are part of the binary format and must
+ * therefore never be changed or reused. The tag 1 is retired (it was used for a stream id for testing only).
+ * <p>
+ * Not supported are the ids which contain arbitrary objects: the
+ * {@link org.streamingpool.core.service.streamid.OverlapBufferStreamId} (its buffer specification contains a timeout
+ * stream and end predicates), the {@link org.streamingpool.core.service.streamid.WindowedAggregationStreamId} (its
+ * aggregator), the {@link HistoryStreamId} limited by size (its size estimator) and the {@link JournaledStreamId} with
+ * a custom element serializer. Encoding them fails with a {@link StreamIdEncodingException}.
+ * <p>
+ * The codecs of the {@link JournaledStreamId} and the {@link JournalReplayStreamId} are registered separately (see
+ * {@link StreamIdCodecRegistry#registerJournalCodecs()}).
+ */
+final class BuiltInStreamIdCodecs {
+
+    /* The index is part of the binary format, new serializers must be appended */
+    private static final List<ElementSerializer<?>> BUILT_IN_SERIALIZERS = ImmutableList
+            .of(ElementSerializers.utf8(), ElementSerializers.javaSerialization());
+
+    private BuiltInStreamIdCodecs() {
+        /* Only static methods */
+    }
+
+    static void registerInto(StreamIdCodecRegistry registry) {
+        registry.registerWithAnyTag(2, ClassBasedId.class, codec(
+                (ClassBasedId<?> id, StreamIdOutput out) -> out.writeString(id.targetClass().getName()),
+                in -> ClassBasedId.of(classForName(in.readString()))));
+        registry.registerWithAnyTag(3, StreamingPoolHook.class, codec(
+                (StreamingPoolHook id, StreamIdOutput out) -> out.writeString(id.name()),
+                in -> StreamingPoolHook.valueOf(in.readString())));
+        registry.registerWithAnyTag(4, ErrorStreamId.class, codec(
+                (ErrorStreamId<?> id, StreamIdOutput out) -> out.writeId(id.sourceId()),
+                in -> ErrorStreamId.of(in.readId())));
+        registry.registerWithAnyTag(5, DerivedStreamId.class, codec(
+                (DerivedStreamId<?, ?> id, StreamIdOutput out) -> {
+                    out.writeId(id.sourceStreamId());
+                    out.writeFunction(id.conversion(), "conversion");
+                }, BuiltInStreamIdCodecs::decodeDerived));
+        registry.registerWithAnyTag(6, FilteredStreamId.class, codec(
+                (FilteredStreamId<?> id, StreamIdOutput out) -> {
+                    out.writeId(id.sourceStreamId());
+                    out.writeFunction(id.predicate(), "predicate");
+                }, BuiltInStreamIdCodecs::decodeFiltered));
+        registry.registerWithAnyTag(7, CombineWithLatestStreamId.class,
+                codec(BuiltInStreamIdCodecs::encodeCombineWithLatest, BuiltInStreamIdCodecs::decodeCombineWithLatest));
+        registry.registerWithAnyTag(8, DelayedStreamId.class, codec(
+                (DelayedStreamId<?> id, StreamIdOutput out) -> {
+                    out.writeId(id.getTarget());
+                    out.writeDuration(id.getDelay());
+                }, in -> DelayedStreamId.delayBy(in.readId(), in.readDuration())));
+        registry.registerWithAnyTag(9, FlattenedStreamId.class, codec(
+                (FlattenedStreamId<?> id, StreamIdOutput out) -> out.writeId(id.sourceStreamId()),
+                in -> FlattenedStreamId.flatten(in.readId())));
+        registry.registerWithAnyTag(10, CombineLatestStreamId.class,
+                codec(BuiltInStreamIdCodecs::encodeCombineLatest, BuiltInStreamIdCodecs::decodeCombineLatest));
+        registry.registerWithAnyTag(11, ZipStreamId.class,
+                codec(BuiltInStreamIdCodecs::encodeZip, BuiltInStreamIdCodecs::decodeZip));
+        registry.registerWithAnyTag(12, MergedStreamId.class, codec(
+                (MergedStreamId<?> id, StreamIdOutput out) -> {
+                    writeIds(id.sourceStreamIds(), out);
+                    out.writeVarLong(id.prefetch());
+                }, in -> MergedStreamId.merge(readIds(in), in.readVarInt())));
+        registry.registerWithAnyTag(13, PartitionedStreamId.class, codec(
+                (PartitionedStreamId<?, ?> id, StreamIdOutput out) -> {
+                    out.writeId(id.sourceStreamId());
+                    out.writeFunction(id.keyFunction(), "key function");
+                    out.writeValue(id.key());
+                }, BuiltInStreamIdCodecs::decodePartitioned));
+        registry.registerWithAnyTag(14, ConflatedStreamId.class, codec(
+                (ConflatedStreamId<?> id, StreamIdOutput out) -> {
+                    out.writeId(id.sourceStreamId());
+                    out.writeDuration(id.minInterval());
+                }, in -> ConflatedStreamId.conflate(in.readId(), in.readDuration())));
+        registry.registerWithAnyTag(15, LastValueCachedStreamId.class, codec(
+                (LastValueCachedStreamId<?> id, StreamIdOutput out) -> out.writeId(id.sourceStreamId()),
+                in -> LastValueCachedStreamId.cachingLastValueOf(in.readId())));
+        registry.registerWithAnyTag(16, HistoryStreamId.class,
+                codec(BuiltInStreamIdCodecs::encodeHistory, BuiltInStreamIdCodecs::decodeHistory));
+        registry.registerWithAnyTag(17, ReplayFromStreamId.class, codec(
+                (ReplayFromStreamId<?> id, StreamIdOutput out) -> {
+                    out.writeId(id.historyStreamId());
+                    out.writeInstant(id.from());
+                }, in -> ReplayFromStreamId.replayFrom(readId(in, HistoryStreamId.class), in.readInstant())));
+    }
+
+    /* Separate, as creating a journal id writes into the directory it names */
+    static void registerJournalsInto(StreamIdCodecRegistry registry) {
+        registry.registerWithAnyTag(18, JournaledStreamId.class,
+                codec(BuiltInStreamIdCodecs::encodeJournaled, BuiltInStreamIdCodecs::decodeJournaled));
+        registry.registerWithAnyTag(19, JournalReplayStreamId.class, codec(
+                (JournalReplayStreamId<?> id, StreamIdOutput out) -> {
+                    out.writeId(id.journaledStreamId());
+                    out.writeVarLong(id.fromOffset());
+                }, in -> JournalReplayStreamId.replayFrom(readId(in, JournaledStreamId.class), in.readVarLong())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DerivedStreamId<?, ?> decodeDerived(StreamIdInput in) {
+        StreamId<Object> source = in.readId();
+        return DerivedStreamId.derive(source, (Function<Object, Object>) in.readFunction(Function.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FilteredStreamId<?> decodeFiltered(StreamIdInput in) {
+        StreamId<Object> source = in.readId();
+        return FilteredStreamId.filterBy(source, (Predicate<Object>) in.readFunction(Predicate.class));
+    }
+
+    private static void encodeCombineWithLatest(CombineWithLatestStreamId<?, ?, ?> id, StreamIdOutput out) {
+        out.writeId(id.triggerStream());
+        out.writeId(id.dataStream());
+        boolean dataPropagated = id.combiner()
+                .equals(CombineWithLatestStreamId.dataPropagated(id.triggerStream(), id.dataStream()).combiner());
+        out.writeBoolean(dataPropagated);
+        if (!dataPropagated) {
+            out.writeFunction(id.combiner(), "combiner");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CombineWithLatestStreamId<?, ?, ?> decodeCombineWithLatest(StreamIdInput in) {
+        StreamId<Object> trigger = in.readId();
+        StreamId<Object> data = in.readId();
+        if (in.readBoolean()) {
+            return CombineWithLatestStreamId.dataPropagated(trigger, data);
+        }
+        return CombineWithLatestStreamId.combine(trigger, data,
+                (BiFunction<Object, Object, Object>) in.readFunction(BiFunction.class));
+    }
+
+    private static void encodeCombineLatest(CombineLatestStreamId<?, ?> id, StreamIdOutput out) {
+        writeIds(id.sourceStreamIds(), out);
+        writeListCombiner(id.combiner(), CombineLatestStreamId.combineLatest(id.sourceStreamIds()).combiner(), out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CombineLatestStreamId<?, ?> decodeCombineLatest(StreamIdInput in) {
+        List<StreamId<Object>> sources = readIds(in);
+        if (in.readBoolean()) {
+            return CombineLatestStreamId.combineLatest(sources);
+        }
+        return CombineLatestStreamId.combineLatest(sources,
+                (Function<List<Object>, Object>) in.readFunction(Function.class));
+    }
+
+    private static void encodeZip(ZipStreamId<?, ?> id, StreamIdOutput out) {
+        writeIds(id.sourceStreamIds(), out);
+        writeListCombiner(id.combiner(), ZipStreamId.zip(id.sourceStreamIds()).combiner(), out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ZipStreamId<?, ?> decodeZip(StreamIdInput in) {
+        List<StreamId<Object>> sources = readIds(in);
+        if (in.readBoolean()) {
+            return ZipStreamId.zip(sources);
+        }
+        return ZipStreamId.zip(sources, (Function<List<Object>, Object>) in.readFunction(Function.class));
+    }
+
+    private static void writeListCombiner(Object combiner, Object defaultCombiner, StreamIdOutput out) {
+        boolean isDefault = combiner.equals(defaultCombiner);
+        out.writeBoolean(isDefault);
+        if (!isDefault) {
+            out.writeFunction(combiner, "combiner");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PartitionedStreamId<?, ?> decodePartitioned(StreamIdInput in) {
+        StreamId<Object> source = in.readId();
+        Function<Object, Object> keyFunction = in.readFunction(Function.class);
+        return PartitionedStreamId.partition(source, keyFunction, in.readValue());
+    }
+
+    private static void encodeHistory(HistoryStreamId<?> id, StreamIdOutput out) {
+        if (id.retention().isLimitedBySize()) {
+            throw new StreamIdEncodingException(
+                    "The size estimator of a history cannot be encoded (stream id " + id + ")");
+        }
+        out.writeId(id.sourceStreamId());
+        out.writeDuration(id.retention().maxAge());
+    }
+
+    private static HistoryStreamId<?> decodeHistory(StreamIdInput in) {
+        StreamId<Object> source = in.readId();
+        return HistoryStreamId.historyOf(source, HistoryRetention.ofMaxAge(in.readDuration()));
+    }
+
+    private static void encodeJournaled(JournaledStreamId<?> id, StreamIdOutput out) {
+        int serializer = BUILT_IN_SERIALIZERS.indexOf(id.serializer());
+        if (serializer < 0) {
+            throw new StreamIdEncodingException("Only the serializers of ElementSerializers can be encoded, but got "
+                    + id.serializer() + " (stream id " + id + ")");
+        }
+        out.writeId(id.sourceStreamId());
+        out.writeString(id.directory());
+        out.writeVarLong(serializer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JournaledStreamId<?> decodeJournaled(StreamIdInput in) {
+        StreamId<Object> source = in.readId();
+        String directory = in.readString();
+        int serializer = in.readVarInt();
+        if (serializer >= BUILT_IN_SERIALIZERS.size()) {
+            throw new StreamIdEncodingException("Unknown element serializer " + serializer);
+        }
+        return JournaledStreamId.journaled(source, directory,
+                (ElementSerializer<Object>) BUILT_IN_SERIALIZERS.get(serializer));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I extends StreamId<?>> I readId(StreamIdInput in, Class<? super I> type) {
+        StreamId<?> id = in.readId();
+        if (!type.isInstance(id)) {
+            throw new StreamIdEncodingException("Expected a " + type.getSimpleName() + ", but got " + id);
+        }
+        return (I) id;
+    }
+
+    private static void writeIds(List<? extends StreamId<?>> ids, StreamIdOutput out) {
+        out.writeVarLong(ids.size());
+        ids.forEach(out::writeId);
+    }
+
+    private static <T> List<StreamId<T>> readIds(StreamIdInput in) {
+        int size = in.readVarInt();
+        if (size > in.remaining()) {
+            throw new StreamIdEncodingException(
+                    "Cannot read " + size + " stream ids from the remaining " + in.remaining() + " bytes");
+        }
+        List<StreamId<T>> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(in.readId());
+        }
+        return ids;
+    }
+
+    private static Class<?> classForName(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new StreamIdEncodingException("Cannot decode class based id: class " + name + " not found", e);
+        }
+    }
+
+    private static <I extends StreamId<?>> StreamIdCodec<I> codec(BiConsumer<I, StreamIdOutput> encoder,
+            Function<StreamIdInput, I> decoder) {
+        return new StreamIdCodec<I>() {
+            @Override
+            public void encode(I id, StreamIdOutput out) {
+                encoder.accept(id, out);
+            }
+
+            @Override
+            public I decode(StreamIdInput in) {
+                return decoder.apply(in);
+            }
+        };
+    }
+
+}
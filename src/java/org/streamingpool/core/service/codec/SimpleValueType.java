@@ -0,0 +1,104 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+/**
+ * The types of simple values which can be written within stream ids. The ordinals are part of the binary format and
+ * must therefore not be changed.
+ */
+enum SimpleValueType {
+    STRING(String.class) {
+        @Override
+        void write(Object value, StreamIdOutput out) {
+            out.writeString((String) value);
+        }
+
+        @Override
+        Object read(StreamIdInput in) {
+            return in.readString();
+        }
+    },
+    INTEGER(Integer.class) {
+        @Override
+        void write(Object value, StreamIdOutput out) {
+            out.writeSignedVarLong((Integer) value);
+        }
+
+        @Override
+        Object read(StreamIdInput in) {
+            return Math.toIntExact(in.readSignedVarLong());
+        }
+    },
+    LONG(Long.class) {
+        @Override
+        void write(Object value, StreamIdOutput out) {
+            out.writeSignedVarLong((Long) value);
+        }
+
+        @Override
+        Object read(StreamIdInput in) {
+            return in.readSignedVarLong();
+        }
+    },
+    DOUBLE(Double.class) {
+        @Override
+        void write(Object value, StreamIdOutput out) {
+            out.writeDouble((Double) value);
+        }
+
+        @Override
+        Object read(StreamIdInput in) {
+            return in.readDouble();
+        }
+    },
+    BOOLEAN(Boolean.class) {
+        @Override
+        void write(Object value, StreamIdOutput out) {
+            out.writeBoolean((Boolean) value);
+        }
+
+        @Override
+        Object read(StreamIdInput in) {
+            return in.readBoolean();
+        }
+    };
+
+    private final Class<?> type;
+
+    SimpleValueType(Class<?> type) {
+        this.type = type;
+    }
+
+    abstract void write(Object value, StreamIdOutput out);
+
+    abstract Object read(StreamIdInput in);
+
+    static SimpleValueType of(Object value) {
+        for (SimpleValueType candidate : values()) {
+            if (candidate.type.isInstance(value)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Encodes stream ids of one type into the binary format of a {@link StreamIdCodecRegistry} and decodes them back.
+ * Nested stream ids (e.g. the source of a derived stream id) are written by {@link StreamIdOutput#writeId(StreamId)},
+ * which delegates to the codec registered for their type.
+ *
+ * @param <I> the type of the stream ids
+ */
+public interface StreamIdCodec<I extends StreamId<?>> {
+
+    void encode(I id, StreamIdOutput out);
+
+    I decode(StreamIdInput in);
+
+}
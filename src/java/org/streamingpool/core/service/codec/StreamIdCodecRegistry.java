@@ -0,0 +1,226 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.function.KeyedBiFunction;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+import org.streamingpool.core.service.streamid.function.KeyedPredicate;
+
+/**
+ * Encodes stream ids into a compact binary format and decodes them back, as an alternative to the Java serialization
+ * (e.g. for using stream ids as keys in journals, caches or remote lookups).
+ * <p>
+ * The encoded form starts with the version of the format ({@link #FORMAT_VERSION}), followed by the id: the tag of its
+ * codec (as variable length number) and the data written by the codec, which recursively contains the nested ids.
+ * Codecs for the stream ids provided by the streaming pool are included in {@link #withBuiltInCodecs()}; codecs for
+ * custom ids can be registered with tags starting at {@link #FIRST_CUSTOM_TAG}.
+ * <p>
+ * Functions within ids (e.g. the conversion of a derived stream id) cannot be encoded themselves. Only keyed functions
+ * are supported: their key is encoded and the function is looked up by this key when decoding. Therefore, all the
+ * keyed functions which are used in decoded ids have to be registered by {@link #registerFunction(KeyedFunction)} (or
+ * its overloads).
+ */
+public final class StreamIdCodecRegistry {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int FIRST_CUSTOM_TAG = 128;
+    /**
+     * The maximum nesting depth of the decoded ids, so that malicious input fails with a
+     * {@link StreamIdEncodingException} instead of exhausting the stack.
+     */
+    public static final int MAX_NESTING_DEPTH = 256;
+
+    private final ConcurrentMap<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Registration<?>> registrationsByTag = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> functionsByKey = new ConcurrentHashMap<>();
+
+    private StreamIdCodecRegistry() {
+        /* Use the static factory methods */
+    }
+
+    /**
+     * Creates a registry without any codec.
+     */
+    public static StreamIdCodecRegistry empty() {
+        return new StreamIdCodecRegistry();
+    }
+
+    /**
+     * Creates a registry containing the codecs of the stream ids provided by the streaming pool.
+     */
+    public static StreamIdCodecRegistry withBuiltInCodecs() {
+        StreamIdCodecRegistry registry = new StreamIdCodecRegistry();
+        BuiltInStreamIdCodecs.registerInto(registry);
+        return registry;
+    }
+
+    /**
+     * Adds the codecs of the {@link org.streamingpool.core.service.streamid.JournaledStreamId} and the
+     * {@link org.streamingpool.core.service.streamid.JournalReplayStreamId}, which are not part of
+     * {@link #withBuiltInCodecs()}: a journal id names a directory, in which the pool creates and maps the journal
+     * files as soon as the id is discovered. Only registries which decode ids from trusted sources should contain them
+     * (e.g. not the one of a {@link org.streamingpool.core.service.remote.RemotePoolServer} reachable by untrusted
+     * clients).
+     *
+     * @throws IllegalArgumentException if the journal codecs are already registered
+     */
+    public StreamIdCodecRegistry registerJournalCodecs() {
+        BuiltInStreamIdCodecs.registerJournalsInto(this);
+        return this;
+    }
+
+    /**
+     * Registers a codec for the given type of stream ids. Only ids of exactly this class are encoded with the codec
+     * (not the ones of subclasses).
+     *
+     * @param tag the tag which identifies the codec in the binary format. It must be unique and at least
+     *            {@link #FIRST_CUSTOM_TAG}; the lower tags are reserved for the built-in codecs.
+     * @throws IllegalArgumentException if the tag is reserved or if the tag or the type are already registered
+     */
+    public <I extends StreamId<?>> StreamIdCodecRegistry register(int tag, Class<? super I> type,
+            StreamIdCodec<I> codec) {
+        if (tag < FIRST_CUSTOM_TAG) {
+            throw new IllegalArgumentException("The tags below " + FIRST_CUSTOM_TAG + " are reserved, but got " + tag);
+        }
+        return registerWithAnyTag(tag, type, codec);
+    }
+
+    <I extends StreamId<?>> StreamIdCodecRegistry registerWithAnyTag(int tag, Class<? super I> type,
+            StreamIdCodec<I> codec) {
+        Registration<I> registration = new Registration<>(tag, requireNonNull(codec, "codec must not be null"));
+        requireNonNull(type, "type must not be null");
+        synchronized (this) {
+            if (registrationsByTag.containsKey(tag)) {
+                throw new IllegalArgumentException("The tag " + tag + " is already registered");
+            }
+            if (registrationsByType.containsKey(type)) {
+                throw new IllegalArgumentException("A codec for " + type + " is already registered");
+            }
+            registrationsByTag.put(tag, registration);
+            registrationsByType.put(type, registration);
+        }
+        return this;
+    }
+
+    public StreamIdCodecRegistry registerFunction(KeyedFunction<?, ?> function) {
+        functionsByKey.put(function.key(), function);
+        return this;
+    }
+
+    public StreamIdCodecRegistry registerFunction(KeyedPredicate<?> predicate) {
+        functionsByKey.put(predicate.key(), predicate);
+        return this;
+    }
+
+    public StreamIdCodecRegistry registerFunction(KeyedBiFunction<?, ?, ?> function) {
+        functionsByKey.put(function.key(), function);
+        return this;
+    }
+
+    /**
+     * Encodes the given stream id.
+     *
+     * @throws StreamIdEncodingException if the id (or one of its nested ids or functions) cannot be encoded
+     */
+    public byte[] encode(StreamId<?> id) {
+        requireNonNull(id, "id must not be null");
+        StreamIdOutput out = new StreamIdOutput(this, id);
+        out.writeByte(FORMAT_VERSION);
+        encodeInto(id, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a stream id which was encoded by {@link #encode(StreamId)}.
+     *
+     * @throws StreamIdEncodingException if the bytes are not a valid encoding, if one of the contained codec tags or
+     *             function keys is unknown or if the ids are nested deeper than {@link #MAX_NESTING_DEPTH}
+     */
+    public StreamId<?> decode(byte[] bytes) {
+        StreamIdInput in = new StreamIdInput(this, requireNonNull(bytes, "bytes must not be null"), 0);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new StreamIdEncodingException(
+                    "Unsupported format version " + version + ", only version " + FORMAT_VERSION + " is supported");
+        }
+        StreamId<?> id = decodeFrom(in);
+        if (!in.isFullyRead()) {
+            throw new StreamIdEncodingException("Unexpected bytes after the end of the encoded stream id " + id);
+        }
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    void encodeInto(StreamId<?> id, StreamIdOutput out) {
+        Registration<StreamId<?>> registration = (Registration<StreamId<?>>) registrationsByType.get(id.getClass());
+        if (registration == null) {
+            throw new StreamIdEncodingException("No codec is registered for " + id.getClass() + " (stream id " + id
+                    + "). Register one by StreamIdCodecRegistry.register(..).");
+        }
+        out.writeVarLong(registration.tag);
+        registration.codec.encode(id, out);
+    }
+
+    StreamId<?> decodeFrom(StreamIdInput in) {
+        int tag = in.readVarInt();
+        Registration<?> registration = registrationsByTag.get(tag);
+        if (registration == null) {
+            throw new StreamIdEncodingException("No codec is registered for the tag " + tag);
+        }
+        return registration.codec.decode(in);
+    }
+
+    Object functionOf(String key) {
+        return functionsByKey.get(key);
+    }
+
+    static String keyOf(Object function) {
+        if (function instanceof KeyedFunction) {
+            return ((KeyedFunction<?, ?>) function).key();
+        }
+        if (function instanceof KeyedPredicate) {
+            return ((KeyedPredicate<?>) function).key();
+        }
+        if (function instanceof KeyedBiFunction) {
+            return ((KeyedBiFunction<?, ?, ?>) function).key();
+        }
+        return null;
+    }
+
+    private static final class Registration<I extends StreamId<?>> {
+        private final int tag;
+        private final StreamIdCodec<I> codec;
+
+        Registration(int tag, StreamIdCodec<I> codec) {
+            this.tag = tag;
+            this.codec = codec;
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+/**
+ * Indicates that a stream id cannot be encoded (e.g. because no codec is registered for its type or because it
+ * contains a function which is not keyed) or that some bytes cannot be decoded into a stream id.
+ */
+public class StreamIdEncodingException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StreamIdEncodingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StreamIdEncodingException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,185 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * The source from which {@link StreamIdCodec}s read the stream ids. It is the counterpart of {@link StreamIdOutput}.
+ */
+public final class StreamIdInput {
+
+    private final StreamIdCodecRegistry registry;
+    private final byte[] bytes;
+    private int position;
+    private int depth;
+
+    StreamIdInput(StreamIdCodecRegistry registry, byte[] bytes, int position) {
+        this.registry = registry;
+        this.bytes = bytes;
+        this.position = position;
+    }
+
+    /**
+     * Reads a nested stream id. The type of the result is not checked; it is the responsibility of the codec to only
+     * read ids which were written at the same place.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> StreamId<T> readId() {
+        if (depth == StreamIdCodecRegistry.MAX_NESTING_DEPTH) {
+            throw new StreamIdEncodingException("Stream ids nested deeper than "
+                    + StreamIdCodecRegistry.MAX_NESTING_DEPTH + " at position " + position);
+        }
+        depth++;
+        try {
+            return (StreamId<T>) registry.decodeFrom(this);
+        } finally {
+            depth--;
+        }
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamIdEncodingException("Malformed variable length number at position " + position);
+    }
+
+    public long readSignedVarLong() {
+        long encoded = readVarLong();
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    /**
+     * Reads a variable length number which must be a non-negative int (e.g. a length or a count).
+     */
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new StreamIdEncodingException("Number " + value + " out of range before position " + position);
+        }
+        return (int) value;
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        requireAvailable(length);
+        String value = new String(bytes, position, length, UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Duration readDuration() {
+        long seconds = readSignedVarLong();
+        return Duration.ofSeconds(seconds, readNanos());
+    }
+
+    public Instant readInstant() {
+        long seconds = readSignedVarLong();
+        try {
+            return Instant.ofEpochSecond(seconds, readNanos());
+        } catch (DateTimeException e) {
+            throw new StreamIdEncodingException("Instant out of range before position " + position, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V readValue() {
+        int ordinal = readByte();
+        SimpleValueType[] types = SimpleValueType.values();
+        if (ordinal >= types.length) {
+            throw new StreamIdEncodingException("Unknown value type " + ordinal + " at position " + position);
+        }
+        return (V) types[ordinal].read(this);
+    }
+
+    /**
+     * Reads the key of a keyed function and returns the function registered with this key.
+     *
+     * @throws StreamIdEncodingException if no function of the given type is registered with the key
+     */
+    public <F> F readFunction(Class<F> functionType) {
+        String key = readString();
+        Object function = registry.functionOf(key);
+        if (!functionType.isInstance(function)) {
+            throw new StreamIdEncodingException(
+                    "No " + functionType.getSimpleName() + " is registered with the key '" + key + "'");
+        }
+        return functionType.cast(function);
+    }
+
+    /**
+     * Returns the number of bytes which are not yet read. Each encoded element takes at least one byte, so that this
+     * is an upper bound for the number of elements which can still be read.
+     */
+    int remaining() {
+        return bytes.length - position;
+    }
+
+    int readByte() {
+        requireAvailable(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    boolean isFullyRead() {
+        return position == bytes.length;
+    }
+
+    private long readNanos() {
+        long nanos = readVarLong();
+        if (nanos < 0 || nanos >= 1_000_000_000) {
+            throw new StreamIdEncodingException("Nanoseconds " + nanos + " out of range before position " + position);
+        }
+        return nanos;
+    }
+
+    private void requireAvailable(int count) {
+        if (count > remaining()) {
+            throw new StreamIdEncodingException("Unexpected end of encoded stream id at position " + position);
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.function.KeyedBiFunction;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+import org.streamingpool.core.service.streamid.function.KeyedPredicate;
+
+/**
+ * The sink into which {@link StreamIdCodec}s write the stream ids. Integers are written as variable length quantities,
+ * strings as UTF-8, so that small ids result in only a few bytes.
+ */
+public final class StreamIdOutput {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StreamIdCodecRegistry registry;
+    private final StreamId<?> rootId;
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    StreamIdOutput(StreamIdCodecRegistry registry, StreamId<?> rootId) {
+        this.registry = registry;
+        this.rootId = rootId;
+    }
+
+    /**
+     * Writes a nested stream id, using the codec registered for its type.
+     *
+     * @throws StreamIdEncodingException if there is no codec for the id
+     */
+    public void writeId(StreamId<?> id) {
+        registry.encodeInto(id, this);
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a non-negative number in a variable length format (7 bits per byte).
+     */
+    public void writeVarLong(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be written as var long: " + value);
+        }
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        writeByte((int) remaining);
+    }
+
+    /**
+     * Writes any (also negative) number in a variable length format, using the zig-zag encoding.
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (bits >>> shift));
+        }
+    }
+
+    public void writeString(String value) {
+        byte[] encoded = value.getBytes(UTF_8);
+        writeVarLong(encoded.length);
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, bytes, size, encoded.length);
+        size += encoded.length;
+    }
+
+    public void writeDuration(Duration duration) {
+        writeSignedVarLong(duration.getSeconds());
+        writeVarLong(duration.getNano());
+    }
+
+    public void writeInstant(Instant instant) {
+        writeSignedVarLong(instant.getEpochSecond());
+        writeVarLong(instant.getNano());
+    }
+
+    /**
+     * Writes a simple value (e.g. the key of a partition). Supported are strings, integers, longs, doubles and
+     * booleans.
+     *
+     * @throws StreamIdEncodingException if the value is of another type
+     */
+    public void writeValue(Object value) {
+        SimpleValueType type = SimpleValueType.of(value);
+        if (type == null) {
+            throw new StreamIdEncodingException("Cannot encode value " + value + " of " + value.getClass()
+                    + " within stream id " + rootId + ". Supported are " + Arrays.toString(SimpleValueType.values()));
+        }
+        writeByte(type.ordinal());
+        type.write(value, this);
+    }
+
+    /**
+     * Writes the key of a keyed function ({@link KeyedFunction}, {@link KeyedPredicate} or {@link KeyedBiFunction}).
+     * When decoding, the function is looked up by this key in the registry.
+     *
+     * @param function the function to write
+     * @param role a description of the function within its stream id (e.g. "conversion"), used for error messages
+     * @throws StreamIdEncodingException if the function is not keyed
+     */
+    public void writeFunction(Object function, String role) {
+        String key = StreamIdCodecRegistry.keyOf(function);
+        if (key == null) {
+            throw new StreamIdEncodingException("The " + role + " " + function + " within stream id " + rootId
+                    + " cannot be encoded. Only keyed functions (KeyedFunction, KeyedPredicate or KeyedBiFunction)"
+                    + " which are registered in the codec registry can be encoded.");
+        }
+        writeString(key);
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) value;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+
+}
@@ -11,6 +11,8 @@ public class ErrorStreamId<S extends StreamId<?>> implements StreamId<Throwable>
 
     private final S sourceId;
 
+    private transient int hash;
+
 	private ErrorStreamId(S sourceId) {
 		this.sourceId = requireNonNull(sourceId, "sourceId must not be null");
 	}
@@ -25,9 +27,13 @@ public class ErrorStreamId<S extends StreamId<?>> implements StreamId<Throwable>
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((sourceId == null) ? 0 : sourceId.hashCode());
+		int result = hash;
+		if (result == 0) {
+			final int prime = 31;
+			result = 1;
+			result = prime * result + ((sourceId == null) ? 0 : sourceId.hashCode());
+			hash = result;
+		}
 		return result;
 	}
 
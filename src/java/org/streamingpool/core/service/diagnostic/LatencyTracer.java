@@ -0,0 +1,257 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.diagnostic;
+
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.streamingpool.core.service.StreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+
+/**
+ * Samples elements of the streams provided to a pool and traces them through the streams created from them by the
+ * factories, recording per created stream id:
+ * <ul>
+ * <li>the latency since the sampled element was handed over by its provided source stream, and</li>
+ * <li>the latency of the hop, i.e. since the element (or the element it was derived from) was emitted by the upstream
+ * stream of the pool.</li>
+ * </ul>
+ * A trace is carried by the thread propagating the element, so it follows the synchronous stages (derive, filter,
+ * combine with the triggering element, count-based buffers, ...). It ends at asynchronous boundaries (e.g. delays or
+ * changes of thread), after which the elements are not traced. The latency accumulated up to such a boundary is still
+ * recorded at the last traced hop.
+ * <p>
+ * Only one element out of every {@link #sampleEvery(int) sampling interval} is traced (per subscriber of a source), so
+ * the overhead for the other elements is a counter increment at the sources and a thread-local lookup per hop.
+ * 
+ * @see org.streamingpool.core.service.impl.LocalPoolBuilder#latencyTracer(LatencyTracer)
+ */
+public final class LatencyTracer {
+
+    private final int samplingInterval;
+    private final ThreadLocal<Trace> traces = ThreadLocal.withInitial(Trace::new);
+    private final ConcurrentMap<StreamId<?>, HopLatencies> latencies = new ConcurrentHashMap<>();
+
+    private LatencyTracer(int samplingInterval) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("samplingInterval must be positive, but was " + samplingInterval);
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * Creates a tracer which traces every n-th element of each subscriber of the provided streams.
+     */
+    public static LatencyTracer sampleEvery(int n) {
+        return new LatencyTracer(n);
+    }
+
+    public int samplingInterval() {
+        return samplingInterval;
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the recorded latencies, per id of the created streams which traced elements
+     * passed through.
+     */
+    public Map<StreamId<?>, HopLatencies> latencies() {
+        return unmodifiableMap(latencies);
+    }
+
+    /**
+     * Forgets all the recorded latencies. The histograms are cleared in place, as the streams which are already traced
+     * keep recording into them.
+     */
+    public void reset() {
+        latencies.values().forEach(HopLatencies::reset);
+    }
+
+    /**
+     * Wraps a stream provided to the pool, so that its sampled elements start a trace.
+     */
+    public <T> Publisher<T> traceSource(Publisher<T> source) {
+        return Flowable.fromPublisher(source).lift(downstream -> new SourceSubscriber<>(downstream));
+    }
+
+    /**
+     * Wraps a stream created by the pool, so that the traced elements it emits are recorded for its id.
+     */
+    public <T> Publisher<T> traceHop(StreamId<T> id, Publisher<T> created) {
+        HopLatencies hopLatencies = latencies.computeIfAbsent(id, k -> new HopLatencies());
+        return Flowable.fromPublisher(created).lift(downstream -> new HopSubscriber<>(downstream, hopLatencies));
+    }
+
+    /**
+     * The latencies recorded for the elements emitted by one stream, in nanoseconds.
+     */
+    public static final class HopLatencies {
+        private final LatencyHistogram sinceSource = new LatencyHistogram();
+        private final LatencyHistogram sinceUpstream = new LatencyHistogram();
+
+        HopLatencies() {
+            /* Created by the tracer */
+        }
+
+        void reset() {
+            sinceSource.reset();
+            sinceUpstream.reset();
+        }
+
+        /**
+         * Returns the latencies since the traced elements were handed over by their provided source streams.
+         */
+        public LatencyHistogram sinceSource() {
+            return sinceSource;
+        }
+
+        /**
+         * Returns the latencies added by this hop, since the traced elements were emitted by the upstream stream.
+         */
+        public LatencyHistogram sinceUpstream() {
+            return sinceUpstream;
+        }
+
+        @Override
+        public String toString() {
+            return "HopLatencies [count=" + sinceSource.count() + ", p50SinceSource="
+                    + sinceSource.valueAtPercentile(50) + "ns, p99SinceSource=" + sinceSource.valueAtPercentile(99)
+                    + "ns, p50SinceUpstream=" + sinceUpstream.valueAtPercentile(50) + "ns, p99SinceUpstream="
+                    + sinceUpstream.valueAtPercentile(99) + "ns]";
+        }
+    }
+
+    private static final class Trace {
+        boolean active;
+        long originNanos;
+        long upstreamEmissionNanos;
+    }
+
+    private abstract static class TracingSubscriber<T> implements FlowableSubscriber<T>, Subscription {
+        final Subscriber<? super T> downstream;
+        private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+
+        TracingSubscriber(Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (upstream.compareAndSet(null, subscription)) {
+                downstream.onSubscribe(this);
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.get().request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.get().cancel();
+        }
+    }
+
+    private final class SourceSubscriber<T> extends TracingSubscriber<T> {
+        /* The signals of a subscriber are serialized, so no synchronization is needed */
+        private long count;
+
+        SourceSubscriber(Subscriber<? super T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (++count % samplingInterval != 0) {
+                downstream.onNext(value);
+                return;
+            }
+            Trace trace = traces.get();
+            if (trace.active) {
+                /* A source subscribed within a trace (e.g. by a flatMap), the outer trace continues */
+                downstream.onNext(value);
+                return;
+            }
+            long now = System.nanoTime();
+            trace.active = true;
+            trace.originNanos = now;
+            trace.upstreamEmissionNanos = now;
+            try {
+                downstream.onNext(value);
+            } finally {
+                trace.active = false;
+            }
+        }
+    }
+
+    private final class HopSubscriber<T> extends TracingSubscriber<T> {
+        private final HopLatencies hopLatencies;
+
+        HopSubscriber(Subscriber<? super T> downstream, HopLatencies hopLatencies) {
+            super(downstream);
+            this.hopLatencies = hopLatencies;
+        }
+
+        @Override
+        public void onNext(T value) {
+            Trace trace = traces.get();
+            if (!trace.active) {
+                downstream.onNext(value);
+                return;
+            }
+            long now = System.nanoTime();
+            hopLatencies.sinceSource.record(now - trace.originNanos);
+            hopLatencies.sinceUpstream.record(now - trace.upstreamEmissionNanos);
+            long upstreamEmission = trace.upstreamEmissionNanos;
+            trace.upstreamEmissionNanos = now;
+            try {
+                downstream.onNext(value);
+            } finally {
+                /* Restored for the other subscribers of the upstream stream */
+                trace.upstreamEmissionNanos = upstreamEmission;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.diagnostic;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toSet;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+
+/**
+ * Diagnostic which finds stream ids that are structurally the same, but differ only in functions (lambdas, method
+ * references or other functional objects without proper equality). Such ids typically result from the same derivation
+ * being written at several places: each of them creates its own stream in the pool (with its own upstream subscriptions
+ * and error stream), although one would be sufficient. Using keyed functions (see {@link KeyedFunction}) avoids this.
+ */
+public final class NearDuplicateStreamIds {
+
+    private static final String STREAMING_POOL_PACKAGE = "org.streamingpool";
+    private static final String OPAQUE_FUNCTION = "<function>";
+
+    private NearDuplicateStreamIds() {
+        /* Only static methods */
+    }
+
+    /**
+     * Finds the groups of near-duplicates within the given ids. Each of the returned sets contains at least two ids,
+     * which are not equal to each other, but which would be equal if all their functions were.
+     *
+     * @param ids the ids to analyse (e.g. all the ids of a running pool)
+     * @return the groups of near-duplicate ids
+     */
+    public static Set<Set<StreamId<?>>> in(Collection<StreamId<?>> ids) {
+        Map<Object, Set<StreamId<?>>> idsByShape = ids.stream().filter(id -> !(id instanceof ErrorStreamId))
+                .collect(groupingBy(NearDuplicateStreamIds::shapeOf, toSet()));
+        return idsByShape.values().stream().filter(group -> group.size() > 1).collect(toSet());
+    }
+
+    private static Object shapeOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (isOpaqueFunction(value)) {
+            return OPAQUE_FUNCTION;
+        }
+        if (value instanceof List) {
+            List<Object> shapes = new ArrayList<>();
+            ((List<?>) value).forEach(element -> shapes.add(shapeOf(element)));
+            return shapes;
+        }
+        if (value instanceof Set) {
+            Set<Object> shapes = new HashSet<>();
+            ((Set<?>) value).forEach(element -> shapes.add(shapeOf(element)));
+            return shapes;
+        }
+        if (value.getClass().getName().startsWith(STREAMING_POOL_PACKAGE)) {
+            return fieldShapesOf(value);
+        }
+        return value;
+    }
+
+    private static List<Object> fieldShapesOf(Object value) {
+        List<Object> shape = new ArrayList<>();
+        shape.add(value.getClass());
+        for (Class<?> c = value.getClass(); c != null && !Object.class.equals(c); c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                shape.add(shapeOf(valueOf(field, value)));
+            }
+        }
+        return shape;
+    }
+
+    private static boolean isOpaqueFunction(Object value) {
+        boolean isFunction = value instanceof Function || value instanceof Predicate || value instanceof BiFunction
+                || value instanceof BiPredicate;
+        return isFunction && !overridesEquals(value.getClass());
+    }
+
+    private static boolean overridesEquals(Class<?> type) {
+        try {
+            return !Object.class.equals(type.getMethod("equals", Object.class).getDeclaringClass());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Object valueOf(Field field, Object target) {
+        try {
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (IllegalAccessException | RuntimeException e) {
+            /* Inaccessible fields are considered by their identity */
+            return new Object();
+        }
+    }
+
+}
@@ -25,7 +25,11 @@ package org.streamingpool.core.service.impl;
 import static java.util.Objects.requireNonNull;
 
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.reactivestreams.Publisher;
@@ -34,10 +38,14 @@ import org.slf4j.LoggerFactory;
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.ProvidingService;
+import org.streamingpool.core.service.StreamCreator;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamFactoryRegistry;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.TypedStreamFactory;
+import org.streamingpool.core.service.diagnostic.LatencyTracer;
+import org.streamingpool.core.service.diagnostic.NearDuplicateStreamIds;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
 
 /**
  * Local pool for providing and discovery of {@link Publisher}s. (this class is both a {@link DiscoveryService} and a
@@ -52,15 +60,43 @@ public class LocalPool implements DiscoveryService, ProvidingService, StreamFact
     private static final Logger LOGGER = LoggerFactory.getLogger(LocalPool.class);
 
     private final List<StreamFactory> factories;
-    private final PoolContent content = new PoolContent();
+    private final PoolContent content;
+    private final Optional<LatencyTracer> latencyTracer;
 
     public LocalPool() {
         this(Collections.emptyList());
     }
 
     public LocalPool(List<StreamFactory> factories) {
-        java.util.Objects.requireNonNull(factories,"Factories can not be null");
+        this(factories, StreamIdInterners.weak());
+    }
+
+    /**
+     * Creates a pool using the given factories, which interns all the ids with the given {@link StreamIdInterner}.
+     * 
+     * @param factories the factories which are used (in the given order) to lazily create streams
+     * @param interner the interner for the ids of the streams in the pool
+     * @see StreamIdInterners
+     */
+    public LocalPool(List<StreamFactory> factories, StreamIdInterner interner) {
+        this(factories, interner, Optional.empty());
+    }
+
+    /**
+     * Creates a pool as {@link #LocalPool(List, StreamIdInterner)}, whose streams are instrumented by the given tracer.
+     * 
+     * @see LatencyTracer
+     */
+    public LocalPool(List<StreamFactory> factories, StreamIdInterner interner, LatencyTracer latencyTracer) {
+        this(factories, interner, Optional.of(requireNonNull(latencyTracer, "latencyTracer must not be null")));
+    }
+
+    private LocalPool(List<StreamFactory> factories, StreamIdInterner interner,
+            Optional<LatencyTracer> latencyTracer) {
+        requireNonNull(factories, "factories must not be null");
         this.factories = new CopyOnWriteArrayList<>(factories);
+        this.content = new PoolContent(interner, PoolContent.CreationLocking.GLOBAL, latencyTracer.orElse(null));
+        this.latencyTracer = latencyTracer;
         LOGGER.info("Available Stream Factories: " + factories);
     }
 
@@ -81,6 +117,92 @@ public class LocalPool implements DiscoveryService, ProvidingService, StreamFact
         return new TrackKeepingDiscoveryService(factories, content).discover(id);
     }
 
+    /**
+     * Returns the canonical instance of the given id in this pool. Callers which discover or resolve the same id
+     * repeatedly (or use it as key of identity based caches) can keep the interned instance, whose lookups are cheaper
+     * and which is identical for all the callers.
+     * 
+     * @see StreamIdInterner
+     */
+    public <T> StreamId<T> intern(StreamId<T> id) {
+        return content.intern(id);
+    }
+
+    /**
+     * Returns the ids of all the streams which are currently available in this pool (both provided and created ones).
+     * This is mainly intended for diagnostic purposes.
+     * 
+     * @see NearDuplicateStreamIds
+     */
+    public Set<StreamId<?>> streamIds() {
+        return content.ids();
+    }
+
+    /**
+     * Returns the tracer recording the latencies of the streams of this pool, if the pool was created with one.
+     */
+    public Optional<LatencyTracer> latencyTracer() {
+        return latencyTracer;
+    }
+
+    /**
+     * Removes all the provided and created streams from this pool, while keeping the factories (including intercepts
+     * and fallbacks). This is much cheaper than creating a new pool (or a new application context). The removed streams
+     * are not terminated, so their subscribers (including the state the factories keep for them, e.g. cached values or
+     * histories) live on; to also terminate the streams created meanwhile, {@link #rollback(PoolSnapshot) roll back} to
+     * a {@link #snapshot() snapshot} instead. It must not be called while streams are being discovered or provided.
+     * 
+     * @see PoolContent#clear()
+     */
+    public void reset() {
+        content.clear();
+        LOGGER.debug("Pool content has been reset");
+    }
+
+    /**
+     * Takes a snapshot of the state of this pool: the provided and created streams, the factories (including intercepts
+     * and fallbacks) and the creators registered in any {@link CreatorStreamFactory} among them. Rolling back to this
+     * snapshot is much cheaper than building a new pool, so that one pool can be reused by many tests. It also allows
+     * to reload stream definitions of a running pool.
+     * 
+     * @see #rollback(PoolSnapshot)
+     */
+    public PoolSnapshot snapshot() {
+        Map<CreatorStreamFactory, Map<StreamId<?>, StreamCreator<?>>> creators = new IdentityHashMap<>();
+        for (StreamFactory factory : factories) {
+            if (factory instanceof CreatorStreamFactory) {
+                CreatorStreamFactory creatorFactory = (CreatorStreamFactory) factory;
+                creators.put(creatorFactory, creatorFactory.creators());
+            }
+        }
+        return new PoolSnapshot(this, content.snapshot(), factories, creators);
+    }
+
+    /**
+     * Restores the state of this pool to the given snapshot. Streams which were created by the pool after the snapshot
+     * are completed, so that their upstream subscriptions are cancelled. This includes the subscriptions which the
+     * factories made themselves while creating them, so that the state the factories keep for these streams (e.g. the
+     * cached values, histories or journals of their sources) is released or completed. Streams provided after the
+     * snapshot are only removed from the pool. The snapshot can be rolled back to several times, while snapshots
+     * taken after it become invalid. This must not be called while streams are being discovered or provided.
+     * 
+     * @throws IllegalArgumentException if the snapshot was not taken from this pool or has become invalid
+     * @see PoolContent#rollback(org.streamingpool.core.service.impl.PoolContent.ContentSnapshot)
+     */
+    public void rollback(PoolSnapshot snapshot) {
+        requireNonNull(snapshot, "snapshot must not be null");
+        if (snapshot.pool() != this) {
+            throw new IllegalArgumentException("The snapshot was not taken from this pool");
+        }
+        content.rollback(snapshot.content());
+        if (!factories.equals(snapshot.factories())) {
+            factories.clear();
+            factories.addAll(snapshot.factories());
+        }
+        snapshot.creators().forEach(CreatorStreamFactory::restoreCreators);
+        LOGGER.debug("Pool has been rolled back to {}", snapshot);
+    }
+
     @Override
     public void addIntercept(StreamFactory interceptFactory) {
         factories.add(0, interceptFactory);
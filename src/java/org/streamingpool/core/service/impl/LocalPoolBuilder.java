@@ -0,0 +1,180 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.diagnostic.LatencyTracer;
+import org.streamingpool.core.service.streamfactory.CombineLatestStreamFactory;
+import org.streamingpool.core.service.streamfactory.CombineWithLatestStreamFactory;
+import org.streamingpool.core.service.streamfactory.ConflatedStreamFactory;
+import org.streamingpool.core.service.streamfactory.DelayedStreamFactory;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamfactory.FilteredStreamFactory;
+import org.streamingpool.core.service.streamfactory.HistoryStreamFactory;
+import org.streamingpool.core.service.streamfactory.JournalStreamFactory;
+import org.streamingpool.core.service.streamfactory.LastValueCachedStreamFactory;
+import org.streamingpool.core.service.streamfactory.MergedStreamFactory;
+import org.streamingpool.core.service.streamfactory.OverlapBufferStreamFactory;
+import org.streamingpool.core.service.streamfactory.PartitionedStreamFactory;
+import org.streamingpool.core.service.streamfactory.ScheduledStreamFactory;
+import org.streamingpool.core.service.streamfactory.WindowedAggregationStreamFactory;
+import org.streamingpool.core.service.streamfactory.ZipStreamFactory;
+import org.streamingpool.core.service.util.SchedulerClock;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Builds a {@link LocalPool} without any dependency injection container. This is the cheap alternative to the
+ * {@link org.streamingpool.core.conf.EmbeddedPoolConfiguration} for embedding a pool in applications and tests which do
+ * not need a spring context: a pool built {@link #withDefaultFactories() with the default factories} uses the same
+ * factories, in the same order, as the one configured by {@link org.streamingpool.core.conf.DefaultStreamFactories}.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * CreatorStreamFactory creators = new CreatorStreamFactory(Collections.emptyList());
+ * LocalPool pool = LocalPoolBuilder.withDefaultFactories().addFactory(creators).build();
+ * </pre>
+ * 
+ * @see LocalPool#reset()
+ */
+public final class LocalPoolBuilder {
+
+    private final boolean withDefaultFactories;
+    private final List<StreamFactory> factories = new ArrayList<>();
+    private StreamIdInterner interner = StreamIdInterners.weak();
+    private Scheduler scheduler = Schedulers.computation();
+    private LatencyTracer latencyTracer;
+
+    private LocalPoolBuilder(boolean withDefaultFactories) {
+        this.withDefaultFactories = withDefaultFactories;
+    }
+
+    /**
+     * Starts a builder which contains new instances of the {@link #defaultFactories() default factories}.
+     */
+    public static LocalPoolBuilder withDefaultFactories() {
+        return new LocalPoolBuilder(true);
+    }
+
+    /**
+     * Starts a builder without any factory, so that only provided streams can be discovered unless factories are added.
+     */
+    public static LocalPoolBuilder withoutFactories() {
+        return new LocalPoolBuilder(false);
+    }
+
+    /**
+     * Returns new instances of all the {@link org.streamingpool.core.service.TypedStreamFactory}s provided in the core
+     * project, in the order in which they are used by the pool.
+     */
+    public static List<StreamFactory> defaultFactories() {
+        return defaultFactories(Schedulers.computation());
+    }
+
+    /**
+     * Same as {@link #defaultFactories()}, but all the timing of the factories (delays, timeouts, sampling, time and
+     * session windows and the timestamps of histories) is done on the given scheduler. With an
+     * {@link io.reactivex.schedulers.TestScheduler}, the created streams run on virtual time.
+     */
+    @SuppressWarnings("deprecation")
+    public static List<StreamFactory> defaultFactories(Scheduler scheduler) {
+        requireNonNull(scheduler, "scheduler must not be null");
+        /* Qualified, as the deprecation warning of an import cannot be suppressed */
+        return new ArrayList<>(Arrays.asList(
+                new org.streamingpool.core.service.streamfactory.CompositionStreamFactory(),
+                new CombineWithLatestStreamFactory(), new DelayedStreamFactory(scheduler), new DerivedStreamFactory(),
+                new OverlapBufferStreamFactory(scheduler), new FilteredStreamFactory(),
+                new CombineLatestStreamFactory(), new ZipStreamFactory(), new MergedStreamFactory(),
+                new PartitionedStreamFactory(), new WindowedAggregationStreamFactory(scheduler),
+                new ConflatedStreamFactory(scheduler), new LastValueCachedStreamFactory(),
+                new HistoryStreamFactory(SchedulerClock.of(scheduler)), new JournalStreamFactory(),
+                new ScheduledStreamFactory()));
+    }
+
+    /**
+     * Appends the given factory to the ones used by the pool.
+     */
+    public LocalPoolBuilder addFactory(StreamFactory factory) {
+        factories.add(requireNonNull(factory, "factory must not be null"));
+        return this;
+    }
+
+    /**
+     * Appends the given factories (in iteration order) to the ones used by the pool.
+     */
+    public LocalPoolBuilder addFactories(Collection<? extends StreamFactory> newFactories) {
+        requireNonNull(newFactories, "factories must not be null").forEach(this::addFactory);
+        return this;
+    }
+
+    /**
+     * Sets the interner for the ids of the streams in the pool. By default, the ids are interned
+     * {@link StreamIdInterners#weak() weakly}.
+     */
+    public LocalPoolBuilder interner(StreamIdInterner newInterner) {
+        this.interner = requireNonNull(newInterner, "interner must not be null");
+        return this;
+    }
+
+    /**
+     * Sets the scheduler on which the default factories time their streams. By default, this is the
+     * {@link Schedulers#computation() computation} scheduler. It has no effect on added factories.
+     * 
+     * @see #defaultFactories(Scheduler)
+     */
+    public LocalPoolBuilder scheduler(Scheduler newScheduler) {
+        this.scheduler = requireNonNull(newScheduler, "scheduler must not be null");
+        return this;
+    }
+
+    /**
+     * Instruments the streams of the pool with the given tracer, which records the latencies of sampled elements
+     * through the created streams. By default, nothing is traced.
+     */
+    public LocalPoolBuilder latencyTracer(LatencyTracer newLatencyTracer) {
+        this.latencyTracer = requireNonNull(newLatencyTracer, "latencyTracer must not be null");
+        return this;
+    }
+
+    public LocalPool build() {
+        List<StreamFactory> poolFactories = new ArrayList<>();
+        if (withDefaultFactories) {
+            poolFactories.addAll(defaultFactories(scheduler));
+        }
+        poolFactories.addAll(factories);
+        if (latencyTracer != null) {
+            return new LocalPool(poolFactories, interner, latencyTracer);
+        }
+        return new LocalPool(poolFactories, interner);
+    }
+
+}
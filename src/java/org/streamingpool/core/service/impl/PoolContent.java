@@ -22,8 +22,13 @@
 
 package org.streamingpool.core.service.impl;
 
+import static java.util.Objects.requireNonNull;
 import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
@@ -34,54 +39,332 @@ import org.reactivestreams.Publisher;
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.diagnostic.LatencyTracer;
 import org.streamingpool.core.service.streamid.StreamingPoolHook;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
 import io.reactivex.processors.ReplayProcessor;
 
 /**
- * Encapsulate the state of a streaming pool.
+ * Encapsulate the state of a streaming pool. All the ids are interned by the given {@link StreamIdInterner} before
+ * being used as keys, so that the pool holds one instance per distinct id. Lookups are not interned (this would cost
+ * the same deep hashing and comparison as the lookup itself); callers which look up the same id repeatedly can
+ * {@link #intern(StreamId) intern} it once, so that their lookups hit the identity check of the id's equals.
+ * <p>
+ * The creation of new streams is serialized by a {@link CreationLocking#GLOBAL global} monitor by default. With
+ * {@link CreationLocking#PER_ID} only the creations of the same id are serialized, so that unrelated streams can be
+ * created concurrently and nested creations can span several contents (see {@link ShardedPool}) without deadlocking.
+ * The price is that a cycle between ids created concurrently by two threads blocks both threads, instead of being
+ * reported by a {@link org.streamingpool.core.service.CycleInStreamDiscoveryDetectedException}.
  * 
  * @author acalia, kfuchsbe, mihostet
  */
 public class PoolContent {
 
+    /**
+     * The granularity of the locks taken while creating new streams.
+     */
+    public enum CreationLocking {
+        /** One lock for the whole content */
+        GLOBAL,
+        /** One lock per created id */
+        PER_ID
+    }
+
     private final ConcurrentMap<StreamId<?>, Publisher<?>> activeStreams = new ConcurrentHashMap<>();
-    private final ReplayProcessor<StreamId<?>> newStreamHook = ReplayProcessor.create();
+    /* Counted, so that a lock is removed once no thread holds or waits for it, whether the creation succeeded or not */
+    private final ConcurrentMap<StreamId<?>, CreationLock> creationLocks = new ConcurrentHashMap<>();
+    private volatile ReplayProcessor<StreamId<?>> newStreamHook;
+    /* One epoch per live snapshot, guarded by activeStreams. Completing an epoch completes the streams created in it */
+    private final List<CreationEpoch> creationEpochs = new ArrayList<>();
+    private volatile CreationEpoch currentEpoch;
+    /* Guarded by activeStreams */
+    private long lastSnapshotGeneration;
     private final ExecutorService hookExecutor = Executors.newSingleThreadExecutor();
+    private final StreamIdInterner interner;
+    private final CreationLocking creationLocking;
+    /* null if the latencies are not traced */
+    private final LatencyTracer latencyTracer;
 
     public PoolContent() {
+        this(StreamIdInterners.weak());
+    }
+
+    public PoolContent(StreamIdInterner interner) {
+        this(interner, CreationLocking.GLOBAL);
+    }
+
+    public PoolContent(StreamIdInterner interner, CreationLocking creationLocking) {
+        this(interner, creationLocking, null);
+    }
+
+    /**
+     * Creates a content whose provided and created data streams are instrumented by the given tracer.
+     */
+    public PoolContent(StreamIdInterner interner, CreationLocking creationLocking, LatencyTracer latencyTracer) {
+        this.interner = requireNonNull(interner, "interner must not be null");
+        this.creationLocking = requireNonNull(creationLocking, "creationLocking must not be null");
+        this.latencyTracer = latencyTracer;
         addStreamHooks();
     }
 
-    public <T> boolean synchronousPutIfAbsent(StreamId<T> id, Supplier<ErrorStreamPair<T>> supplier) {
+    public <T> boolean synchronousPutIfAbsent(StreamId<T> newId, Supplier<ErrorStreamPair<T>> supplier) {
+        return synchronousPutIfAbsent(newId, supplier, false);
+    }
+
+    /**
+     * Same as {@link #synchronousPutIfAbsent(StreamId, Supplier)}, but for streams which are created by the pool (as
+     * opposed to provided ones): if a {@link #snapshot() snapshot} was taken before, the created streams are completed
+     * (and their upstream subscriptions cancelled) when the content is {@link #rollback(ContentSnapshot) rolled back}
+     * to a snapshot taken before their creation.
+     */
+    public <T> boolean synchronousCreateIfAbsent(StreamId<T> newId, Supplier<ErrorStreamPair<T>> factory) {
+        return synchronousPutIfAbsent(newId, factory, true);
+    }
+
+    private <T> boolean synchronousPutIfAbsent(StreamId<T> newId, Supplier<ErrorStreamPair<T>> supplier,
+            boolean created) {
+        StreamId<T> id = interner.intern(newId);
         if (!activeStreams.containsKey(id)) {
-            synchronized (activeStreams) {
-                if (!activeStreams.containsKey(id)) {
-                    ErrorStreamPair<T> stream = supplier.get();
-                    if (stream.isPresent()) {
-                        ErrorStreamId<StreamId<T>> errorStreamId = ErrorStreamId.of(id);
-                        activeStreams.put(id, stream.data());
-                        activeStreams.put(errorStreamId, stream.error());
-                        hookExecutor.submit(() -> newStreamHook.onNext(id));
-                        hookExecutor.submit(() -> newStreamHook.onNext(errorStreamId));
-                        return true;
+            Object lock = acquireCreationLock(id);
+            try {
+                synchronized (lock) {
+                    if (!activeStreams.containsKey(id)) {
+                        ErrorStreamPair<T> stream = supplier.get();
+                        if (stream.isPresent()) {
+                            StreamId<Throwable> errorStreamId = interner.intern(ErrorStreamId.of(id));
+                            Publisher<T> data = traced(id, stream.data(), created);
+                            CreationEpoch epoch = currentEpoch;
+                            if (created && epoch != null) {
+                                activeStreams.put(errorStreamId,
+                                        Flowable.fromPublisher(stream.error()).takeUntil(epoch.end));
+                                activeStreams.put(id, Flowable.fromPublisher(data).takeUntil(epoch.end));
+                            } else {
+                                activeStreams.put(errorStreamId, stream.error());
+                                activeStreams.put(id, data);
+                            }
+                            ReplayProcessor<StreamId<?>> hook = newStreamHook;
+                            hookExecutor.submit(() -> hook.onNext(id));
+                            hookExecutor.submit(() -> hook.onNext(errorStreamId));
+                            return true;
+                        }
                     }
                 }
+            } finally {
+                releaseCreationLock(id);
             }
         }
         return false;
     }
 
+    /**
+     * Returns the given stream limited to the streams created from now on: it completes when this content is rolled
+     * back to a snapshot taken before this call, as the streams created from now on do. If no snapshot was taken, the
+     * stream is returned as is. This is used for the streams which the factories discover (and might subscribe to)
+     * while creating a new stream, so that the subscriptions held by the factories end together with the new stream.
+     * <p>
+     * Within one snapshot epoch, the same limited publisher is returned for the same id, so that factories which share
+     * their upstream subscriptions by publisher (e.g. the partitions of a stream) still do so after a snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Publisher<T> untilRolledBack(StreamId<T> id, Publisher<T> stream) {
+        requireNonNull(id, "id must not be null");
+        CreationEpoch epoch = currentEpoch;
+        if (epoch == null) {
+            return stream;
+        }
+        return (Publisher<T>) epoch.boundedStreams.computeIfAbsent(id,
+                k -> Flowable.fromPublisher(stream).takeUntil(epoch.end));
+    }
+
+    private <T> Publisher<T> traced(StreamId<T> id, Publisher<T> data, boolean created) {
+        if (latencyTracer == null) {
+            return data;
+        }
+        return created ? latencyTracer.traceHop(id, data) : latencyTracer.traceSource(data);
+    }
+
+    private Object acquireCreationLock(StreamId<?> id) {
+        if (creationLocking == CreationLocking.GLOBAL) {
+            return activeStreams;
+        }
+        return creationLocks.compute(id, (k, lock) -> {
+            CreationLock acquired = lock == null ? new CreationLock() : lock;
+            acquired.users++;
+            return acquired;
+        });
+    }
+
+    private void releaseCreationLock(StreamId<?> id) {
+        if (creationLocking == CreationLocking.PER_ID) {
+            creationLocks.computeIfPresent(id, (k, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    /**
+     * Returns the number of per id creation locks which are currently held or waited for.
+     */
+    int creationLockCount() {
+        return creationLocks.size();
+    }
+
+    /**
+     * Returns the number of streams (including the error streams and the hooks) in this content.
+     */
+    public int size() {
+        return activeStreams.size();
+    }
+
     @SuppressWarnings("unchecked")
     public <T> Publisher<T> get(StreamId<T> id) {
         /* This cast is safe, because we only allow to add the right types into the map */
         return (Publisher<T>) activeStreams.get(id);
     }
 
+    /**
+     * Returns the canonical instance of the given id, as used as key by this content.
+     */
+    public <T> StreamId<T> intern(StreamId<T> id) {
+        return interner.intern(requireNonNull(id, "id must not be null"));
+    }
+
+    /**
+     * Returns a snapshot of the ids of all the streams which are currently available in this content.
+     */
+    public Set<StreamId<?>> ids() {
+        return ImmutableSet.copyOf(activeStreams.keySet());
+    }
+
+    /**
+     * Removes all the streams from this content and replaces the {@link StreamingPoolHook}s by fresh ones, so that
+     * later subscribers of the hooks do not see the ids of the removed streams. Subscribers of the removed streams (and
+     * of the old hooks) are not affected. This is mainly intended to reuse a pool between tests and must not be called
+     * concurrently with the creation of new streams.
+     */
+    public void clear() {
+        synchronized (activeStreams) {
+            activeStreams.clear();
+            addStreamHooks();
+            CreationEpoch epoch = currentEpoch;
+            if (epoch != null) {
+                /* The ids might be provided again, with other streams */
+                epoch.boundedStreams.clear();
+            }
+        }
+    }
+
+    /**
+     * Takes a snapshot of all the streams which are currently in this content. Streams which are created after this
+     * call are tracked, so that a later {@link #rollback(ContentSnapshot) rollback} can terminate them.
+     */
+    public ContentSnapshot snapshot() {
+        synchronized (activeStreams) {
+            long generation = ++lastSnapshotGeneration;
+            startEpoch(generation);
+            return new ContentSnapshot(this, ImmutableMap.copyOf(activeStreams), generation);
+        }
+    }
+
+    /**
+     * Restores the streams of this content to the ones of the given snapshot. The streams which were provided after
+     * the snapshot are removed, the ones which were created after the snapshot are additionally completed, which
+     * cancels their upstream subscriptions. The {@link StreamingPoolHook}s are replaced by fresh ones, which only
+     * replay the ids of the snapshot. The snapshot stays valid for further rollbacks, while all the snapshots taken
+     * after it are discarded. This must not be called concurrently with the creation of new streams.
+     * 
+     * @throws IllegalArgumentException if the snapshot was not taken from this content or has been discarded
+     */
+    public void rollback(ContentSnapshot snapshot) {
+        requireNonNull(snapshot, "snapshot must not be null");
+        List<CreationEpoch> endedEpochs;
+        synchronized (activeStreams) {
+            /* Matched by generation, as the epoch of a discarded snapshot might be replaced at the same index */
+            int epochIndex = epochIndexOf(snapshot.generation);
+            if (snapshot.content != this || epochIndex < 0) {
+                throw new IllegalArgumentException(
+                        "The snapshot was not taken from this content or has been discarded by an earlier rollback");
+            }
+            List<CreationEpoch> epochsSinceSnapshot = creationEpochs.subList(epochIndex, creationEpochs.size());
+            endedEpochs = new ArrayList<>(epochsSinceSnapshot);
+            epochsSinceSnapshot.clear();
+            startEpoch(snapshot.generation);
+
+            activeStreams.clear();
+            activeStreams.putAll(snapshot.streams);
+            addStreamHooks();
+            ReplayProcessor<StreamId<?>> hook = newStreamHook;
+            snapshot.streams.keySet().stream().filter(id -> !NEW_STREAM_HOOK.equals(id))
+                    .forEach(id -> hookExecutor.submit(() -> hook.onNext(id)));
+        }
+        /* Outside of the lock, as subscribers might react on the completion by discovering other streams */
+        endedEpochs.forEach(epoch -> epoch.end.onComplete());
+    }
+
+    private void startEpoch(long snapshotGeneration) {
+        CreationEpoch epoch = new CreationEpoch(snapshotGeneration);
+        creationEpochs.add(epoch);
+        currentEpoch = epoch;
+    }
+
+    private int epochIndexOf(long snapshotGeneration) {
+        for (int i = 0; i < creationEpochs.size(); i++) {
+            if (creationEpochs.get(i).snapshotGeneration == snapshotGeneration) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Directly add the {@link StreamingPoolHook}s as active streams (without triggering any hook)
      */
     private void addStreamHooks() {
+        newStreamHook = ReplayProcessor.create();
         activeStreams.put(NEW_STREAM_HOOK, newStreamHook);
     }
-}
\ No newline at end of file
+
+    /* Only mutated inside the atomic compute functions of creationLocks */
+    private static final class CreationLock {
+        private int users;
+    }
+
+    /* Started by a snapshot, and again by each rollback to it. Generations are never reused within a content */
+    private static final class CreationEpoch {
+        private final long snapshotGeneration;
+        private final PublishProcessor<Object> end = PublishProcessor.create();
+        /* The streams discovered by the factories in this epoch, limited once per id to keep their identity */
+        private final ConcurrentMap<StreamId<?>, Publisher<?>> boundedStreams = new ConcurrentHashMap<>();
+
+        private CreationEpoch(long snapshotGeneration) {
+            this.snapshotGeneration = snapshotGeneration;
+        }
+    }
+
+    /**
+     * An opaque snapshot of the streams of a {@link PoolContent}.
+     * 
+     * @see PoolContent#snapshot()
+     */
+    public static final class ContentSnapshot {
+        private final PoolContent content;
+        private final Map<StreamId<?>, Publisher<?>> streams;
+        private final long generation;
+
+        private ContentSnapshot(PoolContent content, Map<StreamId<?>, Publisher<?>> streams, long generation) {
+            this.content = content;
+            this.streams = streams;
+            this.generation = generation;
+        }
+
+        /**
+         * Returns the ids of the streams (including the error streams and the hooks) in this snapshot.
+         */
+        public Set<StreamId<?>> ids() {
+            return streams.keySet();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.streamingpool.core.service.StreamCreator;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.PoolContent.ContentSnapshot;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * An immutable snapshot of the state of a {@link LocalPool}, which the pool can be rolled back to.
+ * 
+ * @see LocalPool#snapshot()
+ * @see LocalPool#rollback(PoolSnapshot)
+ */
+public final class PoolSnapshot {
+
+    private final LocalPool pool;
+    private final ContentSnapshot content;
+    private final List<StreamFactory> factories;
+    private final Map<CreatorStreamFactory, Map<StreamId<?>, StreamCreator<?>>> creators;
+
+    PoolSnapshot(LocalPool pool, ContentSnapshot content, List<StreamFactory> factories,
+            Map<CreatorStreamFactory, Map<StreamId<?>, StreamCreator<?>>> creators) {
+        this.pool = pool;
+        this.content = content;
+        this.factories = ImmutableList.copyOf(factories);
+        this.creators = ImmutableMap.copyOf(creators);
+    }
+
+    LocalPool pool() {
+        return pool;
+    }
+
+    ContentSnapshot content() {
+        return content;
+    }
+
+    List<StreamFactory> factories() {
+        return factories;
+    }
+
+    Map<CreatorStreamFactory, Map<StreamId<?>, StreamCreator<?>>> creators() {
+        return creators;
+    }
+
+    /**
+     * Returns the ids of the streams (including the error streams and the hooks) which were in the pool when the
+     * snapshot was taken.
+     */
+    public Set<StreamId<?>> streamIds() {
+        return content.ids();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolSnapshot [streams=" + content.ids().size() + ", factories=" + factories.size() + "]";
+    }
+
+}
@@ -0,0 +1,217 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.ProvidingService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamFactoryRegistry;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.impl.PoolContent.CreationLocking;
+import org.streamingpool.core.service.streamid.StreamingPoolHook;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.reactivex.Flowable;
+
+/**
+ * A pool which behaves like a {@link LocalPool}, but partitions its streams across several {@link PoolContent}s
+ * (shards) by the hash code of their ids. Each shard has its own map, its own creation locks and its own hook
+ * executor, so that providing, discovering and creating streams scale with the number of threads using the pool.
+ * <p>
+ * The factories are shared by all the shards and a recursive discovery is routed to the shard owning each discovered
+ * id, so streams can depend on streams of any shard. To avoid deadlocks between shards, the creations are serialized
+ * per id (see {@link CreationLocking#PER_ID}). The error stream of an id is always owned by the shard of the id.
+ * Discovering a {@link StreamingPoolHook} from the pool merges the hooks of all the shards.
+ */
+public class ShardedPool implements DiscoveryService, ProvidingService, StreamFactoryRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedPool.class);
+
+    private final List<StreamFactory> factories;
+    private final List<PoolContent> shards;
+    private final List<LongAdder> discoveries;
+
+    public ShardedPool(int shardCount) {
+        this(shardCount, Collections.emptyList());
+    }
+
+    public ShardedPool(int shardCount, List<StreamFactory> factories) {
+        this(shardCount, factories, StreamIdInterners.weak());
+    }
+
+    /**
+     * Creates a pool with the given number of shards.
+     * 
+     * @param shardCount the number of shards, typically in the order of the number of available processors
+     * @param factories the factories which are used (in the given order) to lazily create streams
+     * @param interner the interner for the ids of the streams in the pool, shared by all the shards
+     */
+    public ShardedPool(int shardCount, List<StreamFactory> factories, StreamIdInterner interner) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive, but was " + shardCount);
+        }
+        requireNonNull(factories, "factories must not be null");
+        requireNonNull(interner, "interner must not be null");
+        this.factories = new CopyOnWriteArrayList<>(factories);
+        List<PoolContent> contents = new ArrayList<>(shardCount);
+        List<LongAdder> counters = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            contents.add(new PoolContent(interner, CreationLocking.PER_ID));
+            counters.add(new LongAdder());
+        }
+        this.shards = Collections.unmodifiableList(contents);
+        this.discoveries = Collections.unmodifiableList(counters);
+        LOGGER.info("Available Stream Factories: " + factories);
+    }
+
+    @Override
+    public <T> void provide(StreamId<T> id, Publisher<T> obs) {
+        requireNonNull(id, "id must not be null!");
+        requireNonNull(obs, "stream must not be null!");
+
+        boolean inserted = shardOf(id).synchronousPutIfAbsent(id, () -> ErrorStreamPair.ofData(obs));
+        if (!inserted) {
+            throw new IllegalArgumentException("Id " + id + " already registered! Cannot register twice.");
+        }
+    }
+
+    @Override
+    public <T> Publisher<T> discover(StreamId<T> id) {
+        requireNonNull(id, "Cannot discover a null id");
+        if (id instanceof StreamingPoolHook) {
+            List<Publisher<T>> hooks = new ArrayList<>(shards.size());
+            for (PoolContent shard : shards) {
+                hooks.add(shard.get(id));
+            }
+            return Flowable.merge(hooks);
+        }
+        discoveries.get(shardIndexOf(id)).increment();
+        return new TrackKeepingDiscoveryService(factories, this::shardOf).discover(id);
+    }
+
+    /**
+     * Returns the ids of all the streams which are currently available in any of the shards.
+     */
+    public Set<StreamId<?>> streamIds() {
+        ImmutableSet.Builder<StreamId<?>> ids = ImmutableSet.builder();
+        shards.forEach(shard -> ids.addAll(shard.ids()));
+        return ids.build();
+    }
+
+    /**
+     * Returns a snapshot of the load of each shard, in shard order.
+     */
+    public List<ShardStatistics> shardStatistics() {
+        List<ShardStatistics> statistics = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            statistics.add(new ShardStatistics(i, shards.get(i).size(), discoveries.get(i).sum()));
+        }
+        return statistics;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public void addIntercept(StreamFactory interceptFactory) {
+        factories.add(0, interceptFactory);
+        LOGGER.info("Intercept {} has been added to the factories", interceptFactory);
+    }
+
+    @Override
+    public void addFallback(StreamFactory fallbackFactory) {
+        factories.add(factories.size(), fallbackFactory);
+        LOGGER.info("Fallback {} has been added to the factories", fallbackFactory);
+    }
+
+    private PoolContent shardOf(StreamId<?> id) {
+        return shards.get(shardIndexOf(id));
+    }
+
+    int shardIndexOf(StreamId<?> id) {
+        StreamId<?> owner = id;
+        while (owner instanceof ErrorStreamId) {
+            owner = ((ErrorStreamId<?>) owner).sourceId();
+        }
+        int hash = owner.hashCode();
+        /* Spread the high bits, as some ids have hash codes differing only there */
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    /**
+     * The load of one shard of a {@link ShardedPool}.
+     */
+    public static final class ShardStatistics {
+
+        private final int shard;
+        private final int streamCount;
+        private final long discoveryCount;
+
+        ShardStatistics(int shard, int streamCount, long discoveryCount) {
+            this.shard = shard;
+            this.streamCount = streamCount;
+            this.discoveryCount = discoveryCount;
+        }
+
+        public int shard() {
+            return shard;
+        }
+
+        /**
+         * The number of streams (including error streams and hooks) owned by the shard.
+         */
+        public int streamCount() {
+            return streamCount;
+        }
+
+        /**
+         * The number of discoveries from the pool (not counting the recursive ones) of ids owned by the shard.
+         */
+        public long discoveryCount() {
+            return discoveryCount;
+        }
+
+        @Override
+        public String toString() {
+            return "ShardStatistics [shard=" + shard + ", streamCount=" + streamCount + ", discoveryCount="
+                    + discoveryCount + "]";
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import org.streamingpool.core.service.StreamId;
+
+/**
+ * Canonicalises {@link StreamId}s: for all the ids which are equal to each other, the same instance is returned. As the
+ * composite ids cache their hash codes, lookups with interned ids in hash based collections (like the
+ * {@link PoolContent}) cost one cached hash code and an identity comparison, instead of a deep traversal of the id
+ * structure. Interning itself costs such a traversal, so it pays off for ids which are kept and used repeatedly.
+ *
+ * @see LocalPool#intern(StreamId)
+ *
+ * @see StreamIdInterners
+ */
+@FunctionalInterface
+public interface StreamIdInterner {
+
+    /**
+     * Returns the canonical instance of the given id. The returned id is equal to the given one.
+     *
+     * @param id the id to intern
+     * @return the canonical representation of the given id
+     */
+    <T> StreamId<T> intern(StreamId<T> id);
+
+}
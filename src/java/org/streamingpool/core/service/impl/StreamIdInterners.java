@@ -0,0 +1,81 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import org.streamingpool.core.service.StreamId;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Factory methods for {@link StreamIdInterner}s.
+ */
+public final class StreamIdInterners {
+
+    private StreamIdInterners() {
+        /* Only static methods */
+    }
+
+    /**
+     * An interner which keeps the canonical ids by weak references only. Therefore, ids which are not referenced
+     * anywhere else (e.g. not in a pool) can be garbage collected.
+     */
+    public static StreamIdInterner weak() {
+        return new GuavaStreamIdInterner(Interners.newWeakInterner());
+    }
+
+    /**
+     * An interner that returns the given ids unchanged.
+     */
+    public static StreamIdInterner none() {
+        return NoOpStreamIdInterner.INSTANCE;
+    }
+
+    private static final class GuavaStreamIdInterner implements StreamIdInterner {
+
+        private final Interner<StreamId<?>> delegate;
+
+        private GuavaStreamIdInterner(Interner<StreamId<?>> delegate) {
+            this.delegate = requireNonNull(delegate, "delegate must not be null");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> StreamId<T> intern(StreamId<T> id) {
+            /* Safe, as only equal ids are returned, which also have the same type */
+            return (StreamId<T>) delegate.intern(requireNonNull(id, "id to intern must not be null"));
+        }
+    }
+
+    private enum NoOpStreamIdInterner implements StreamIdInterner {
+        INSTANCE;
+
+        @Override
+        public <T> StreamId<T> intern(StreamId<T> id) {
+            return id;
+        }
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
@@ -42,6 +43,9 @@ import org.streamingpool.core.service.StreamId;
 /**
  * Special implementation of a {@link DiscoveryService}. It is able to discover streams recursively while preventing
  * cycles. Also, it is able to detect recursive discoveries from multiple threads, which is not allowed.
+ * <p>
+ * The streams are looked up and stored in one {@link PoolContent}, or in the one chosen for each id by a router (see
+ * {@link ShardedPool}), in which case a recursive discovery may span several contents.
  */
 public class TrackKeepingDiscoveryService implements DiscoveryService {
 
@@ -49,7 +53,7 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
 
     private final Set<StreamId<?>> idsOfStreamsUnderCreation;
     private final List<StreamFactory> factories;
-    private final PoolContent content;
+    private final Function<StreamId<?>, PoolContent> contentRouter;
     private final Thread contextOfExecution;
 
     public TrackKeepingDiscoveryService(List<StreamFactory> factories, PoolContent content) {
@@ -58,8 +62,18 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
 
     public TrackKeepingDiscoveryService(List<StreamFactory> factories, PoolContent content,
             Set<StreamId<?>> idsOfStreamsUnderCreation, Thread contextOfExecution) {
+        this(factories, routeAllTo(requireNonNull(content, "activeStreams must not be null")),
+                idsOfStreamsUnderCreation, contextOfExecution);
+    }
+
+    public TrackKeepingDiscoveryService(List<StreamFactory> factories, Function<StreamId<?>, PoolContent> contentRouter) {
+        this(factories, contentRouter, new HashSet<>(), Thread.currentThread());
+    }
+
+    public TrackKeepingDiscoveryService(List<StreamFactory> factories, Function<StreamId<?>, PoolContent> contentRouter,
+            Set<StreamId<?>> idsOfStreamsUnderCreation, Thread contextOfExecution) {
         this.factories = requireNonNull(factories, "factories must not be null");
-        this.content = requireNonNull(content, "activeStreams must not be null");
+        this.contentRouter = requireNonNull(contentRouter, "contentRouter must not be null");
         this.idsOfStreamsUnderCreation = Collections.unmodifiableSet(idsOfStreamsUnderCreation);
         this.contextOfExecution = requireNonNull(contextOfExecution, "contextOfExecution must not be null");
     }
@@ -69,12 +83,22 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
         checkSameContexOfExecution();
         checkForRecursiveCycles(id);
 
-        content.synchronousPutIfAbsent(id, () -> createFromFactories(id));
+        PoolContent content = contentRouter.apply(id);
+        content.synchronousCreateIfAbsent(id, () -> createFromFactories(id));
+
+        Publisher<T> stream = getStreamWithIdOrElseThrow(content, id);
+        if (idsOfStreamsUnderCreation.isEmpty()) {
+            return stream;
+        }
+        /* Discovered by a factory, which may keep its subscription as long as the stream under creation exists */
+        return content.untilRolledBack(id, stream);
+    }
 
-        return getStreamWithIdOrElseThrow(id);
+    private static Function<StreamId<?>, PoolContent> routeAllTo(PoolContent content) {
+        return id -> content;
     }
 
-    private <T> Publisher<T> getStreamWithIdOrElseThrow(StreamId<T> id) {
+    private <T> Publisher<T> getStreamWithIdOrElseThrow(PoolContent content, StreamId<T> id) {
         Publisher<T> activeStream = content.get(id);
 
         if (activeStream == null) {
@@ -104,7 +128,7 @@ public class TrackKeepingDiscoveryService implements DiscoveryService {
     private <T> TrackKeepingDiscoveryService cloneDiscoveryServiceIncluding(StreamId<T> newId) {
         Set<StreamId<?>> newSet = new HashSet<>(idsOfStreamsUnderCreation);
         newSet.add(newId);
-        return new TrackKeepingDiscoveryService(factories, content, newSet, contextOfExecution);
+        return new TrackKeepingDiscoveryService(factories, contentRouter, newSet, contextOfExecution);
     }
 
     private <T> ErrorStreamPair<T> createFromFactories(StreamId<T> newId) {
@@ -0,0 +1,45 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.journal;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the elements of a journaled stream to bytes and back. As serializers are part of stream ids, they should be
+ * serializable and have a proper equality (e.g. be singletons).
+ *
+ * @see ElementSerializers
+ * @param <T> the type of the elements
+ */
+public interface ElementSerializer<T> extends Serializable {
+
+    byte[] serialize(T element);
+
+    /**
+     * Reads an element from the given buffer. The buffer is a read-only view directly on the journal file, positioned
+     * at the start of the element and limited to its end. It must not be retained after this method returns.
+     */
+    T deserialize(ByteBuffer buffer);
+
+}
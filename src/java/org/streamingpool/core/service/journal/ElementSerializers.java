@@ -0,0 +1,128 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Factory methods for the provided {@link ElementSerializer}s.
+ */
+public final class ElementSerializers {
+
+    private ElementSerializers() {
+        /* Only static methods */
+    }
+
+    /**
+     * Returns a serializer for strings, encoded as UTF-8.
+     */
+    @SuppressWarnings("unchecked")
+    public static ElementSerializer<String> utf8() {
+        return (ElementSerializer<String>) (ElementSerializer<?>) BasicSerializer.UTF8;
+    }
+
+    /**
+     * Returns a serializer using the standard Java serialization. This works for any {@link java.io.Serializable}
+     * element, but is neither compact nor fast; dedicated serializers should be preferred for high-rate streams.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ElementSerializer<T> javaSerialization() {
+        return (ElementSerializer<T>) BasicSerializer.JAVA_SERIALIZATION;
+    }
+
+    private enum BasicSerializer implements ElementSerializer<Object> {
+        UTF8 {
+            @Override
+            public byte[] serialize(Object element) {
+                return ((String) element).getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public Object deserialize(ByteBuffer buffer) {
+                return StandardCharsets.UTF_8.decode(buffer).toString();
+            }
+        },
+        JAVA_SERIALIZATION {
+            @Override
+            public byte[] serialize(Object element) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(element);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot serialize " + element, e);
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public Object deserialize(ByteBuffer buffer) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+                    return in.readObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot deserialize element", e);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("Cannot deserialize element", e);
+                }
+            }
+        };
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
@@ -0,0 +1,447 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.journal;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.processors.UnicastProcessor;
+
+/**
+ * An append-only journal of stream elements, stored in memory-mapped segment files within one directory. Each segment
+ * is named by the offset of its first record; a new segment is started as soon as the current one is full.
+ * <p>
+ * A record consists of its total size (int), the instant of the append (epoch seconds as long and nanoseconds as int)
+ * and the serialized element. The size is written last, so that a partially written record (e.g. after a crash) is
+ * ignored when the journal is opened again. On opening, the existing segments are scanned to rebuild a sparse index
+ * of the record positions, and appending continues after the last complete record.
+ * <p>
+ * Reading is done directly on the mapped files: the serializer gets a read-only view on the bytes of each record, so
+ * no intermediate copies are made. The mapped files are released by the garbage collector, as there is no public API
+ * to unmap them in Java 8.
+ *
+ * @param <T> the type of the journaled elements
+ */
+public final class Journal<T> implements AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int INDEX_INTERVAL = 64;
+
+    private final Path directory;
+    private final ElementSerializer<T> serializer;
+    private final int segmentSize;
+    private final Clock clock;
+    private final PublishProcessor<JournalRecord<T>> live = PublishProcessor.create();
+
+    /* Guarded by this */
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextOffset;
+    private Instant lastInstant = Instant.MIN;
+    private boolean closed;
+
+    private Journal(Path directory, ElementSerializer<T> serializer, int segmentSize, Clock clock) {
+        this.directory = requireNonNull(directory, "directory must not be null");
+        this.serializer = requireNonNull(serializer, "serializer must not be null");
+        this.clock = requireNonNull(clock, "clock must not be null");
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be greater than " + HEADER_SIZE);
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the journal in the given directory (creating it if necessary) and recovers the records of all the existing
+     * segments.
+     *
+     * @throws UncheckedIOException if the directory or the segments cannot be accessed
+     */
+    public static <T> Journal<T> open(Path directory, ElementSerializer<T> serializer, int segmentSize) {
+        return open(directory, serializer, segmentSize, Clock.systemUTC());
+    }
+
+    public static <T> Journal<T> open(Path directory, ElementSerializer<T> serializer, int segmentSize, Clock clock) {
+        Journal<T> journal = new Journal<>(directory, serializer, segmentSize, clock);
+        try {
+            journal.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+        return journal;
+    }
+
+    private synchronized void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            files.forEach(segmentFiles::add);
+        }
+        segmentFiles.sort(null);
+        for (Path file : segmentFiles) {
+            Segment segment = Segment.recover(file, Files.size(file));
+            segments.add(segment);
+            nextOffset = segment.baseOffset + segment.recordCount;
+            if (segment.lastInstant != null) {
+                lastInstant = segment.lastInstant;
+            }
+        }
+    }
+
+    /**
+     * Appends the given element to the journal and returns its offset.
+     */
+    public synchronized long append(T element) {
+        if (closed) {
+            throw new IllegalStateException("The journal in " + directory + " is closed");
+        }
+        byte[] payload = serializer.serialize(element);
+        int recordSize = HEADER_SIZE + payload.length;
+        Segment segment = segmentWithSpaceFor(recordSize);
+
+        Instant now = clock.instant();
+        if (now.isBefore(lastInstant)) {
+            now = lastInstant;
+        }
+        lastInstant = now;
+
+        segment.write(now, payload);
+        long offset = nextOffset++;
+        live.onNext(JournalRecord.of(offset, now, element));
+        return offset;
+    }
+
+    /**
+     * Returns the records from the given offset on, followed by the records appended after the subscription. The
+     * switch from the recorded to the live records is free of gaps and duplicates. The live records are unsubscribed
+     * as soon as the returned stream is cancelled or terminated.
+     */
+    public Flowable<JournalRecord<T>> replayFrom(long fromOffset) {
+        return Flowable.defer(() -> {
+            UnicastProcessor<JournalRecord<T>> liveAfterSnapshot = UnicastProcessor.create();
+            Disposable liveSubscription;
+            Flowable<JournalRecord<T>> recorded;
+            synchronized (this) {
+                liveSubscription = live.subscribe(liveAfterSnapshot::onNext, liveAfterSnapshot::onError,
+                        liveAfterSnapshot::onComplete);
+                recorded = read(new ArrayList<>(segments), fromOffset, nextOffset);
+            }
+            return recorded.concatWith(liveAfterSnapshot).doFinally(liveSubscription::dispose);
+        });
+    }
+
+    /**
+     * Returns the records between the given offsets (the first inclusive, the second exclusive).
+     */
+    public Flowable<JournalRecord<T>> read(long fromOffset, long toOffset) {
+        return Flowable.defer(() -> {
+            synchronized (this) {
+                return read(new ArrayList<>(segments), fromOffset, Math.min(toOffset, nextOffset));
+            }
+        });
+    }
+
+    public Flowable<JournalRecord<T>> live() {
+        return live.onBackpressureBuffer();
+    }
+
+    /**
+     * Returns the offset of the first record appended at or after the given instant (or the next offset, if there is
+     * no such record). The segment is found by its last instant, the record within the segment by a binary search on
+     * its sparse index, so that at most {@value #INDEX_INTERVAL} records are scanned.
+     */
+    public synchronized long offsetAt(Instant instant) {
+        for (Segment segment : segments) {
+            if (segment.lastInstant != null && !segment.lastInstant.isBefore(instant)) {
+                return segment.baseOffset + segment.firstRecordNotBefore(instant);
+            }
+        }
+        return nextOffset;
+    }
+
+    public synchronized long nextOffset() {
+        return nextOffset;
+    }
+
+    boolean hasLiveSubscribers() {
+        return live.hasSubscribers();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.forEach(segment -> segment.buffer.force());
+        live.onComplete();
+    }
+
+    /**
+     * Signals the given error (e.g. of the journaled stream) to the subscribers of the live records. The journal stays
+     * readable.
+     */
+    public synchronized void fail(Throwable error) {
+        requireNonNull(error, "error must not be null");
+        live.onError(error);
+    }
+
+    private Segment segmentWithSpaceFor(int recordSize) {
+        /* One int is kept free at the end of a segment, in order to find the end of the records when recovering */
+        int requiredSpace = recordSize + Integer.BYTES;
+        if (!segments.isEmpty()) {
+            Segment current = segments.get(segments.size() - 1);
+            if (current.remaining() >= requiredSpace) {
+                return current;
+            }
+            current.buffer.force();
+            if (current.recordCount == 0) {
+                /* Only possible for an oversized record, the new segment has the same base offset */
+                segments.remove(segments.size() - 1);
+                deleteQuietly(current.file);
+            }
+        }
+        Path file = directory.resolve(String.format("%020d", nextOffset) + SEGMENT_SUFFIX);
+        try {
+            Segment segment = Segment.create(file, nextOffset, Math.max(segmentSize, requiredSpace));
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + file, e);
+        }
+    }
+
+    /**
+     * Must be called while holding the lock. The returned flowable can only be subscribed once.
+     */
+    private Flowable<JournalRecord<T>> read(List<Segment> snapshot, long fromOffset, long toOffset) {
+        if (snapshot.isEmpty() || fromOffset >= toOffset) {
+            return Flowable.empty();
+        }
+        /* The start position is looked up right away, while still holding the lock */
+        ReadCursor start = ReadCursor.at(snapshot, Math.max(fromOffset, snapshot.get(0).baseOffset));
+        return Flowable.generate(() -> start, (cursor, emitter) -> {
+            if (cursor.offset >= toOffset) {
+                emitter.onComplete();
+                return cursor;
+            }
+            cursor.moveToSegmentOfOffset();
+            Segment segment = cursor.segment();
+            int size = segment.buffer.getInt(cursor.position);
+            ByteBuffer view = segment.buffer.asReadOnlyBuffer();
+            view.limit(cursor.position + size).position(cursor.position + HEADER_SIZE);
+            emitter.onNext(JournalRecord.of(cursor.offset, segment.instantAt(cursor.position),
+                    serializer.deserialize(view.slice())));
+            cursor.position += size;
+            cursor.offset++;
+            return cursor;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            /* An empty segment is ignored when recovering, so it does not harm if it stays */
+        }
+    }
+
+    private static final class ReadCursor {
+        private final List<Segment> segments;
+        private int segmentIndex;
+        private int position;
+        private long offset;
+
+        private ReadCursor(List<Segment> segments, int segmentIndex, int position, long offset) {
+            this.segments = segments;
+            this.segmentIndex = segmentIndex;
+            this.position = position;
+            this.offset = offset;
+        }
+
+        static ReadCursor at(List<Segment> segments, long offset) {
+            int index = 0;
+            while (index + 1 < segments.size() && segments.get(index + 1).baseOffset <= offset) {
+                index++;
+            }
+            return new ReadCursor(segments, index, segments.get(index).positionOf(offset), offset);
+        }
+
+        Segment segment() {
+            return segments.get(segmentIndex);
+        }
+
+        void moveToSegmentOfOffset() {
+            if (segmentIndex + 1 < segments.size() && segments.get(segmentIndex + 1).baseOffset <= offset) {
+                segmentIndex++;
+                position = 0;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long baseOffset;
+        private final MappedByteBuffer buffer;
+        private int[] sparsePositions = new int[16];
+        private int writePosition;
+        private int recordCount;
+        private Instant lastInstant;
+
+        private Segment(Path file, long baseOffset, MappedByteBuffer buffer) {
+            this.file = file;
+            this.baseOffset = baseOffset;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, long baseOffset, int size) throws IOException {
+            return new Segment(file, baseOffset, map(file, size));
+        }
+
+        static Segment recover(Path file, long size) throws IOException {
+            String name = file.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = new Segment(file, baseOffset, map(file, size));
+            segment.scan();
+            return segment;
+        }
+
+        private static MappedByteBuffer map(Path file, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+                return channel.map(MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        private void scan() {
+            int position = 0;
+            while (position + HEADER_SIZE <= buffer.limit()) {
+                int size = buffer.getInt(position);
+                if (size < HEADER_SIZE || position + size > buffer.limit()) {
+                    break;
+                }
+                index(position, instantAt(position));
+                position += size;
+            }
+            writePosition = position;
+        }
+
+        int remaining() {
+            return buffer.limit() - writePosition;
+        }
+
+        void write(Instant instant, byte[] payload) {
+            int position = writePosition;
+            buffer.putLong(position + Integer.BYTES, instant.getEpochSecond());
+            buffer.putInt(position + Integer.BYTES + Long.BYTES, instant.getNano());
+            ByteBuffer payloadTarget = buffer.duplicate();
+            payloadTarget.position(position + HEADER_SIZE);
+            payloadTarget.put(payload);
+            int end = position + HEADER_SIZE + payload.length;
+            if (end + Integer.BYTES <= buffer.limit()) {
+                /* Ends the scan of a recovery here, in case stale bytes of a torn record follow */
+                buffer.putInt(end, 0);
+            }
+            /* Written last: Only now the record is complete */
+            buffer.putInt(position, HEADER_SIZE + payload.length);
+            writePosition = end;
+            index(position, instant);
+        }
+
+        private void index(int position, Instant instant) {
+            if (recordCount % INDEX_INTERVAL == 0) {
+                int slot = recordCount / INDEX_INTERVAL;
+                if (slot == sparsePositions.length) {
+                    sparsePositions = Arrays.copyOf(sparsePositions, slot * 2);
+                }
+                sparsePositions[slot] = position;
+            }
+            recordCount++;
+            lastInstant = instant;
+        }
+
+        Instant instantAt(int position) {
+            return Instant.ofEpochSecond(buffer.getLong(position + Integer.BYTES),
+                    buffer.getInt(position + Integer.BYTES + Long.BYTES));
+        }
+
+        /**
+         * Returns the index (relative to the base offset) of the first record not before the given instant. Must only
+         * be called if the last record of this segment is not before it.
+         */
+        int firstRecordNotBefore(Instant instant) {
+            /* The last indexed record which is before the instant, the scan starts after it */
+            int low = 0;
+            int high = (recordCount - 1) / INDEX_INTERVAL;
+            if (!instantAt(sparsePositions[0]).isBefore(instant)) {
+                return 0;
+            }
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (instantAt(sparsePositions[middle]).isBefore(instant)) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            int record = low * INDEX_INTERVAL;
+            int position = sparsePositions[low];
+            while (instantAt(position).isBefore(instant)) {
+                position += buffer.getInt(position);
+                record++;
+            }
+            return record;
+        }
+
+        int positionOf(long offset) {
+            int relative = (int) (offset - baseOffset);
+            if (relative >= recordCount) {
+                return writePosition;
+            }
+            int position = sparsePositions[relative / INDEX_INTERVAL];
+            for (int i = 0; i < relative % INDEX_INTERVAL; i++) {
+                position += buffer.getInt(position);
+            }
+            return position;
+        }
+    }
+
+}
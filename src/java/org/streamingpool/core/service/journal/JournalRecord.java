@@ -0,0 +1,110 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.journal;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Instant;
+
+/**
+ * One element of a {@link Journal}, together with its offset (its sequence number in the journal, starting at 0) and
+ * the instant at which it was appended.
+ *
+ * @param <T> the type of the element
+ */
+public final class JournalRecord<T> {
+
+    private final long offset;
+    private final Instant instant;
+    private final T value;
+
+    private JournalRecord(long offset, Instant instant, T value) {
+        this.offset = offset;
+        this.instant = requireNonNull(instant, "instant must not be null");
+        this.value = requireNonNull(value, "value must not be null");
+    }
+
+    public static <T> JournalRecord<T> of(long offset, Instant instant, T value) {
+        return new JournalRecord<>(offset, instant, value);
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public Instant instant() {
+        return instant;
+    }
+
+    public T value() {
+        return value;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((instant == null) ? 0 : instant.hashCode());
+        result = prime * result + (int) (offset ^ (offset >>> 32));
+        result = prime * result + ((value == null) ? 0 : value.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        JournalRecord<?> other = (JournalRecord<?>) obj;
+        if (instant == null) {
+            if (other.instant != null) {
+                return false;
+            }
+        } else if (!instant.equals(other.instant)) {
+            return false;
+        }
+        if (offset != other.offset) {
+            return false;
+        }
+        if (value == null) {
+            if (other.value != null) {
+                return false;
+            }
+        } else if (!value.equals(other.value)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord [offset=" + offset + ", instant=" + instant + ", value=" + value + "]";
+    }
+
+}
@@ -0,0 +1,142 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The unit of communication of the remote pool protocol. Each frame belongs to one channel, i.e. one subscription of a
+ * remote stream; many channels are multiplexed over one {@link RemoteConnection}. The meaning of the payload depends
+ * on the {@link FrameType}.
+ */
+public final class Frame {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final FrameType type;
+    private final int channel;
+    private final byte[] payload;
+
+    private Frame(FrameType type, int channel, byte[] payload) {
+        this.type = requireNonNull(type, "type must not be null");
+        this.channel = channel;
+        this.payload = requireNonNull(payload, "payload must not be null");
+    }
+
+    /**
+     * Creates a frame from its raw parts, as read by a transport.
+     */
+    public static Frame of(FrameType type, int channel, byte[] payload) {
+        return new Frame(type, channel, payload);
+    }
+
+    public static Frame subscribe(int channel, byte[] encodedId) {
+        return new Frame(FrameType.SUBSCRIBE, channel, encodedId);
+    }
+
+    public static Frame request(int channel, long count) {
+        return new Frame(FrameType.REQUEST, channel, ByteBuffer.allocate(Long.BYTES).putLong(count).array());
+    }
+
+    public static Frame cancel(int channel) {
+        return new Frame(FrameType.CANCEL, channel, EMPTY);
+    }
+
+    /**
+     * Creates a frame carrying the given serialized elements. The payload consists of the number of elements followed
+     * by each element, prefixed by its length.
+     */
+    public static Frame next(int channel, List<byte[]> elements) {
+        int size = Integer.BYTES;
+        for (byte[] element : elements) {
+            size += Integer.BYTES + element.length;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size).putInt(elements.size());
+        for (byte[] element : elements) {
+            payload.putInt(element.length).put(element);
+        }
+        return new Frame(FrameType.NEXT, channel, payload.array());
+    }
+
+    public static Frame error(int channel, String message) {
+        return new Frame(FrameType.ERROR, channel, String.valueOf(message).getBytes(UTF_8));
+    }
+
+    public static Frame complete(int channel) {
+        return new Frame(FrameType.COMPLETE, channel, EMPTY);
+    }
+
+    public FrameType type() {
+        return type;
+    }
+
+    public int channel() {
+        return channel;
+    }
+
+    public byte[] payload() {
+        return payload;
+    }
+
+    /**
+     * Returns the requested number of elements of a {@link FrameType#REQUEST} frame.
+     */
+    public long requested() {
+        return ByteBuffer.wrap(payload).getLong();
+    }
+
+    /**
+     * Returns the serialized elements of a {@link FrameType#NEXT} frame.
+     */
+    public List<ByteBuffer> elements() {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int count = buffer.getInt();
+        List<ByteBuffer> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            ByteBuffer element = buffer.slice();
+            element.limit(length);
+            elements.add(element);
+            buffer.position(buffer.position() + length);
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the message of a {@link FrameType#ERROR} frame.
+     */
+    public String message() {
+        return new String(payload, UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "Frame [type=" + type + ", channel=" + channel + ", payloadSize=" + payload.length + "]";
+    }
+
+}
@@ -0,0 +1,43 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+/**
+ * The types of the {@link Frame}s exchanged between a {@link RemoteStreamFactory} and a {@link RemotePoolServer}. The
+ * first three are sent by the client, the others by the server. The ordinals are part of the wire format and must
+ * therefore not be changed.
+ */
+public enum FrameType {
+    /** Subscribes a new channel to the stream with the encoded id in the payload */
+    SUBSCRIBE,
+    /** Requests the number of elements in the payload (reactive streams request(n)) */
+    REQUEST,
+    /** Cancels the subscription of the channel */
+    CANCEL,
+    /** Carries a batch of serialized elements */
+    NEXT,
+    /** Terminates the channel with the error message in the payload */
+    ERROR,
+    /** Terminates the channel normally */
+    COMPLETE
+}
@@ -0,0 +1,279 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.codec.StreamIdCodecRegistry;
+import org.streamingpool.core.service.journal.ElementSerializer;
+
+/**
+ * Exposes the streams of a pool to remote {@link RemoteStreamFactory}s. Every channel opened by a client discovers the
+ * requested stream in the given {@link DiscoveryService} and subscribes to it. The demand of the client is forwarded
+ * as is to the subscription, so a slow client slows down (or makes overflow, depending on the backpressure strategy of
+ * the stream) only its own channel. The elements are sent in batches: everything which was emitted while the previous
+ * batch was being sent goes into the next one.
+ */
+public final class RemotePoolServer implements AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 256;
+    /* Far below TcpTransport.MAX_FRAME_LENGTH, unless a single element is that large */
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
+    private final DiscoveryService discoveryService;
+    private final StreamIdCodecRegistry codecs;
+    private final ElementSerializer<Object> serializer;
+    private final Closeable listening;
+
+    private RemotePoolServer(DiscoveryService discoveryService, RemoteServerTransport transport,
+            StreamIdCodecRegistry codecs, ElementSerializer<Object> serializer) {
+        this.discoveryService = requireNonNull(discoveryService, "discoveryService must not be null");
+        this.codecs = requireNonNull(codecs, "codecs must not be null");
+        this.serializer = requireNonNull(serializer, "serializer must not be null");
+        this.listening = requireNonNull(transport, "transport must not be null").listen(ConnectionHandler::new);
+    }
+
+    /**
+     * Starts serving the streams of the given discovery service over the given transport. The codec registry and the
+     * serializer must be compatible with the ones of the clients.
+     */
+    public static RemotePoolServer serve(DiscoveryService discoveryService, RemoteServerTransport transport,
+            StreamIdCodecRegistry codecs, ElementSerializer<Object> serializer) {
+        return new RemotePoolServer(discoveryService, transport, codecs, serializer);
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        listening.close();
+    }
+
+    private final class ConnectionHandler implements FrameHandler {
+
+        private final RemoteConnection connection;
+        private final Map<Integer, ServerChannel> channels = new ConcurrentHashMap<>();
+
+        ConnectionHandler(RemoteConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void onFrame(Frame frame) {
+            switch (frame.type()) {
+            case SUBSCRIBE:
+                subscribe(frame.channel(), frame.payload());
+                break;
+            case REQUEST:
+                ServerChannel requested = channels.get(frame.channel());
+                if (requested != null) {
+                    requested.request(frame.requested());
+                }
+                break;
+            case CANCEL:
+                ServerChannel cancelled = channels.remove(frame.channel());
+                if (cancelled != null) {
+                    cancelled.cancel();
+                }
+                break;
+            default:
+                connection.send(Frame.error(frame.channel(), "Unexpected frame type " + frame.type()));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void subscribe(int channel, byte[] encodedId) {
+            ServerChannel existing = channels.remove(channel);
+            if (existing != null) {
+                /* A client never reuses a channel, so the old subscription is not wanted either */
+                existing.cancel();
+                connection.send(Frame.error(channel, "The channel " + channel + " is already subscribed"));
+                return;
+            }
+            StreamId<Object> id;
+            try {
+                id = (StreamId<Object>) codecs.decode(encodedId);
+            } catch (Exception e) {
+                connection.send(Frame.error(channel, "Could not decode the stream id: " + e));
+                return;
+            }
+
+            ServerChannel serverChannel = new ServerChannel(this, channel);
+            channels.put(channel, serverChannel);
+            try {
+                discoveryService.discover(id).subscribe(serverChannel);
+            } catch (Exception e) {
+                channels.remove(channel);
+                connection.send(Frame.error(channel, "Could not discover " + id + ": " + e));
+            }
+        }
+
+        @Override
+        public void onClose(Throwable cause) {
+            channels.values().forEach(ServerChannel::cancel);
+            channels.clear();
+        }
+    }
+
+    private final class ServerChannel implements Subscriber<Object> {
+
+        private final ConnectionHandler handler;
+        private final int channel;
+        private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+        private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Frame> terminal = new AtomicReference<>();
+        private long pendingRequests;
+        private volatile boolean done;
+
+        ServerChannel(ConnectionHandler handler, int channel) {
+            this.handler = handler;
+            this.channel = channel;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            long pending;
+            synchronized (this) {
+                upstream.set(subscription);
+                pending = pendingRequests;
+            }
+            if (pending > 0) {
+                subscription.request(pending);
+            }
+        }
+
+        void request(long count) {
+            Subscription subscription;
+            synchronized (this) {
+                subscription = upstream.get();
+                if (subscription == null) {
+                    pendingRequests = addCapped(pendingRequests, count);
+                    return;
+                }
+            }
+            subscription.request(count);
+        }
+
+        void cancel() {
+            done = true;
+            Subscription subscription = upstream.get();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(Object element) {
+            if (done) {
+                return;
+            }
+            try {
+                queue.add(serializer.serialize(element));
+            } catch (Exception e) {
+                cancel();
+                terminate(Frame.error(channel, "Could not serialize " + element + ": " + e));
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            terminate(Frame.error(channel, String.valueOf(throwable)));
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(Frame.complete(channel));
+        }
+
+        private void terminate(Frame frame) {
+            if (terminal.compareAndSet(null, frame)) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                List<byte[]> batch = new ArrayList<>();
+                int batchBytes = 0;
+                byte[] element;
+                while ((element = queue.poll()) != null) {
+                    batch.add(element);
+                    batchBytes += element.length;
+                    if (batch.size() == MAX_BATCH_SIZE || batchBytes >= MAX_BATCH_BYTES) {
+                        send(Frame.next(channel, batch));
+                        batch = new ArrayList<>();
+                        batchBytes = 0;
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    send(Frame.next(channel, batch));
+                }
+                Frame terminalFrame = terminal.get();
+                if (terminalFrame != null && queue.isEmpty()) {
+                    handler.channels.remove(channel, this);
+                    send(terminalFrame);
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void send(Frame frame) {
+            try {
+                handler.connection.send(frame);
+            } catch (RuntimeException e) {
+                /* The connection is broken, the channel will be cancelled when it is closed */
+                cancel();
+            }
+        }
+    }
+
+    private static long addCapped(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+}
@@ -0,0 +1,246 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.codec.StreamIdCodecRegistry;
+import org.streamingpool.core.service.codec.StreamIdEncodingException;
+import org.streamingpool.core.service.journal.ElementSerializer;
+
+import io.reactivex.Flowable;
+
+/**
+ * A {@link StreamFactory} which resolves stream ids from a remote pool, served by a {@link RemotePoolServer}. The ids
+ * are encoded with a {@link StreamIdCodecRegistry} and all the streams share one connection of the given
+ * {@link RemoteTransport}, each subscriber using its own channel. The created streams honour backpressure end to end:
+ * every {@link Subscription#request(long)} is forwarded to the remote subscription.
+ * <p>
+ * The connection is opened lazily, on the first subscription, and reopened on the next subscription after it has been
+ * lost. Losing the connection terminates all the open streams with a {@link RemoteStreamException}.
+ */
+public class RemoteStreamFactory implements StreamFactory, AutoCloseable {
+
+    private final RemoteTransport transport;
+    private final StreamIdCodecRegistry codecs;
+    private final ElementSerializer<?> serializer;
+    private final Predicate<StreamId<?>> servedIds;
+    private final AtomicInteger channelIds = new AtomicInteger();
+    private ClientConnection connection;
+
+    /**
+     * @param transport the transport to reach the remote pool
+     * @param codecs the codecs to encode the ids, compatible with the ones of the server
+     * @param serializer the serializer of the elements, compatible with the one of the server
+     * @param servedIds which ids are resolved remotely, the others are left to the other factories of the pool
+     */
+    public RemoteStreamFactory(RemoteTransport transport, StreamIdCodecRegistry codecs,
+            ElementSerializer<?> serializer, Predicate<StreamId<?>> servedIds) {
+        this.transport = requireNonNull(transport, "transport must not be null");
+        this.codecs = requireNonNull(codecs, "codecs must not be null");
+        this.serializer = requireNonNull(serializer, "serializer must not be null");
+        this.servedIds = requireNonNull(servedIds, "servedIds must not be null");
+    }
+
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (!servedIds.test(id)) {
+            return ErrorStreamPair.empty();
+        }
+        byte[] encodedId;
+        try {
+            encodedId = codecs.encode(id);
+        } catch (StreamIdEncodingException e) {
+            return ErrorStreamPair.empty();
+        }
+        return ErrorStreamPair.ofData(Flowable.fromPublisher(subscriber -> subscribe(encodedId, subscriber)));
+    }
+
+    private <T> void subscribe(byte[] encodedId, Subscriber<? super T> subscriber) {
+        ClientConnection current;
+        try {
+            current = connection();
+        } catch (RuntimeException e) {
+            Flowable.<T> error(new RemoteStreamException("Could not connect to the remote pool", e))
+                    .subscribe(subscriber);
+            return;
+        }
+        current.open(channelIds.incrementAndGet(), encodedId, subscriber);
+    }
+
+    private synchronized ClientConnection connection() {
+        if (connection == null || connection.closed) {
+            ClientConnection opened = new ClientConnection();
+            opened.remote = transport.connect(opened);
+            connection = opened;
+        }
+        return connection;
+    }
+
+    /**
+     * Closes the connection to the remote pool, terminating all the open streams.
+     */
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            connection.remote.close();
+        }
+    }
+
+    private final class ClientConnection implements FrameHandler {
+
+        private final Map<Integer, ClientChannel<?>> channels = new ConcurrentHashMap<>();
+        private volatile RemoteConnection remote;
+        private volatile boolean closed;
+
+        <T> void open(int channel, byte[] encodedId, Subscriber<? super T> subscriber) {
+            ClientChannel<T> clientChannel = new ClientChannel<>(this, channel, subscriber);
+            channels.put(channel, clientChannel);
+            subscriber.onSubscribe(clientChannel);
+            clientChannel.start(encodedId);
+        }
+
+        void send(Frame frame) {
+            try {
+                remote.send(frame);
+            } catch (RuntimeException e) {
+                remote.close();
+            }
+        }
+
+        @Override
+        public void onFrame(Frame frame) {
+            ClientChannel<?> channel = channels.get(frame.channel());
+            if (channel == null) {
+                /* Frames still in flight after a cancellation */
+                return;
+            }
+            switch (frame.type()) {
+            case NEXT:
+                channel.onNext(frame);
+                break;
+            case ERROR:
+                channels.remove(frame.channel());
+                channel.subscriber.onError(new RemoteStreamException(frame.message()));
+                break;
+            case COMPLETE:
+                channels.remove(frame.channel());
+                channel.subscriber.onComplete();
+                break;
+            default:
+                channels.remove(frame.channel());
+                channel.subscriber.onError(new RemoteStreamException("Unexpected frame type " + frame.type()));
+            }
+        }
+
+        @Override
+        public void onClose(Throwable cause) {
+            closed = true;
+            RemoteStreamException exception = new RemoteStreamException("The connection to the remote pool was closed",
+                    cause);
+            channels.values().forEach(channel -> channel.subscriber.onError(exception));
+            channels.clear();
+        }
+    }
+
+    private final class ClientChannel<T> implements Subscription {
+
+        private final ClientConnection connection;
+        private final int channel;
+        private final Subscriber<? super T> subscriber;
+        private boolean started;
+        private long pendingRequests;
+
+        ClientChannel(ClientConnection connection, int channel, Subscriber<? super T> subscriber) {
+            this.connection = connection;
+            this.channel = channel;
+            this.subscriber = subscriber;
+        }
+
+        /* The requests made before the channel is opened remotely are sent right after the SUBSCRIBE frame */
+        synchronized void start(byte[] encodedId) {
+            if (!connection.channels.containsKey(channel)) {
+                /* Cancelled from onSubscribe */
+                return;
+            }
+            connection.send(Frame.subscribe(channel, encodedId));
+            started = true;
+            if (pendingRequests > 0) {
+                connection.send(Frame.request(channel, pendingRequests));
+            }
+        }
+
+        @Override
+        public synchronized void request(long count) {
+            if (count <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Rule 3.9: the request must be positive: " + count));
+                return;
+            }
+            if (!started) {
+                long sum = pendingRequests + count;
+                pendingRequests = sum < 0 ? Long.MAX_VALUE : sum;
+                return;
+            }
+            connection.send(Frame.request(channel, count));
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (connection.channels.remove(channel) != null && started) {
+                connection.send(Frame.cancel(channel));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void onNext(Frame frame) {
+            for (ByteBuffer element : frame.elements()) {
+                if (!connection.channels.containsKey(channel)) {
+                    return;
+                }
+                T value;
+                try {
+                    value = (T) serializer.deserialize(element);
+                } catch (Exception e) {
+                    cancel();
+                    subscriber.onError(new RemoteStreamException("Could not deserialize a remote element", e));
+                    return;
+                }
+                subscriber.onNext(value);
+            }
+        }
+    }
+
+}
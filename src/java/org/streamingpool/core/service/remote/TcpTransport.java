@@ -0,0 +1,225 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A {@link RemoteTransport} and {@link RemoteServerTransport} over plain TCP sockets. Each frame is written as its type
+ * ordinal (one byte), its channel, the length of its payload and the payload itself. Every connection has one daemon
+ * thread reading the incoming frames and delivering them to the {@link FrameHandler}; sending is synchronized on the
+ * connection, so frames are never interleaved.
+ * <p>
+ * A frame whose payload is negative or longer than {@link #MAX_FRAME_LENGTH} is rejected by the reading side, which
+ * closes the connection.
+ * <p>
+ * This transport is mainly intended for connecting pools on the same host or network (for instance the loopback
+ * interface in tests); it does not provide encryption nor authentication.
+ */
+public final class TcpTransport implements RemoteTransport, RemoteServerTransport {
+
+    /** The maximum length of the payload of a frame in bytes */
+    public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    private static final FrameType[] FRAME_TYPES = FrameType.values();
+
+    private final String host;
+    private final int port;
+    private volatile int boundPort;
+
+    private TcpTransport(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.boundPort = port;
+    }
+
+    /**
+     * Creates a transport connecting to the given host and port.
+     */
+    public static TcpTransport client(String host, int port) {
+        return new TcpTransport(requireNonNull(host, "host must not be null"), port);
+    }
+
+    /**
+     * Creates a transport listening on the given port of all the local interfaces. Port 0 binds an ephemeral port,
+     * available from {@link #port()} once {@link #listen(Function)} has been called.
+     */
+    public static TcpTransport server(int port) {
+        return new TcpTransport(null, port);
+    }
+
+    /**
+     * Returns the port this transport connects to or listens on.
+     */
+    public int port() {
+        return boundPort;
+    }
+
+    @Override
+    public RemoteConnection connect(FrameHandler handler) {
+        requireNonNull(handler, "handler must not be null");
+        if (host == null) {
+            throw new IllegalStateException("A server transport cannot connect, use TcpTransport.client(host, port)");
+        }
+        try {
+            return SocketConnection.start(new Socket(host, port), conn -> handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not connect to " + host + ":" + port, e);
+        }
+    }
+
+    @Override
+    public Closeable listen(Function<RemoteConnection, FrameHandler> acceptor) {
+        requireNonNull(acceptor, "acceptor must not be null");
+        ServerSocket serverSocket;
+        try {
+            serverSocket = new ServerSocket(port, 50, host == null ? null : InetAddress.getByName(host));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen on port " + port, e);
+        }
+        boundPort = serverSocket.getLocalPort();
+
+        Set<RemoteConnection> connections = ConcurrentHashMap.newKeySet();
+        Thread acceptThread = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.add(SocketConnection.start(socket, acceptor));
+                } catch (IOException e) {
+                    /* The server socket has been closed */
+                }
+            }
+        }, "streamingpool-tcp-accept-" + boundPort);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        return () -> {
+            serverSocket.close();
+            connections.forEach(RemoteConnection::close);
+        };
+    }
+
+    private static final class SocketConnection implements RemoteConnection {
+
+        private final Socket socket;
+        private final DataOutputStream output;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private FrameHandler handler;
+
+        private SocketConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        static SocketConnection start(Socket socket, Function<RemoteConnection, FrameHandler> acceptor)
+                throws IOException {
+            SocketConnection connection = new SocketConnection(socket);
+            connection.handler = requireNonNull(acceptor.apply(connection), "frame handler must not be null");
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Thread reader = new Thread(() -> connection.readFrames(input),
+                    "streamingpool-tcp-" + socket.getRemoteSocketAddress());
+            reader.setDaemon(true);
+            reader.start();
+            return connection;
+        }
+
+        private void readFrames(DataInputStream input) {
+            Throwable cause = null;
+            try {
+                while (true) {
+                    int typeOrdinal = input.readUnsignedByte();
+                    if (typeOrdinal >= FRAME_TYPES.length) {
+                        throw new IOException("Unknown frame type " + typeOrdinal);
+                    }
+                    int channel = input.readInt();
+                    int length = input.readInt();
+                    if (length < 0 || length > MAX_FRAME_LENGTH) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    byte[] payload = new byte[length];
+                    input.readFully(payload);
+                    handler.onFrame(Frame.of(FRAME_TYPES[typeOrdinal], channel, payload));
+                }
+            } catch (EOFException e) {
+                /* The other side closed the connection */
+            } catch (Throwable e) {
+                if (!closed.get()) {
+                    cause = e;
+                }
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            } finally {
+                /* Also after errors, so that the handler releases the resources of the connection */
+                close();
+                handler.onClose(cause);
+            }
+        }
+
+        @Override
+        public void send(Frame frame) {
+            byte[] payload = frame.payload();
+            synchronized (output) {
+                try {
+                    output.writeByte(frame.type().ordinal());
+                    output.writeInt(frame.channel());
+                    output.writeInt(payload.length);
+                    output.write(payload);
+                    output.flush();
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException("Could not send " + frame, e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    /* Nothing more can be done */
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.ConflatedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * {@link StreamFactory} for the {@link ConflatedStreamId}. The conflation is done per subscriber by
+ * {@link Flowable#onBackpressureLatest()}, which hands the values over through a single atomic slot (no queue). If a
+ * minimum interval is given, the source is additionally sampled at this interval, always emitting the last value.
+ *
+ * @see ConflatedStreamId
+ */
+public class ConflatedStreamFactory implements StreamFactory {
+
+    private final Scheduler scheduler;
+
+    public ConflatedStreamFactory() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * @param scheduler the scheduler on which the sampling of the minimum interval is timed
+     */
+    public ConflatedStreamFactory(Scheduler scheduler) {
+        this.scheduler = requireNonNull(scheduler, "scheduler must not be null");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (!(id instanceof ConflatedStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+        ConflatedStreamId<T> conflatedId = (ConflatedStreamId<T>) id;
+
+        Flowable<T> source = Flowable.fromPublisher(discoveryService.discover(conflatedId.sourceStreamId()));
+        Duration minInterval = conflatedId.minInterval();
+        if (!minInterval.isZero()) {
+            source = source.sample(minInterval.toNanos(), NANOSECONDS, scheduler, true);
+        }
+        return ErrorStreamPair.ofData(source.onBackpressureLatest());
+    }
+
+}
@@ -24,6 +24,8 @@ package org.streamingpool.core.service.streamfactory;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -37,6 +39,9 @@ import org.streamingpool.core.service.TypedStreamFactory;
 import org.streamingpool.core.service.impl.IdentifiedStreamCreator;
 import org.streamingpool.core.service.impl.ImmutableIdentifiedStreamCreator;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 import io.reactivex.Flowable;
 
 /**
@@ -51,11 +56,13 @@ import io.reactivex.Flowable;
 public class CreatorStreamFactory implements CreatorProvidingService, StreamFactory {
 
     private final ConcurrentMap<StreamId<?>, StreamCreator<?>> suppliers = new ConcurrentHashMap<>();
+    private final List<IdentifiedStreamCreator<?>> initialCreators;
 
     public CreatorStreamFactory(Iterable<IdentifiedStreamCreator<?>> identifiedCreators) {
         requireNonNull(identifiedCreators, "identifiedStreamCreators must not be null.");
 
-        identifiedCreators.forEach(this::register);
+        this.initialCreators = ImmutableList.copyOf(identifiedCreators);
+        initialCreators.forEach(this::register);
     }
 
     @Override
@@ -79,6 +86,31 @@ public class CreatorStreamFactory implements CreatorProvidingService, StreamFact
         }
     }
 
+    /**
+     * Forgets all the creators which were provided after construction, so that only the creators given to the
+     * constructor remain registered.
+     */
+    public void reset() {
+        suppliers.clear();
+        initialCreators.forEach(this::register);
+    }
+
+    /**
+     * Returns a snapshot of the creators which are currently registered, by the ids of the streams they create.
+     */
+    public Map<StreamId<?>, StreamCreator<?>> creators() {
+        return ImmutableMap.copyOf(suppliers);
+    }
+
+    /**
+     * Replaces all the registered creators by the given ones, typically a snapshot returned by {@link #creators()}.
+     */
+    public void restoreCreators(Map<StreamId<?>, StreamCreator<?>> creators) {
+        requireNonNull(creators, "creators must not be null");
+        suppliers.clear();
+        suppliers.putAll(creators);
+    }
+
     private <T> void register(IdentifiedStreamCreator<T> identifiedCreator) {
         suppliers.put(identifiedCreator.getId(), identifiedCreator.getCreator());
     }
@@ -0,0 +1,230 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Delays the elements of many streams using one shared periodic tick, instead of one timer task per element (as
+ * {@link Flowable#delay(long, java.util.concurrent.TimeUnit)} does). Every delayed subscriber keeps its pending
+ * elements, with their due time, in arrival order (which is also the release order, as the delay of a stream is
+ * constant). On each tick all the due elements of all the subscribers are released in one batch.
+ * <p>
+ * The price is jitter: an element is released up to one tick period (plus the scheduling latency of the ticking
+ * thread) after its due time. Errors are not delayed, they are delivered on the next tick. All the signals of the
+ * delayed streams are emitted on the ticking thread, which runs only while there are delayed subscribers.
+ *
+ * @see DelayedStreamFactory#DelayedStreamFactory(DelayTicker)
+ */
+public final class DelayTicker {
+
+    private final long tickNanos;
+    private final ScheduledExecutorService executor;
+    private final Set<DelaySubscriber<?>> subscribers = ConcurrentHashMap.newKeySet();
+    private ScheduledFuture<?> ticking;
+
+    private DelayTicker(Duration tick) {
+        requireNonNull(tick, "tick must not be null");
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive, but was " + tick);
+        }
+        this.tickNanos = tick.toNanos();
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("streamingpool-delay-ticker-%d").build());
+    }
+
+    /**
+     * Creates a ticker with the given period, which is the bound of the jitter of the delayed elements.
+     */
+    public static DelayTicker withTick(Duration tick) {
+        return new DelayTicker(tick);
+    }
+
+    public Duration tick() {
+        return Duration.ofNanos(tickNanos);
+    }
+
+    /**
+     * Returns the number of subscribers currently delayed by this ticker.
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Delays the elements and the completion of the given stream.
+     */
+    public <T> Flowable<T> delay(Flowable<T> source, Duration delay) {
+        requireNonNull(source, "source must not be null");
+        requireNonNull(delay, "delay must not be null");
+        long delayNanos = delay.toNanos();
+        return source.lift(downstream -> new DelaySubscriber<>(downstream, delayNanos));
+    }
+
+    private synchronized void register(DelaySubscriber<?> subscriber) {
+        subscribers.add(subscriber);
+        if (ticking == null) {
+            ticking = executor.scheduleAtFixedRate(this::releaseDue, tickNanos, tickNanos, NANOSECONDS);
+        }
+    }
+
+    private synchronized void unregister(DelaySubscriber<?> subscriber) {
+        subscribers.remove(subscriber);
+        if (subscribers.isEmpty() && ticking != null) {
+            ticking.cancel(false);
+            ticking = null;
+        }
+    }
+
+    private void releaseDue() {
+        long now = System.nanoTime();
+        for (DelaySubscriber<?> subscriber : subscribers) {
+            subscriber.release(now);
+        }
+    }
+
+    private static final class Delayed<T> {
+        final long dueNanos;
+        final T value;
+
+        Delayed(long dueNanos, T value) {
+            this.dueNanos = dueNanos;
+            this.value = value;
+        }
+    }
+
+    private final class DelaySubscriber<T> implements FlowableSubscriber<T>, Subscription {
+
+        private final Subscriber<? super T> downstream;
+        private final long delayNanos;
+        private final Queue<Delayed<T>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private volatile Throwable error;
+        private volatile long completionDueNanos;
+        private volatile boolean completed;
+
+        DelaySubscriber(Subscriber<? super T> downstream, long delayNanos) {
+            this.downstream = downstream;
+            this.delayNanos = delayNanos;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            if (upstream.compareAndSet(null, subscription)) {
+                register(this);
+                downstream.onSubscribe(this);
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(T value) {
+            pending.offer(new Delayed<>(System.nanoTime() + delayNanos, value));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completionDueNanos = System.nanoTime() + delayNanos;
+            completed = true;
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.get().request(n);
+        }
+
+        @Override
+        public void cancel() {
+            terminate();
+            upstream.get().cancel();
+        }
+
+        /* Always called by the ticking thread, so the signals to the downstream are serialized */
+        void release(long now) {
+            if (terminated.get()) {
+                return;
+            }
+            try {
+                Throwable failure = error;
+                if (failure != null) {
+                    terminate();
+                    downstream.onError(failure);
+                    return;
+                }
+                Delayed<T> next;
+                while ((next = pending.peek()) != null && next.dueNanos - now <= 0) {
+                    pending.poll();
+                    downstream.onNext(next.value);
+                    if (terminated.get()) {
+                        return;
+                    }
+                }
+                if (completed && pending.isEmpty() && completionDueNanos - now <= 0) {
+                    terminate();
+                    downstream.onComplete();
+                }
+            } catch (Throwable t) {
+                Exceptions.throwIfFatal(t);
+                cancel();
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        private void terminate() {
+            if (terminated.compareAndSet(false, true)) {
+                pending.clear();
+                unregister(this);
+            }
+        }
+    }
+
+}
@@ -23,7 +23,8 @@
 package org.streamingpool.core.service.streamfactory;
 
 import static io.reactivex.Flowable.fromPublisher;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import java.time.Duration;
 
@@ -33,14 +34,47 @@ import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamid.DelayedStreamId;
 
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
 /**
- * Factory for {@link DelayedStreamId}
+ * Factory for {@link DelayedStreamId}. By default, every element is delayed by its own timer task (see
+ * {@link Flowable#delay(long, java.util.concurrent.TimeUnit)}), which is precise but costly for many fast streams.
+ * Alternatively, all the streams created by a factory can be delayed by one shared {@link DelayTicker}, trading a
+ * bounded jitter for a much lower scheduling load.
  * 
  * @see DelayedStreamId
  * @author acalia
  */
 public class DelayedStreamFactory implements StreamFactory {
 
+    private final DelayTicker ticker;
+    private final Scheduler scheduler;
+
+    /**
+     * Creates a factory delaying every element precisely, with one timer task per element.
+     */
+    public DelayedStreamFactory() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates a factory delaying every element precisely, with one timer task per element on the given scheduler.
+     */
+    public DelayedStreamFactory(Scheduler scheduler) {
+        this.ticker = null;
+        this.scheduler = requireNonNull(scheduler, "scheduler must not be null");
+    }
+
+    /**
+     * Creates a factory delaying the elements of all its streams with the given ticker.
+     */
+    public DelayedStreamFactory(DelayTicker ticker) {
+        this.ticker = requireNonNull(ticker, "ticker must not be null");
+        this.scheduler = null;
+    }
+
     @Override
     public <Y> ErrorStreamPair<Y> create(StreamId<Y> id, DiscoveryService discoveryService) {
         if (!(id instanceof DelayedStreamId)) {
@@ -49,7 +83,11 @@ public class DelayedStreamFactory implements StreamFactory {
         DelayedStreamId<Y> delayedId = (DelayedStreamId<Y>) id;
         Duration delay = delayedId.getDelay();
         StreamId<Y> target = delayedId.getTarget();
-        return ErrorStreamPair.ofData(fromPublisher(discoveryService.discover(target)).delay(delay.toMillis(), MILLISECONDS));
+        Flowable<Y> source = fromPublisher(discoveryService.discover(target));
+        if (ticker != null) {
+            return ErrorStreamPair.ofData(ticker.delay(source, delay));
+        }
+        return ErrorStreamPair.ofData(source.delay(delay.toNanos(), NANOSECONDS, scheduler));
     }
 
 }
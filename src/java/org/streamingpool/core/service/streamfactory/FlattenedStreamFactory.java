@@ -20,27 +20,33 @@
 
 package org.streamingpool.core.service.streamfactory;
 
-import io.reactivex.Flowable;
-import org.reactivestreams.Publisher;
-import org.streamingpool.core.domain.ErrorDeflector;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
 import org.streamingpool.core.domain.ErrorStreamPair;
 import org.streamingpool.core.service.DiscoveryService;
 import org.streamingpool.core.service.StreamFactory;
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamid.FlattenedStreamId;
 
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import io.reactivex.Flowable;
 
 /**
- * {@link StreamFactory} for the {@link FlattenedStreamId}s
+ * {@link StreamFactory} for the {@link FlattenedStreamId}s. The source iterables are not copied: they are iterated
+ * lazily, as the downstream requests elements, by {@link Flowable#concatMapIterable(io.reactivex.functions.Function)}
+ * and the null elements are skipped while iterating. {@link RandomAccess} lists (including arrays wrapped by
+ * {@link java.util.Arrays#asList(Object...)}) are read by index instead of through an {@link Iterator}.
  *
  * @author timartin
  * @see FlattenedStreamId
  */
 public class FlattenedStreamFactory implements StreamFactory {
+
+    /* The source iterables are typically large batches, so there is no need to prefetch many of them */
+    private static final int ITERABLE_PREFETCH = 2;
+
     @Override
     public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
         if (!(id instanceof FlattenedStreamId)) {
@@ -54,9 +60,72 @@ public class FlattenedStreamFactory implements StreamFactory {
     private <T> ErrorStreamPair<T> createFlattenedStream(FlattenedStreamId<T> id, DiscoveryService discoveryService) {
         Flowable<Iterable<T>> sourceStream = Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId()));
 
-        return ErrorStreamPair.ofData(sourceStream.flatMap(iterable -> {
-            Stream<T> stream = StreamSupport.stream(iterable.spliterator(), false).filter(Objects::nonNull);
-            return Flowable.fromIterable(stream.collect(Collectors.toList()));
-        }));
+        return ErrorStreamPair
+                .ofData(sourceStream.concatMapIterable(FlattenedStreamFactory::nonNullElementsOf, ITERABLE_PREFETCH));
+    }
+
+    private static <T> Iterable<T> nonNullElementsOf(Iterable<T> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) {
+            List<T> list = (List<T>) iterable;
+            return () -> new NonNullIndexIterator<>(list);
+        }
+        return () -> new NonNullIterator<>(iterable.iterator());
+    }
+
+    private static final class NonNullIterator<T> implements Iterator<T> {
+        private final Iterator<T> source;
+        private T next;
+
+        NonNullIterator(Iterator<T> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                next = source.next();
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = next;
+            next = null;
+            return value;
+        }
+    }
+
+    private static final class NonNullIndexIterator<T> implements Iterator<T> {
+        private final List<T> source;
+        private final int size;
+        private int index;
+        private T next;
+
+        NonNullIndexIterator(List<T> source) {
+            this.source = source;
+            this.size = source.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < size) {
+                next = source.get(index++);
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = next;
+            next = null;
+            return value;
+        }
     }
 }
@@ -0,0 +1,189 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.streamid.HistoryRetention;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.processors.UnicastProcessor;
+
+/**
+ * The recorded values of one {@link org.streamingpool.core.service.streamid.HistoryStreamId}. The values are kept in
+ * a growable ring ordered by their (monotonic) arrival time, so that time range queries are answered by binary search.
+ * All the modifications, as well as the emission of the live values, happen while holding the lock of the buffer.
+ * Thus a replay, which subscribes to the live values and takes a snapshot of the recorded ones under the same lock,
+ * neither misses nor duplicates any value.
+ */
+final class HistoryBuffer<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final HistoryRetention<T> retention;
+    private final Clock clock;
+    private final PublishProcessor<Timestamped<T>> live = PublishProcessor.create();
+
+    /* Guarded by this */
+    private Timestamped<T>[] entries = newEntries(INITIAL_CAPACITY);
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private int head;
+    private int count;
+    private long bytes;
+    private Instant lastInstant = Instant.MIN;
+
+    HistoryBuffer(HistoryRetention<T> retention, Clock clock) {
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    synchronized void append(T value) {
+        Instant now = clock.instant();
+        if (now.isBefore(lastInstant)) {
+            now = lastInstant;
+        }
+        lastInstant = now;
+
+        Timestamped<T> entry = Timestamped.atOf(now, value);
+        if (count == entries.length) {
+            grow();
+        }
+        int tail = index(count);
+        entries[tail] = entry;
+        sizes[tail] = retention.sizeOf(value);
+        bytes += sizes[tail];
+        count++;
+
+        evict(now);
+        live.onNext(entry);
+    }
+
+    synchronized void error(Throwable e) {
+        live.onError(e);
+    }
+
+    synchronized void complete() {
+        live.onComplete();
+    }
+
+    /**
+     * The live values. Slow subscribers are buffered, in order not to block the recording.
+     */
+    Flowable<Timestamped<T>> live() {
+        return live.onBackpressureBuffer();
+    }
+
+    /**
+     * Returns the recorded values from the given instant (inclusive) on, followed by the live values. The snapshot is
+     * taken on subscription and the live values are unsubscribed as soon as the returned stream is cancelled or
+     * terminated.
+     */
+    Flowable<Timestamped<T>> replayFrom(Instant from) {
+        return Flowable.defer(() -> {
+            UnicastProcessor<Timestamped<T>> liveAfterSnapshot = UnicastProcessor.create();
+            Disposable liveSubscription;
+            List<Timestamped<T>> snapshot;
+            synchronized (this) {
+                liveSubscription = live.subscribe(liveAfterSnapshot::onNext, liveAfterSnapshot::onError,
+                        liveAfterSnapshot::onComplete);
+                snapshot = between(from, Instant.MAX);
+            }
+            return Flowable.fromIterable(snapshot).concatWith(liveAfterSnapshot).doFinally(liveSubscription::dispose);
+        });
+    }
+
+    /**
+     * Returns the recorded values with a timestamp between from (inclusive) and to (exclusive).
+     */
+    synchronized List<Timestamped<T>> between(Instant from, Instant to) {
+        evict(clock.instant());
+        int start = firstNotBefore(from);
+        int end = firstNotBefore(to);
+        List<Timestamped<T>> result = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            result.add(entries[index(i)]);
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    boolean hasLiveSubscribers() {
+        return live.hasSubscribers();
+    }
+
+    private int firstNotBefore(Instant instant) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[index(middle)].instant().isBefore(instant)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void evict(Instant now) {
+        Instant oldestRetained = now.minus(retention.maxAge());
+        while (count > 0 && (bytes > retention.maxBytes() || entries[head].instant().isBefore(oldestRetained))) {
+            bytes -= sizes[head];
+            entries[head] = null;
+            head = index(1);
+            count--;
+        }
+    }
+
+    private void grow() {
+        Timestamped<T>[] newEntries = newEntries(entries.length * 2);
+        long[] newSizes = new long[newEntries.length];
+        for (int i = 0; i < count; i++) {
+            newEntries[i] = entries[index(i)];
+            newSizes[i] = sizes[index(i)];
+        }
+        entries = newEntries;
+        sizes = newSizes;
+        head = 0;
+    }
+
+    private int index(int offset) {
+        /* The capacity is always a power of two */
+        return (head + offset) & (entries.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Timestamped<T>[] newEntries(int capacity) {
+        return (Timestamped<T>[]) new Timestamped<?>[capacity];
+    }
+
+}
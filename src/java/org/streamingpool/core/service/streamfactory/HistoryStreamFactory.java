@@ -0,0 +1,117 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.HistoryStreamId;
+import org.streamingpool.core.service.streamid.ReplayFromStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * {@link StreamFactory} for the {@link HistoryStreamId} and the {@link ReplayFromStreamId}. The source of a history is
+ * subscribed as soon as the history is created and its values are recorded from then on, independent of the
+ * subscribers of the history stream.
+ *
+ * @see HistoryStreamId
+ * @see ReplayFromStreamId
+ */
+public class HistoryStreamFactory implements StreamFactory {
+
+    private final ConcurrentMap<HistoryStreamId<?>, HistoryBuffer<?>> histories = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public HistoryStreamFactory() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * @param clock the clock used to timestamp the recorded values
+     */
+    public HistoryStreamFactory(Clock clock) {
+        this.clock = requireNonNull(clock, "clock must not be null");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (id instanceof HistoryStreamId) {
+            return (ErrorStreamPair<T>) createHistory((HistoryStreamId<?>) id, discoveryService);
+        }
+        if (id instanceof ReplayFromStreamId) {
+            return (ErrorStreamPair<T>) createReplay((ReplayFromStreamId<?>) id, discoveryService);
+        }
+        return ErrorStreamPair.empty();
+    }
+
+    private <T> ErrorStreamPair<Timestamped<T>> createHistory(HistoryStreamId<T> id,
+            DiscoveryService discoveryService) {
+        HistoryBuffer<T> history = new HistoryBuffer<>(id.retention(), clock);
+        histories.put(id, history);
+        Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId())).subscribe(history::append,
+                history::error, history::complete);
+        return ErrorStreamPair.ofData(history.live());
+    }
+
+    private <T> ErrorStreamPair<Timestamped<T>> createReplay(ReplayFromStreamId<T> id,
+            DiscoveryService discoveryService) {
+        /* Makes sure that the history is recorded */
+        discoveryService.discover(id.historyStreamId());
+        HistoryBuffer<T> history = historyOf(id.historyStreamId());
+        return ErrorStreamPair.ofData(history.replayFrom(id.from()));
+    }
+
+    /**
+     * Returns the currently recorded values of the given history with a timestamp between from (inclusive) and to
+     * (exclusive). If the history was not yet discovered (and thus is not recorded), an empty list is returned. The
+     * history of an id which was removed by a rollback of the pool stops recording, but is still returned until the id
+     * is discovered again.
+     */
+    public <T> List<Timestamped<T>> historyBetween(HistoryStreamId<T> id, Instant from, Instant to) {
+        HistoryBuffer<T> history = historyOf(id);
+        if (history == null) {
+            return Collections.emptyList();
+        }
+        return history.between(from, to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> HistoryBuffer<T> historyOf(HistoryStreamId<T> id) {
+        /* This cast is safe, because the buffers are stored with their ids */
+        return (HistoryBuffer<T>) histories.get(id);
+    }
+
+}
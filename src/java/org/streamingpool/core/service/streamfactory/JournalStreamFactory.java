@@ -0,0 +1,108 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.journal.Journal;
+import org.streamingpool.core.service.journal.JournalRecord;
+import org.streamingpool.core.service.streamid.JournalReplayStreamId;
+import org.streamingpool.core.service.streamid.JournaledStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * {@link StreamFactory} for the {@link JournaledStreamId} and the {@link JournalReplayStreamId}. The journals are
+ * opened when their ids are created and are closed as soon as their source completes, or else together with this
+ * factory. An error of the source is forwarded to the subscribers of the live records.
+ *
+ * @see JournaledStreamId
+ * @see JournalReplayStreamId
+ */
+public class JournalStreamFactory implements StreamFactory, AutoCloseable {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final ConcurrentMap<JournaledStreamId<?>, Journal<?>> journals = new ConcurrentHashMap<>();
+    private final int segmentSize;
+
+    public JournalStreamFactory() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize the size of the journal segment files in bytes
+     */
+    public JournalStreamFactory(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (id instanceof JournaledStreamId) {
+            return (ErrorStreamPair<T>) createJournaled((JournaledStreamId<?>) id, discoveryService);
+        }
+        if (id instanceof JournalReplayStreamId) {
+            return (ErrorStreamPair<T>) createReplay((JournalReplayStreamId<?>) id, discoveryService);
+        }
+        return ErrorStreamPair.empty();
+    }
+
+    private <T> ErrorStreamPair<JournalRecord<T>> createJournaled(JournaledStreamId<T> id,
+            DiscoveryService discoveryService) {
+        Journal<T> journal = Journal.open(Paths.get(id.directory()), id.serializer(), segmentSize);
+        journals.put(id, journal);
+        Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId())).subscribe(journal::append,
+                journal::fail, journal::close);
+        return ErrorStreamPair.ofData(journal.live());
+    }
+
+    private <T> ErrorStreamPair<JournalRecord<T>> createReplay(JournalReplayStreamId<T> id,
+            DiscoveryService discoveryService) {
+        /* Makes sure that the journal is opened and appended to */
+        discoveryService.discover(id.journaledStreamId());
+        return ErrorStreamPair.ofData(journalOf(id.journaledStreamId()).replayFrom(id.fromOffset()));
+    }
+
+    /**
+     * Returns the journal of the given id, or null if the id was not yet discovered.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Journal<T> journalOf(JournaledStreamId<T> id) {
+        /* This cast is safe, because the journals are stored with their ids */
+        return (Journal<T>) journals.get(id);
+    }
+
+    @Override
+    public void close() {
+        journals.values().forEach(Journal::close);
+    }
+
+}
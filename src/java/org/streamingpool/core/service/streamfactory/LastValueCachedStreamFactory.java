@@ -0,0 +1,150 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.LastValueCachedStreamId;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.UnicastProcessor;
+
+/**
+ * {@link StreamFactory} for the {@link LastValueCachedStreamId}. The latest values of all the cached sources are kept
+ * in one bounded cache, either limited by the number of sources or by the total weight of the values (e.g. their
+ * estimated size in bytes). A source is subscribed once as long as its cached stream has subscribers; when the last
+ * subscriber leaves, the source is unsubscribed but its value stays cached, so that the next subscriber gets it right
+ * away. The bounds of the cache limit how many of these values are kept. The value of a source is only removed when
+ * the source terminates (or it is evicted).
+ * <p>
+ * A new subscriber first subscribes to the live values and only then looks up the cached value, which is numbered,
+ * so that it neither misses a value emitted meanwhile nor receives a value twice or out of order. A value which is
+ * evicted from the cache is only available again after the next emission of its source. The hits and misses of new
+ * subscribers can be monitored by {@link #stats()}.
+ *
+ * @see LastValueCachedStreamId
+ */
+public class LastValueCachedStreamFactory implements StreamFactory {
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Cache<StreamId<?>, SequencedValue> lastValues;
+    /* Shared by all the cached streams, so that a value stays ordered with the ones of a later subscription */
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LastValueCachedStreamFactory() {
+        this(CacheBuilder.newBuilder().maximumSize(DEFAULT_MAXIMUM_SIZE).recordStats().build());
+    }
+
+    private LastValueCachedStreamFactory(Cache<StreamId<?>, SequencedValue> lastValues) {
+        this.lastValues = requireNonNull(lastValues, "lastValues must not be null");
+    }
+
+    /**
+     * Creates a factory which caches the latest values of at most the given number of sources.
+     */
+    public static LastValueCachedStreamFactory withMaximumSize(long maximumSize) {
+        return new LastValueCachedStreamFactory(
+                CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build());
+    }
+
+    /**
+     * Creates a factory which caches the latest values up to the given total weight, as computed by the weigher.
+     */
+    public static LastValueCachedStreamFactory withMaximumWeight(long maximumWeight,
+            Weigher<StreamId<?>, Object> weigher) {
+        requireNonNull(weigher, "weigher must not be null");
+        return new LastValueCachedStreamFactory(CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+                .weigher((StreamId<?> id, SequencedValue value) -> weigher.weigh(id, value.value)).recordStats()
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (!(id instanceof LastValueCachedStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+        StreamId<T> sourceId = ((LastValueCachedStreamId<T>) id).sourceStreamId();
+
+        /* The subscribers request unbounded, the buffer only bridges the hand-over of the emissions between threads */
+        Flowable<SequencedValue> live = Flowable.fromPublisher(discoveryService.discover(sourceId)).map(value -> {
+            SequencedValue sequenced = new SequencedValue(sequence.incrementAndGet(), value);
+            lastValues.put(sourceId, sequenced);
+            return sequenced;
+        }).doOnTerminate(() -> lastValues.invalidate(sourceId)).onBackpressureBuffer().publish().refCount();
+
+        return ErrorStreamPair.ofData(Flowable.defer(() -> {
+            UnicastProcessor<SequencedValue> liveValues = UnicastProcessor.create();
+            Disposable liveSubscription = live.subscribe(liveValues::onNext, liveValues::onError,
+                    liveValues::onComplete);
+            SequencedValue lastValue = lastValues.getIfPresent(sourceId);
+            Flowable<SequencedValue> values = liveValues;
+            if (lastValue != null) {
+                values = liveValues.filter(v -> v.sequence > lastValue.sequence).startWith(lastValue);
+            }
+            return values.map(v -> (T) v.value).doOnCancel(liveSubscription::dispose);
+        }));
+    }
+
+    /**
+     * Returns the statistics of the cache. A hit or miss is recorded for each new subscriber of a cached stream.
+     */
+    public CacheStats stats() {
+        return lastValues.stats();
+    }
+
+    /**
+     * Returns the number of currently cached values.
+     */
+    public long size() {
+        return lastValues.size();
+    }
+
+    /**
+     * A value of a source together with its position in the source, so that subscribers can tell whether they already
+     * received it live.
+     */
+    private static final class SequencedValue {
+        private final long sequence;
+        private final Object value;
+
+        SequencedValue(long sequence, Object value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+}
@@ -22,6 +22,8 @@
 
 package org.streamingpool.core.service.streamfactory;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -38,7 +40,9 @@ import org.streamingpool.core.service.streamid.OverlapBufferStreamId;
 import org.streamingpool.core.service.util.DoAfterFirstSubscribe;
 
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.schedulers.Schedulers;
 
 /**
  * Factory for {@link OverlapBufferStreamId}
@@ -48,6 +52,19 @@ import io.reactivex.flowables.ConnectableFlowable;
  */
 public class OverlapBufferStreamFactory implements StreamFactory {
 
+    private final Scheduler scheduler;
+
+    public OverlapBufferStreamFactory() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * @param scheduler the scheduler on which the timeouts given as durations are timed
+     */
+    public OverlapBufferStreamFactory(Scheduler scheduler) {
+        this.scheduler = requireNonNull(scheduler, "scheduler must not be null");
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
@@ -62,7 +79,7 @@ public class OverlapBufferStreamFactory implements StreamFactory {
         StreamId<?> startId = bufferSpecification.startId();
         StreamId<?> sourceId = analysisId.sourceId();
 
-        Flowable<?> timeout = bufferSpecification.timeout();
+        Flowable<?> timeout = bufferSpecification.timeout(scheduler);
 
         ConnectableFlowable<?> startStream = Flowable.fromPublisher(discoveryService.discover(startId)).publish();
         ConnectableFlowable<?> sourceStream = Flowable.fromPublisher(discoveryService.discover(sourceId)).publish();
@@ -0,0 +1,221 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.streamingpool.core.domain.ErrorDeflector;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.PartitionedStreamId;
+
+import com.google.common.collect.ImmutableList;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
+
+/**
+ * {@link StreamFactory} for the {@link PartitionedStreamId}. For each combination of (pooled) source stream and key
+ * function, one dispatcher subscribes to the source as soon as the first partition is subscribed and forwards each
+ * element to the partition of its key. Elements for which no partition is subscribed are dropped.
+ * <p>
+ * The dispatchers and their partitions are reference counted: A partition is dropped as soon as its last subscriber
+ * leaves and a dispatcher unsubscribes from its source and is dropped with its last subscribed partition. As the
+ * dispatchers are looked up by the source stream provided by the pool, pools sharing this factory never share a
+ * dispatcher.
+ * <p>
+ * Each partition buffers at most the configured number of elements for slow subscribers and signals a
+ * {@link io.reactivex.exceptions.MissingBackpressureException} if this buffer overflows.
+ *
+ * @see PartitionedStreamId
+ */
+public class PartitionedStreamFactory implements StreamFactory {
+
+    private final ConcurrentMap<List<Object>, Dispatcher<?, ?>> dispatchers = new ConcurrentHashMap<>();
+    private final int bufferSize;
+
+    /**
+     * Creates a factory whose partitions buffer at most {@link Flowable#bufferSize()} elements per subscriber.
+     */
+    public PartitionedStreamFactory() {
+        this(Flowable.bufferSize());
+    }
+
+    /**
+     * @param bufferSize the maximum number of elements buffered by each partition for a slow subscriber
+     */
+    public PartitionedStreamFactory(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive, but was " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (!(id instanceof PartitionedStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+        return createPartition((PartitionedStreamId<T, ?>) id, discoveryService);
+    }
+
+    private <T, K> ErrorStreamPair<T> createPartition(PartitionedStreamId<T, K> id,
+            DiscoveryService discoveryService) {
+        Publisher<T> source = discoveryService.discover(id.sourceStreamId());
+        List<Object> dispatcherKey = ImmutableList.of(source, id.keyFunction());
+        PublishProcessor<Throwable> errors = PublishProcessor.create();
+        Flowable<T> partition = Flowable.defer(() -> {
+            Dispatcher<T, K> dispatcher = acquireDispatcher(dispatcherKey, source, id.keyFunction());
+            Disposable errorForwarding = Flowable.fromPublisher(dispatcher.errors()).subscribe(errors::onNext);
+            return dispatcher.partition(id.key()).doFinally(() -> {
+                errorForwarding.dispose();
+                releaseDispatcher(dispatcherKey, dispatcher);
+            });
+        });
+        return ErrorStreamPair.ofDataError(partition.onBackpressureBuffer(bufferSize), errors.onBackpressureDrop());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, K> Dispatcher<T, K> acquireDispatcher(List<Object> dispatcherKey, Publisher<T> source,
+            java.util.function.Function<T, K> keyFunction) {
+        return (Dispatcher<T, K>) dispatchers.compute(dispatcherKey, (k, existing) -> {
+            Dispatcher<?, ?> dispatcher = (existing == null) ? new Dispatcher<>(source, keyFunction) : existing;
+            dispatcher.references++;
+            return dispatcher;
+        });
+    }
+
+    private void releaseDispatcher(List<Object> dispatcherKey, Dispatcher<?, ?> dispatcher) {
+        dispatchers.computeIfPresent(dispatcherKey, (k, existing) -> {
+            if (existing != dispatcher || --existing.references > 0) {
+                return existing;
+            }
+            existing.disconnect();
+            return null;
+        });
+    }
+
+    /**
+     * Splits one source stream into partitions. The partitions are published through {@link PublishProcessor}s, which
+     * are only modified while holding the lock of the dispatcher, while the lookup for each element is lock free.
+     */
+    private static final class Dispatcher<T, K> {
+
+        private final ConcurrentMap<K, PublishProcessor<T>> partitions = new ConcurrentHashMap<>();
+        private final ErrorDeflector errorDeflector = ErrorDeflector.create();
+        private final Flowable<T> source;
+        private final Function<T, Optional<K>> keyFunction;
+
+        /* Guarded by the dispatchers map of the factory */
+        private int references;
+
+        /* Guarded by this */
+        private Disposable connection;
+        private Throwable error;
+        private boolean completed;
+
+        Dispatcher(Publisher<T> source, java.util.function.Function<T, K> keyFunction) {
+            this.source = Flowable.fromPublisher(source);
+            this.keyFunction = errorDeflector.emptyOnException(keyFunction);
+        }
+
+        Publisher<Throwable> errors() {
+            return errorDeflector.stream(Flowable.<T> empty()).error();
+        }
+
+        Flowable<T> partition(K key) {
+            return Flowable.<T> fromPublisher(subscriber -> subscribe(key, subscriber))
+                    .doFinally(() -> removeIfUnsubscribed(key));
+        }
+
+        private synchronized void subscribe(K key, Subscriber<? super T> subscriber) {
+            PublishProcessor<T> processor = partitions.get(key);
+            if (processor == null) {
+                processor = PublishProcessor.create();
+                terminateIfSourceTerminated(processor);
+                partitions.put(key, processor);
+            }
+            processor.subscribe(subscriber);
+            connectOnce();
+        }
+
+        private synchronized void removeIfUnsubscribed(K key) {
+            PublishProcessor<T> processor = partitions.get(key);
+            if (processor != null && !processor.hasSubscribers()) {
+                partitions.remove(key);
+            }
+        }
+
+        private void connectOnce() {
+            if (connection == null) {
+                connection = source.subscribe(this::dispatch, this::onSourceError, this::onSourceComplete);
+            }
+        }
+
+        synchronized void disconnect() {
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+
+        private void dispatch(T value) throws Exception {
+            Optional<K> key = keyFunction.apply(value);
+            if (!key.isPresent()) {
+                return;
+            }
+            PublishProcessor<T> processor = partitions.get(key.get());
+            if (processor != null) {
+                processor.onNext(value);
+            }
+        }
+
+        private synchronized void onSourceError(Throwable e) {
+            error = e;
+            partitions.values().forEach(p -> p.onError(e));
+        }
+
+        private synchronized void onSourceComplete() {
+            completed = true;
+            partitions.values().forEach(PublishProcessor::onComplete);
+        }
+
+        private void terminateIfSourceTerminated(PublishProcessor<T> processor) {
+            if (error != null) {
+                processor.onError(error);
+            } else if (completed) {
+                processor.onComplete();
+            }
+        }
+    }
+
+}
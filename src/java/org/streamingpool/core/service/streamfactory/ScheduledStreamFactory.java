@@ -0,0 +1,64 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.ExecutionPolicy;
+import org.streamingpool.core.service.streamid.ScheduledStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * {@link StreamFactory} for the {@link ScheduledStreamId}. A hand-off (i.e. a queue between two threads, done by
+ * {@link Flowable#observeOn(io.reactivex.Scheduler)}) is inserted only where the policy changes: the same thread
+ * policy and a source which is already scheduled with the same policy are passed through as they are.
+ *
+ * @see ScheduledStreamId
+ */
+public class ScheduledStreamFactory implements StreamFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+        if (!(id instanceof ScheduledStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+        ScheduledStreamId<T> scheduledId = (ScheduledStreamId<T>) id;
+        ExecutionPolicy policy = scheduledId.policy();
+        StreamId<T> sourceId = scheduledId.sourceStreamId();
+
+        Flowable<T> source = Flowable.fromPublisher(discoveryService.discover(sourceId));
+        if (policy.isSameThread() || isScheduledOn(sourceId, policy)) {
+            return ErrorStreamPair.ofData(source);
+        }
+        return ErrorStreamPair.ofData(source.observeOn(policy.scheduler()));
+    }
+
+    private static boolean isScheduledOn(StreamId<?> id, ExecutionPolicy policy) {
+        return id instanceof ScheduledStreamId && ((ScheduledStreamId<?>) id).policy().equals(policy);
+    }
+
+}
@@ -0,0 +1,220 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.WindowSpecification;
+import org.streamingpool.core.service.streamid.WindowedAggregationStreamId;
+import org.streamingpool.core.service.streamid.aggregation.Aggregator;
+import org.streamingpool.core.service.streamid.aggregation.AssociativeAggregator;
+import org.streamingpool.core.service.streamid.aggregation.Aggregator.Accumulator;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * {@link StreamFactory} for the {@link WindowedAggregationStreamId}. Each window is reduced into a fresh
+ * {@link Accumulator}, which only ever grows and never has to remove elements. The results are emitted in the order in
+ * which the windows were opened.
+ * <p>
+ * With overlapping windows, each element is thus aggregated once for every window it belongs to. For overlapping count
+ * windows and an {@link AssociativeAggregator} (as sum, min and max), this is avoided: the last window is kept in a
+ * queue of two stacks of partial aggregates, which gives the aggregate of each window in amortized constant time per
+ * element, independent of the overlap. Overlapping time windows are still aggregated per window, as the number of
+ * elements leaving a time window is not bounded.
+ *
+ * @see WindowedAggregationStreamId
+ */
+public class WindowedAggregationStreamFactory implements StreamFactory {
+
+    private final Scheduler scheduler;
+
+    /**
+     * Creates a factory timing the time and session windows on the {@link Schedulers#computation() computation}
+     * scheduler.
+     */
+    public WindowedAggregationStreamFactory() {
+        this(Schedulers.computation());
+    }
+
+    /**
+     * Creates a factory timing the time and session windows on the given scheduler.
+     */
+    public WindowedAggregationStreamFactory(Scheduler scheduler) {
+        this.scheduler = requireNonNull(scheduler, "scheduler must not be null");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <R> ErrorStreamPair<R> create(StreamId<R> id, DiscoveryService discoveryService) {
+        if (!(id instanceof WindowedAggregationStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+        return ErrorStreamPair.ofData(aggregatedStream((WindowedAggregationStreamId<Object, R>) id, discoveryService));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, R> Flowable<R> aggregatedStream(WindowedAggregationStreamId<T, R> id,
+            DiscoveryService discoveryService) {
+        Flowable<T> source = Flowable.fromPublisher(discoveryService.discover(id.sourceStreamId()));
+        Aggregator<? super T, R> aggregator = id.aggregator();
+        WindowSpecification windowSpecification = id.windowSpecification();
+
+        if (windowSpecification.isOverlappingCount() && aggregator instanceof AssociativeAggregator) {
+            return slidingAggregatedStream(source, windowSpecification,
+                    (AssociativeAggregator<? super T, Object, R>) aggregator);
+        }
+        return windowSpecification.windows(source, scheduler).concatMapEager(window -> window
+                .collect(() -> new WindowState<T, R>(aggregator.newAccumulator()), WindowState::add)
+                .filter(WindowState::isNotEmpty).map(WindowState::result).toFlowable());
+    }
+
+    private static <T, A, R> Flowable<R> slidingAggregatedStream(Flowable<T> source,
+            WindowSpecification windowSpecification, AssociativeAggregator<? super T, A, R> aggregator) {
+        return Flowable.defer(() -> {
+            SlidingCountAggregation<T, A, R> aggregation = new SlidingCountAggregation<>(aggregator,
+                    windowSpecification.count(), windowSpecification.skip());
+            return source.concatMapIterable(aggregation::add)
+                    .concatWith(Flowable.defer(() -> Flowable.fromIterable(aggregation.remaining())));
+        });
+    }
+
+    private static final class WindowState<T, R> {
+        private final Accumulator<? super T, R> accumulator;
+        private boolean empty = true;
+
+        WindowState(Accumulator<? super T, R> accumulator) {
+            this.accumulator = accumulator;
+        }
+
+        void add(T element) {
+            accumulator.add(element);
+            empty = false;
+        }
+
+        boolean isNotEmpty() {
+            return !empty;
+        }
+
+        R result() {
+            return accumulator.result();
+        }
+    }
+
+    /**
+     * The aggregation of overlapping count windows, opened every skip elements and containing count elements each, as
+     * {@link Flowable#window(long, long)} does. Only the elements of the last window are kept, in a queue made of two
+     * stacks: New elements are pushed onto the back stack, whose aggregate is maintained, while the front stack holds
+     * the aggregate of each of its elements with all the newer elements of the front stack. If the front stack is
+     * empty when removing the oldest element, the back stack is moved over to it. Each element is therefore lifted and
+     * combined at most twice.
+     */
+    private static final class SlidingCountAggregation<T, A, R> {
+        private final AssociativeAggregator<? super T, A, R> aggregator;
+        private final long count;
+        private final long skip;
+        private final Deque<T> back = new ArrayDeque<>();
+        private final Deque<A> front = new ArrayDeque<>();
+        private A backAggregate;
+        /* The index of the oldest kept element and of the next element */
+        private long oldestIndex;
+        private long nextIndex;
+
+        SlidingCountAggregation(AssociativeAggregator<? super T, A, R> aggregator, long count, long skip) {
+            this.aggregator = aggregator;
+            this.count = count;
+            this.skip = skip;
+        }
+
+        /**
+         * Adds the given element and returns the result of the window it completes, if any.
+         */
+        List<R> add(T element) {
+            A lifted = aggregator.lift(element);
+            backAggregate = back.isEmpty() ? lifted : aggregator.combine(backAggregate, lifted);
+            back.addLast(element);
+            nextIndex++;
+            if (nextIndex - oldestIndex > count) {
+                removeOldest();
+            }
+            long windowStart = nextIndex - count;
+            if (windowStart >= 0 && windowStart % skip == 0) {
+                return Collections.singletonList(result());
+            }
+            return Collections.emptyList();
+        }
+
+        /**
+         * Returns the results of the windows which are still open (i.e. incomplete) at the end of the source.
+         */
+        List<R> remaining() {
+            List<R> results = new ArrayList<>();
+            while (oldestIndex < nextIndex) {
+                if (oldestIndex % skip == 0 && oldestIndex > nextIndex - count) {
+                    results.add(result());
+                }
+                removeOldest();
+            }
+            return results;
+        }
+
+        private void removeOldest() {
+            if (front.isEmpty()) {
+                A suffixAggregate = null;
+                for (Iterator<T> newestFirst = back.descendingIterator(); newestFirst.hasNext();) {
+                    A lifted = aggregator.lift(newestFirst.next());
+                    suffixAggregate = (suffixAggregate == null) ? lifted : aggregator.combine(lifted, suffixAggregate);
+                    front.addFirst(suffixAggregate);
+                }
+                back.clear();
+                backAggregate = null;
+            }
+            front.removeFirst();
+            oldestIndex++;
+        }
+
+        private R result() {
+            if (front.isEmpty()) {
+                return aggregator.result(backAggregate);
+            }
+            if (back.isEmpty()) {
+                return aggregator.result(front.peekFirst());
+            }
+            return aggregator.result(aggregator.combine(front.peekFirst(), backAggregate));
+        }
+    }
+
+}
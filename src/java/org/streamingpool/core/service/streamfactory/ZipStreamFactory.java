@@ -0,0 +1,71 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.ZipStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Factory for {@link ZipStreamId}
+ *
+ * @see ZipStreamId
+ */
+public class ZipStreamFactory implements StreamFactory {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <Y> ErrorStreamPair<Y> create(StreamId<Y> id, DiscoveryService discoveryService) {
+        if (!(id instanceof ZipStreamId)) {
+            return ErrorStreamPair.empty();
+        }
+
+        return ErrorStreamPair.ofData(zipStream((ZipStreamId<?, Y>) id, discoveryService));
+    }
+
+    private <T, Y> Publisher<Y> zipStream(ZipStreamId<T, Y> streamId, DiscoveryService discoveryService) {
+        List<Publisher<T>> sources = streamId.sourceStreamIds().stream().map(discoveryService::discover)
+                .collect(toList());
+        Function<List<T>, Y> combiner = streamId.combiner();
+
+        return Flowable.zip(sources, values -> combiner.apply(asList(values)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] values) {
+        /* Safe, as the values are emitted by the sources of type T */
+        return (List<T>) Arrays.asList(values);
+    }
+
+}
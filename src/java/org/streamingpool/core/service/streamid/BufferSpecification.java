@@ -34,43 +34,59 @@ import java.util.function.BiPredicate;
 
 import org.streamingpool.core.service.StreamId;
 
+import com.google.common.collect.ImmutableSet;
+
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 
+/**
+ * Specifies when the buffers of an {@link OverlapBufferStreamId} start and end. The timeout can be given either as a
+ * {@link Duration} or as a custom {@link Flowable}. Only in the first case two independently created specifications
+ * can be equal, as {@link Flowable}s only have identity semantics.
+ */
 public class BufferSpecification {
 
-    private StreamId<?> startId;
-    private Set<EndStreamMatcher<?, ?>> endStreamMatchers;
-    private Flowable<?> timeout;
-
     private static final Duration NO_TIMEOUT = Duration.ofSeconds(-1);
 
+    private final StreamId<?> startId;
+    private final Set<EndStreamMatcher<?, ?>> endStreamMatchers;
+    private final Duration timeoutDuration;
+    private final Flowable<?> timeoutStream;
+
+    private transient int hash;
+
     private BufferSpecification(StreamId<?> startStreamId, Set<EndStreamMatcher<?, ?>> endStreamMatchers,
-            Flowable<?> timeout) {
+            Duration timeoutDuration, Flowable<?> timeoutStream) {
         this.startId = requireNonNull(startStreamId, "startStreamId must not be null.");
-        this.endStreamMatchers = requireNonNull(endStreamMatchers, "endStreamId must not be null.");
-        this.timeout = requireNonNull(timeout, "timeout must not be null");
+        this.endStreamMatchers = ImmutableSet
+                .copyOf(requireNonNull(endStreamMatchers, "endStreamId must not be null."));
+        this.timeoutDuration = timeoutDuration;
+        this.timeoutStream = timeoutStream;
     }
 
     public static BufferSpecification ofStartEndTimeout(StreamId<?> startStreamId,
             Set<EndStreamMatcher<?, ?>> endStreamMatchers, Duration timeout) {
-        return new BufferSpecification(startStreamId, endStreamMatchers, timeoutStreamOf(timeout));
+        return new BufferSpecification(startStreamId, endStreamMatchers,
+                requireNonNull(timeout, "timeout must not be null"), null);
     }
 
     public static BufferSpecification ofStartEndTimeout(StreamId<?> startStreamId,
             Set<EndStreamMatcher<?, ?>> endStreamMatchers, Flowable<?> timeout) {
-        return new BufferSpecification(startStreamId, endStreamMatchers, timeout);
+        return new BufferSpecification(startStreamId, endStreamMatchers, null,
+                requireNonNull(timeout, "timeout must not be null"));
     }
 
     public static BufferSpecification ofStartEnd(StreamId<?> startStreamId,
             Set<EndStreamMatcher<?, ?>> endStreamMatchers) {
-        return new BufferSpecification(startStreamId, endStreamMatchers, timeoutStreamOf(NO_TIMEOUT));
+        return new BufferSpecification(startStreamId, endStreamMatchers, NO_TIMEOUT, null);
     }
 
-    private static Flowable<?> timeoutStreamOf(Duration timeout) {
+    private static Flowable<?> timeoutStreamOf(Duration timeout, Scheduler scheduler) {
         if (timeout.isNegative()) {
             return never();
         }
-        return timer(timeout.toMillis(), MILLISECONDS);
+        return timer(timeout.toMillis(), MILLISECONDS, scheduler);
     }
 
     public StreamId<?> startId() {
@@ -81,8 +97,24 @@ public class BufferSpecification {
         return endStreamMatchers;
     }
 
+    /**
+     * Returns the stream which closes a buffer when it emits its first item. If the specification was created with a
+     * {@link Duration}, then a new timer stream is returned on each call.
+     */
     public Flowable<?> timeout() {
-        return timeout;
+        return timeout(Schedulers.computation());
+    }
+
+    /**
+     * Same as {@link #timeout()}, but a timeout given as a {@link Duration} is timed on the given scheduler. A custom
+     * timeout stream is returned as it is.
+     */
+    public Flowable<?> timeout(Scheduler scheduler) {
+        requireNonNull(scheduler, "scheduler must not be null");
+        if (timeoutStream != null) {
+            return timeoutStream;
+        }
+        return timeoutStreamOf(timeoutDuration, scheduler);
     }
 
     public static class EndStreamMatcher<T, U> {
@@ -116,15 +148,63 @@ public class BufferSpecification {
             return this.matching;
         }
 
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((endStreamId == null) ? 0 : endStreamId.hashCode());
+            result = prime * result + ((matching == null) ? 0 : matching.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            EndStreamMatcher<?, ?> other = (EndStreamMatcher<?, ?>) obj;
+            if (endStreamId == null) {
+                if (other.endStreamId != null) {
+                    return false;
+                }
+            } else if (!endStreamId.equals(other.endStreamId)) {
+                return false;
+            }
+            if (matching == null) {
+                if (other.matching != null) {
+                    return false;
+                }
+            } else if (!matching.equals(other.matching)) {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "EndStreamMatcher [endStreamId=" + endStreamId + ", matching=" + matching + "]";
+        }
+
     }
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((endStreamMatchers == null) ? 0 : endStreamMatchers.hashCode());
-        result = prime * result + ((startId == null) ? 0 : startId.hashCode());
-        result = prime * result + ((timeout == null) ? 0 : timeout.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((endStreamMatchers == null) ? 0 : endStreamMatchers.hashCode());
+            result = prime * result + ((startId == null) ? 0 : startId.hashCode());
+            result = prime * result + ((timeoutDuration == null) ? 0 : timeoutDuration.hashCode());
+            result = prime * result + ((timeoutStream == null) ? 0 : timeoutStream.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -154,11 +234,18 @@ public class BufferSpecification {
         } else if (!startId.equals(other.startId)) {
             return false;
         }
-        if (timeout == null) {
-            if (other.timeout != null) {
+        if (timeoutDuration == null) {
+            if (other.timeoutDuration != null) {
+                return false;
+            }
+        } else if (!timeoutDuration.equals(other.timeoutDuration)) {
+            return false;
+        }
+        if (timeoutStream == null) {
+            if (other.timeoutStream != null) {
                 return false;
             }
-        } else if (!timeout.equals(other.timeout)) {
+        } else if (!timeoutStream.equals(other.timeoutStream)) {
             return false;
         }
         return true;
@@ -167,7 +254,7 @@ public class BufferSpecification {
     @Override
     public String toString() {
         return "BufferSpecification [startId=" + startId + ", endStreamMatchers=" + endStreamMatchers + ", timeout="
-                + timeout + "]";
+                + (timeoutStream == null ? timeoutDuration : timeoutStream) + "]";
     }
 
 }
\ No newline at end of file
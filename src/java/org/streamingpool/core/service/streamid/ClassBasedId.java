@@ -39,6 +39,10 @@ public final class ClassBasedId <T> implements StreamId<T>, Serializable {
         return new ClassBasedId<>(targetClass);
     }
 
+    public Class<?> targetClass() {
+        return targetClass;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
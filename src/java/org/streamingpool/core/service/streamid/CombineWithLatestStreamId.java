@@ -29,11 +29,15 @@ import java.util.function.BiFunction;
 
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamfactory.CombineWithLatestStreamFactory;
+import org.streamingpool.core.service.streamid.function.KeyedBiFunction;
 
 /**
  * Given a data stream and a stream of triggering events, the resulting stream emits as soon as the trigger stream
  * emits. The emitted value is determined by the comining function, and can thus be computed from the emitted value of
  * the triggered stream and the latest emitted item of the data stream. stream at the moment of each triggering event
+ * <p>
+ * The combiner is part of the identity of the stream. In order to share the same stream between several users, the
+ * combiner can be identified by a key (see {@link #combine(StreamId, StreamId, String, BiFunction)}).
  *
  * @see CombineWithLatestStreamFactory
  * @author acalia, caguiler
@@ -48,14 +52,18 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
     private final StreamId<D> data;
     private final BiFunction<T, D, R> combiner;
 
+    private transient int hash;
+
     private CombineWithLatestStreamId(StreamId<T> trigger, StreamId<D> data, BiFunction<T, D, R> combiner) {
         this.data = requireNonNull(data, "data stream must not be null");
         this.trigger = requireNonNull(trigger, "trigger stream must not be null");
         this.combiner = requireNonNull(combiner, "combiner must not be null");
     }
 
+    @SuppressWarnings("unchecked")
     public static <T, D> CombineWithLatestStreamId<T, D, D> dataPropagated(StreamId<T> trigger, StreamId<D> data) {
-        return combine(trigger, data, (t, d) -> d);
+        /* Safe, as the data propagation only returns its second argument */
+        return combine(trigger, data, (BiFunction<T, D, D>) (BiFunction<?, ?, ?>) DataPropagation.INSTANCE);
     }
 
     public static <T, D, R> CombineWithLatestStreamId<T, D, R> combine(StreamId<T> trigger, StreamId<D> data,
@@ -63,6 +71,15 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
         return new CombineWithLatestStreamId<>(trigger, data, combiner);
     }
 
+    /**
+     * Creates a combined stream id whose combiner is identified by the given key. Two combined stream ids with the same
+     * trigger, data and combiner key are equal and thus result in the same stream.
+     */
+    public static <T, D, R> CombineWithLatestStreamId<T, D, R> combine(StreamId<T> trigger, StreamId<D> data,
+            String combinerKey, BiFunction<T, D, R> combiner) {
+        return new CombineWithLatestStreamId<>(trigger, data, KeyedBiFunction.keyed(combinerKey, combiner));
+    }
+
     public StreamId<D> dataStream() {
         return data;
     }
@@ -77,10 +94,15 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((data == null) ? 0 : data.hashCode());
-        result = prime * result + ((trigger == null) ? 0 : trigger.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((combiner == null) ? 0 : combiner.hashCode());
+            result = prime * result + ((data == null) ? 0 : data.hashCode());
+            result = prime * result + ((trigger == null) ? 0 : trigger.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -96,6 +118,13 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
             return false;
         }
         CombineWithLatestStreamId<?, ?, ?> other = (CombineWithLatestStreamId<?, ?, ?>) obj;
+        if (combiner == null) {
+            if (other.combiner != null) {
+                return false;
+            }
+        } else if (!combiner.equals(other.combiner)) {
+            return false;
+        }
         if (data == null) {
             if (other.data != null) {
                 return false;
@@ -115,7 +144,20 @@ public class CombineWithLatestStreamId<T, D, R> implements StreamId<R>, Serializ
 
     @Override
     public String toString() {
-        return "CombineWithLatestStreamId [trigger=" + trigger + ", data=" + data + "]";
+        return "CombineWithLatestStreamId [trigger=" + trigger + ", data=" + data + ", combiner=" + combiner + "]";
+    }
+
+    /**
+     * The combiner of {@link CombineWithLatestStreamId#dataPropagated(StreamId, StreamId)}: a serializable singleton,
+     * so that all the data propagating ids with the same streams are equal and serializable.
+     */
+    private enum DataPropagation implements BiFunction<Object, Object, Object> {
+        INSTANCE;
+
+        @Override
+        public Object apply(Object trigger, Object data) {
+            return data;
+        }
     }
 
 }
@@ -0,0 +1,125 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.ConflatedStreamFactory;
+
+/**
+ * A stream id for consumers which are only interested in the latest value of a (potentially fast) source stream. Each
+ * subscriber of the resulting stream gets the latest value of the source as soon as it requests one; intermediate
+ * values which are emitted while the subscriber is busy are dropped instead of being buffered. Optionally, the values
+ * can be limited to one per minimum interval (e.g. to the refresh rate of a display).
+ *
+ * @see ConflatedStreamFactory
+ * @param <T> the type of the source stream (and of the conflated stream)
+ */
+public class ConflatedStreamId<T> implements StreamId<T>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final Duration minInterval;
+
+    private transient int hash;
+
+    private ConflatedStreamId(StreamId<T> sourceStreamId, Duration minInterval) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.minInterval = requireNonNull(minInterval, "minInterval must not be null");
+        if (minInterval.isNegative()) {
+            throw new IllegalArgumentException("minInterval must not be negative, but was " + minInterval);
+        }
+    }
+
+    public static <T> ConflatedStreamId<T> conflate(StreamId<T> sourceStreamId) {
+        return new ConflatedStreamId<>(sourceStreamId, Duration.ZERO);
+    }
+
+    /**
+     * Creates a conflated stream id which emits at most one value per given interval: the latest one emitted by the
+     * source within the interval.
+     */
+    public static <T> ConflatedStreamId<T> conflate(StreamId<T> sourceStreamId, Duration minInterval) {
+        return new ConflatedStreamId<>(sourceStreamId, minInterval);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public Duration minInterval() {
+        return minInterval;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((minInterval == null) ? 0 : minInterval.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ConflatedStreamId<?> other = (ConflatedStreamId<?>) obj;
+        if (minInterval == null) {
+            if (other.minInterval != null) {
+                return false;
+            }
+        } else if (!minInterval.equals(other.minInterval)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ConflatedStreamId [sourceStreamId=" + sourceStreamId + ", minInterval=" + minInterval + "]";
+    }
+
+}
@@ -43,6 +43,8 @@ public class DelayedStreamId<T> implements StreamId<T>, Serializable {
     private final StreamId<T> target;
     private final Duration delay;
 
+    private transient int hash;
+
     public static <T> DelayedStreamId<T> delayBy(StreamId<T> target, Duration delay) {
         return new DelayedStreamId<>(target, delay);
     }
@@ -62,10 +64,14 @@ public class DelayedStreamId<T> implements StreamId<T>, Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((delay == null) ? 0 : delay.hashCode());
-        result = prime * result + ((target == null) ? 0 : target.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((delay == null) ? 0 : delay.hashCode());
+            result = prime * result + ((target == null) ? 0 : target.hashCode());
+            hash = result;
+        }
         return result;
     }
 
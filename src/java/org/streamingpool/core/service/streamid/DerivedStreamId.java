@@ -29,10 +29,15 @@ import java.util.function.Function;
 
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
 
 /**
  * A stream id, that applies the provided function to transform the elements of the data stream. It is much like a map
  * operator, but the operation is specified before the actual stream is created or discovered.
+ * <p>
+ * Two derived ids are only equal if their conversions are equal. As lambdas are compared by identity, the same
+ * derivation written at two places would result in two separate streams. To avoid this, the conversion can be
+ * identified by a key (see {@link #derive(StreamId, String, Function)} and {@link KeyedFunction}).
  *
  * @see DerivedStreamFactory
  * @author kfuchsbe
@@ -45,10 +50,21 @@ public class DerivedStreamId<S, T> implements StreamId<T>, Serializable {
     private final StreamId<S> sourceStreamId;
     private final Function<S, T> conversion;
 
+    private transient int hash;
+
     public static <S, T> DerivedStreamId<S, T> derive(StreamId<S> sourceStreamId, Function<S, T> conversion) {
         return new DerivedStreamId<>(sourceStreamId, conversion);
     }
 
+    /**
+     * Creates a derived stream id whose conversion is identified by the given key. Two derived stream ids with the same
+     * source and the same conversion key are equal and thus result in the same stream.
+     */
+    public static <S, T> DerivedStreamId<S, T> derive(StreamId<S> sourceStreamId, String conversionKey,
+            Function<S, T> conversion) {
+        return new DerivedStreamId<>(sourceStreamId, KeyedFunction.keyed(conversionKey, conversion));
+    }
+
     public DerivedStreamId(StreamId<S> sourceStreamId, Function<S, T> conversion) {
         this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
         this.conversion = requireNonNull(conversion, "conversion must not be null");
@@ -64,10 +80,14 @@ public class DerivedStreamId<S, T> implements StreamId<T>, Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((conversion == null) ? 0 : conversion.hashCode());
-        result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((conversion == null) ? 0 : conversion.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -0,0 +1,195 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Describes where the values of a stream are delivered (see {@link ScheduledStreamId}). The policies are identified
+ * by their kind and name: equal policies share the same threads, which are created lazily and are daemon threads.
+ * <ul>
+ * <li>{@link #sameThread()}: the values are delivered on the thread emitting them, without any hand-off;</li>
+ * <li>{@link #dedicatedThread(String)}: one thread per policy name;</li>
+ * <li>{@link #boundedPool(String, int)}: a fixed pool of threads per policy name;</li>
+ * <li>{@link #onExecutor(String, Executor)}: a user supplied executor, registered under the given name. This is the
+ * way to use e.g. virtual threads, by passing a thread per task executor.</li>
+ * </ul>
+ */
+public final class ExecutionPolicy implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final ExecutionPolicy SAME_THREAD = new ExecutionPolicy(Kind.SAME_THREAD, "same-thread", 0, null);
+    private static final ConcurrentMap<ExecutionPolicy, Scheduler> SCHEDULERS = new ConcurrentHashMap<>();
+
+    /**
+     * The kinds of {@link ExecutionPolicy}
+     */
+    public enum Kind {
+        SAME_THREAD,
+        DEDICATED_THREAD,
+        BOUNDED_POOL,
+        EXECUTOR
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final int parallelism;
+    private final transient Executor executor;
+
+    private ExecutionPolicy(Kind kind, String name, int parallelism, Executor executor) {
+        this.kind = kind;
+        this.name = requireNonNull(name, "name must not be null");
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    public static ExecutionPolicy sameThread() {
+        return SAME_THREAD;
+    }
+
+    public static ExecutionPolicy dedicatedThread(String name) {
+        return new ExecutionPolicy(Kind.DEDICATED_THREAD, name, 1, null);
+    }
+
+    public static ExecutionPolicy boundedPool(String name, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive, but was " + parallelism);
+        }
+        return new ExecutionPolicy(Kind.BOUNDED_POOL, name, parallelism, null);
+    }
+
+    /**
+     * Creates a policy running on the given executor. The name identifies the executor: the first executor given for
+     * a name is used by all the equal policies.
+     */
+    public static ExecutionPolicy onExecutor(String name, Executor executor) {
+        return new ExecutionPolicy(Kind.EXECUTOR, name, 0, requireNonNull(executor, "executor must not be null"));
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    public boolean isSameThread() {
+        return kind == Kind.SAME_THREAD;
+    }
+
+    /**
+     * Returns the scheduler of this policy, shared by all the equal policies.
+     *
+     * @throws UnsupportedOperationException for the {@link #sameThread()} policy, which does not need a scheduler
+     * @throws IllegalStateException if this is a deserialized {@link Kind#EXECUTOR} policy whose executor has never
+     *             been registered in this JVM
+     */
+    public Scheduler scheduler() {
+        if (isSameThread()) {
+            throw new UnsupportedOperationException("The same thread policy does not use any scheduler");
+        }
+        return SCHEDULERS.computeIfAbsent(this, ExecutionPolicy::createScheduler);
+    }
+
+    private Scheduler createScheduler() {
+        ThreadFactory threads = new ThreadFactoryBuilder().setDaemon(true).setNameFormat(name + "-%d").build();
+        switch (kind) {
+        case DEDICATED_THREAD:
+            return Schedulers.from(Executors.newSingleThreadExecutor(threads));
+        case BOUNDED_POOL:
+            return Schedulers.from(Executors.newFixedThreadPool(parallelism, threads));
+        case EXECUTOR:
+            if (executor == null) {
+                throw new IllegalStateException("No executor has been registered for the policy " + this);
+            }
+            return Schedulers.from(executor);
+        default:
+            throw new IllegalStateException("Unknown kind of execution policy " + kind);
+        }
+    }
+
+    private Object readResolve() {
+        return isSameThread() ? SAME_THREAD : this;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((kind == null) ? 0 : kind.hashCode());
+        result = prime * result + ((name == null) ? 0 : name.hashCode());
+        result = prime * result + parallelism;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ExecutionPolicy other = (ExecutionPolicy) obj;
+        if (kind != other.kind) {
+            return false;
+        }
+        if (name == null) {
+            if (other.name != null) {
+                return false;
+            }
+        } else if (!name.equals(other.name)) {
+            return false;
+        }
+        if (parallelism != other.parallelism) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionPolicy [kind=" + kind + ", name=" + name + ", parallelism=" + parallelism + "]";
+    }
+
+}
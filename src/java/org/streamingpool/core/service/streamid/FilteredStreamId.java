@@ -29,9 +29,11 @@ import java.util.function.Predicate;
 
 import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamfactory.FilteredStreamFactory;
+import org.streamingpool.core.service.streamid.function.KeyedPredicate;
 
 /**
- * Filter the items of the stream by applying the specified {@link #predicate()}.
+ * Filter the items of the stream by applying the specified {@link #predicate()}. In order to share the same stream
+ * between several users, the predicate can be identified by a key (see {@link #filterBy(StreamId, String, Predicate)}).
  *
  * @author acalia
  * @see FilteredStreamFactory
@@ -43,10 +45,20 @@ public class FilteredStreamId<T> implements StreamId<T>, Serializable {
     private final StreamId<T> sourceStreamId;
     private final Predicate<T> predicate;
 
+    private transient int hash;
+
     public static <T> FilteredStreamId<T> filterBy(StreamId<T> source, Predicate<T> predicate) {
         return new FilteredStreamId<>(source, predicate);
     }
 
+    /**
+     * Creates a filtered stream id whose predicate is identified by the given key. Two filtered stream ids with the same
+     * source and the same predicate key are equal and thus result in the same stream.
+     */
+    public static <T> FilteredStreamId<T> filterBy(StreamId<T> source, String predicateKey, Predicate<T> predicate) {
+        return new FilteredStreamId<>(source, KeyedPredicate.keyed(predicateKey, predicate));
+    }
+
     public FilteredStreamId(StreamId<T> source, Predicate<T> predicate) {
         this.sourceStreamId = requireNonNull(source, "source of the filtering must not be null");
         this.predicate = requireNonNull(predicate, "predicate of the filtering must not be null");
@@ -67,10 +79,14 @@ public class FilteredStreamId<T> implements StreamId<T>, Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
-        result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
         return result;
     }
 
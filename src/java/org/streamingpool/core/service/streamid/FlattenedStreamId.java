@@ -38,6 +38,8 @@ public class FlattenedStreamId<T> implements StreamId<T> {
 
     private final StreamId<Iterable<T>> sourceStreamId;
 
+    private transient int hash;
+
     public static <T> FlattenedStreamId<T> flatten(StreamId<Iterable<T>> sourceStreamId) {
         return new FlattenedStreamId<>(sourceStreamId);
     }
@@ -52,9 +54,13 @@ public class FlattenedStreamId<T> implements StreamId<T> {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -0,0 +1,148 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * Specifies how long the values of a {@link HistoryStreamId} are kept: values are discarded as soon as they are older
+ * than the maximum age or (optionally) as soon as the estimated size of all the kept values exceeds a maximum number
+ * of bytes.
+ * <p>
+ * The size estimator is part of the identity of the retention. It should therefore be one constant instance (e.g. a
+ * static method reference stored in a constant), so that equal retentions can be created at different places.
+ *
+ * @param <T> the type of the retained values
+ */
+public final class HistoryRetention<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final long UNLIMITED_BYTES = Long.MAX_VALUE;
+
+    private final Duration maxAge;
+    private final long maxBytes;
+    private final ToLongFunction<? super T> sizeEstimator;
+
+    private HistoryRetention(Duration maxAge, long maxBytes, ToLongFunction<? super T> sizeEstimator) {
+        this.maxAge = requireNonNull(maxAge, "maxAge must not be null");
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("maxAge must be positive, but was " + maxAge);
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive, but was " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.sizeEstimator = sizeEstimator;
+    }
+
+    public static <T> HistoryRetention<T> ofMaxAge(Duration maxAge) {
+        return new HistoryRetention<>(maxAge, UNLIMITED_BYTES, null);
+    }
+
+    /**
+     * Returns a retention with the same maximum age, which additionally discards the oldest values as soon as the sum
+     * of their estimated sizes exceeds the given number of bytes.
+     */
+    public HistoryRetention<T> withMaxBytes(long newMaxBytes, ToLongFunction<? super T> newSizeEstimator) {
+        return new HistoryRetention<>(maxAge, newMaxBytes,
+                requireNonNull(newSizeEstimator, "sizeEstimator must not be null"));
+    }
+
+    public Duration maxAge() {
+        return maxAge;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns true if the values are also discarded by their estimated size (see
+     * {@link #withMaxBytes(long, ToLongFunction)}).
+     */
+    public boolean isLimitedBySize() {
+        return sizeEstimator != null;
+    }
+
+    /**
+     * Returns the estimated size of the given value in bytes, or 0 if the retention is not limited by size.
+     */
+    public long sizeOf(T value) {
+        if (sizeEstimator == null) {
+            return 0;
+        }
+        return sizeEstimator.applyAsLong(value);
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((maxAge == null) ? 0 : maxAge.hashCode());
+        result = prime * result + (int) (maxBytes ^ (maxBytes >>> 32));
+        result = prime * result + ((sizeEstimator == null) ? 0 : sizeEstimator.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        HistoryRetention<?> other = (HistoryRetention<?>) obj;
+        if (maxAge == null) {
+            if (other.maxAge != null) {
+                return false;
+            }
+        } else if (!maxAge.equals(other.maxAge)) {
+            return false;
+        }
+        if (maxBytes != other.maxBytes) {
+            return false;
+        }
+        if (sizeEstimator == null) {
+            if (other.sizeEstimator != null) {
+                return false;
+            }
+        } else if (!sizeEstimator.equals(other.sizeEstimator)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryRetention [maxAge=" + maxAge + ", maxBytes=" + maxBytes + "]";
+    }
+
+}
@@ -0,0 +1,114 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.HistoryStreamFactory;
+
+/**
+ * A stream id for the recorded history of a source stream. As soon as this id is discovered for the first time, the
+ * values of the source are recorded (timestamped on arrival) and kept according to the given
+ * {@link HistoryRetention}. The resulting stream emits the live timestamped values; the recorded ones can be replayed
+ * by a {@link ReplayFromStreamId}.
+ *
+ * @see HistoryStreamFactory
+ * @param <T> the type of the source stream
+ */
+public class HistoryStreamId<T> implements StreamId<Timestamped<T>>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final HistoryRetention<T> retention;
+
+    private transient int hash;
+
+    private HistoryStreamId(StreamId<T> sourceStreamId, HistoryRetention<T> retention) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.retention = requireNonNull(retention, "retention must not be null");
+    }
+
+    public static <T> HistoryStreamId<T> historyOf(StreamId<T> sourceStreamId, HistoryRetention<T> retention) {
+        return new HistoryStreamId<>(sourceStreamId, retention);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public HistoryRetention<T> retention() {
+        return retention;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((retention == null) ? 0 : retention.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        HistoryStreamId<?> other = (HistoryStreamId<?>) obj;
+        if (retention == null) {
+            if (other.retention != null) {
+                return false;
+            }
+        } else if (!retention.equals(other.retention)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryStreamId [sourceStreamId=" + sourceStreamId + ", retention=" + retention + "]";
+    }
+
+}
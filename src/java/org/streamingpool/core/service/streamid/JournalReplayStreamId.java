@@ -0,0 +1,111 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.journal.JournalRecord;
+import org.streamingpool.core.service.streamfactory.JournalStreamFactory;
+
+/**
+ * A stream id which replays the records of a {@link JournaledStreamId} from the given offset on (read directly from the
+ * journal files) and then continues with the live records, without gaps or duplicates between the two.
+ *
+ * @see JournalStreamFactory
+ * @param <T> the type of the journaled stream
+ */
+public class JournalReplayStreamId<T> implements StreamId<JournalRecord<T>>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final JournaledStreamId<T> journaledStreamId;
+    private final long fromOffset;
+
+    private transient int hash;
+
+    private JournalReplayStreamId(JournaledStreamId<T> journaledStreamId, long fromOffset) {
+        this.journaledStreamId = requireNonNull(journaledStreamId, "journaledStreamId must not be null");
+        if (fromOffset < 0) {
+            throw new IllegalArgumentException("fromOffset must not be negative, but was " + fromOffset);
+        }
+        this.fromOffset = fromOffset;
+    }
+
+    public static <T> JournalReplayStreamId<T> replayFrom(JournaledStreamId<T> journaledStreamId, long fromOffset) {
+        return new JournalReplayStreamId<>(journaledStreamId, fromOffset);
+    }
+
+    public JournaledStreamId<T> journaledStreamId() {
+        return journaledStreamId;
+    }
+
+    public long fromOffset() {
+        return fromOffset;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + (int) (fromOffset ^ (fromOffset >>> 32));
+            result = prime * result + ((journaledStreamId == null) ? 0 : journaledStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        JournalReplayStreamId<?> other = (JournalReplayStreamId<?>) obj;
+        if (fromOffset != other.fromOffset) {
+            return false;
+        }
+        if (journaledStreamId == null) {
+            if (other.journaledStreamId != null) {
+                return false;
+            }
+        } else if (!journaledStreamId.equals(other.journaledStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalReplayStreamId [journaledStreamId=" + journaledStreamId + ", fromOffset=" + fromOffset + "]";
+    }
+
+}
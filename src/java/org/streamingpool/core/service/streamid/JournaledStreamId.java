@@ -0,0 +1,134 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.journal.ElementSerializer;
+import org.streamingpool.core.service.journal.JournalRecord;
+import org.streamingpool.core.service.streamfactory.JournalStreamFactory;
+
+/**
+ * A stream id for a source stream which is persisted in a journal on disk (see
+ * {@link org.streamingpool.core.service.journal.Journal}). As soon as this id is discovered, all the elements of the
+ * source are appended to the journal in the given directory. If the directory already contains a journal (e.g. from
+ * before a restart), the new elements are appended after the existing ones. The resulting stream emits the live
+ * records; the persisted ones can be replayed by a {@link JournalReplayStreamId}.
+ * <p>
+ * Only one journaled stream id (in one pool) may use the same directory at a time.
+ *
+ * @see JournalStreamFactory
+ * @param <T> the type of the source stream
+ */
+public class JournaledStreamId<T> implements StreamId<JournalRecord<T>>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final String directory;
+    private final ElementSerializer<T> serializer;
+
+    private transient int hash;
+
+    private JournaledStreamId(StreamId<T> sourceStreamId, String directory, ElementSerializer<T> serializer) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.directory = requireNonNull(directory, "directory must not be null");
+        this.serializer = requireNonNull(serializer, "serializer must not be null");
+    }
+
+    public static <T> JournaledStreamId<T> journaled(StreamId<T> sourceStreamId, String directory,
+            ElementSerializer<T> serializer) {
+        return new JournaledStreamId<>(sourceStreamId, directory, serializer);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public String directory() {
+        return directory;
+    }
+
+    public ElementSerializer<T> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((directory == null) ? 0 : directory.hashCode());
+            result = prime * result + ((serializer == null) ? 0 : serializer.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        JournaledStreamId<?> other = (JournaledStreamId<?>) obj;
+        if (directory == null) {
+            if (other.directory != null) {
+                return false;
+            }
+        } else if (!directory.equals(other.directory)) {
+            return false;
+        }
+        if (serializer == null) {
+            if (other.serializer != null) {
+                return false;
+            }
+        } else if (!serializer.equals(other.serializer)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "JournaledStreamId [sourceStreamId=" + sourceStreamId + ", directory=" + directory + ", serializer="
+                + serializer + "]";
+    }
+
+}
@@ -0,0 +1,98 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.LastValueCachedStreamFactory;
+
+/**
+ * A stream id for a source stream whose latest value is cached by the pool. A new subscriber of the resulting stream
+ * immediately gets the cached value (if there is one), followed by the live values of the source. This is useful for
+ * sources which emit only rarely, so that a new subscriber does not have to wait for the next emission.
+ *
+ * @see LastValueCachedStreamFactory
+ * @param <T> the type of the source stream
+ */
+public class LastValueCachedStreamId<T> implements StreamId<T>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+
+    private transient int hash;
+
+    private LastValueCachedStreamId(StreamId<T> sourceStreamId) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+    }
+
+    public static <T> LastValueCachedStreamId<T> cachingLastValueOf(StreamId<T> sourceStreamId) {
+        return new LastValueCachedStreamId<>(sourceStreamId);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        LastValueCachedStreamId<?> other = (LastValueCachedStreamId<?>) obj;
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "LastValueCachedStreamId [sourceStreamId=" + sourceStreamId + "]";
+    }
+
+}
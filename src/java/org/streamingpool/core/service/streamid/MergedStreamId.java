@@ -0,0 +1,128 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.MergedStreamFactory;
+
+import com.google.common.collect.ImmutableList;
+
+import io.reactivex.Flowable;
+
+/**
+ * A stream id which merges the values of an arbitrary number of source streams into one stream. The merge respects
+ * backpressure: each source is requested at most {@link #prefetch()} values ahead of the downstream demand (see
+ * {@link Flowable#merge(Iterable, int, int)}).
+ *
+ * @see MergedStreamFactory
+ * @param <T> the type of the source streams and of the resulting stream
+ */
+public class MergedStreamId<T> implements StreamId<T>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<StreamId<T>> sourceStreamIds;
+    private final int prefetch;
+
+    private transient int hash;
+
+    private MergedStreamId(List<StreamId<T>> sourceStreamIds, int prefetch) {
+        requireNonNull(sourceStreamIds, "sourceStreamIds must not be null");
+        if (sourceStreamIds.isEmpty()) {
+            throw new IllegalArgumentException("sourceStreamIds must not be empty");
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be positive, but was " + prefetch);
+        }
+        this.sourceStreamIds = ImmutableList.copyOf(sourceStreamIds);
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Creates a merged stream id which prefetches the default buffer size of RxJava ({@link Flowable#bufferSize()})
+     * from each source.
+     */
+    public static <T> MergedStreamId<T> merge(List<StreamId<T>> sourceStreamIds) {
+        return new MergedStreamId<>(sourceStreamIds, Flowable.bufferSize());
+    }
+
+    public static <T> MergedStreamId<T> merge(List<StreamId<T>> sourceStreamIds, int prefetch) {
+        return new MergedStreamId<>(sourceStreamIds, prefetch);
+    }
+
+    public List<StreamId<T>> sourceStreamIds() {
+        return sourceStreamIds;
+    }
+
+    public int prefetch() {
+        return prefetch;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + prefetch;
+            result = prime * result + ((sourceStreamIds == null) ? 0 : sourceStreamIds.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        MergedStreamId<?> other = (MergedStreamId<?>) obj;
+        if (prefetch != other.prefetch) {
+            return false;
+        }
+        if (sourceStreamIds == null) {
+            if (other.sourceStreamIds != null) {
+                return false;
+            }
+        } else if (!sourceStreamIds.equals(other.sourceStreamIds)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "MergedStreamId [sourceStreamIds=" + sourceStreamIds + ", prefetch=" + prefetch + "]";
+    }
+
+}
@@ -0,0 +1,136 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+import org.streamingpool.core.service.StreamId;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Base class for the stream ids which combine the values of an arbitrary (non-zero) number of source streams of the
+ * same type with a combiner receiving the values as a list (see {@link CombineLatestStreamId} and
+ * {@link ZipStreamId}). Two such ids are equal if they are of the same class and have equal sources and combiners.
+ *
+ * @param <T> the type of the source streams
+ * @param <R> the type of the resulting stream
+ */
+public abstract class NaryStreamId<T, R> implements StreamId<R>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<StreamId<T>> sourceStreamIds;
+    private final Function<List<T>, R> combiner;
+
+    private transient int hash;
+
+    protected NaryStreamId(List<StreamId<T>> sourceStreamIds, Function<List<T>, R> combiner) {
+        requireNonNull(sourceStreamIds, "sourceStreamIds must not be null");
+        if (sourceStreamIds.isEmpty()) {
+            throw new IllegalArgumentException("sourceStreamIds must not be empty");
+        }
+        this.sourceStreamIds = ImmutableList.copyOf(sourceStreamIds);
+        this.combiner = requireNonNull(combiner, "combiner must not be null");
+    }
+
+    /**
+     * Returns the combiner which returns the list of values itself, typed for the given sources.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Function<List<T>, List<T>> toList() {
+        /* Safe, as the function only returns its argument */
+        return (Function<List<T>, List<T>>) (Function<?, ?>) ToList.INSTANCE;
+    }
+
+    public List<StreamId<T>> sourceStreamIds() {
+        return sourceStreamIds;
+    }
+
+    public Function<List<T>, R> combiner() {
+        return combiner;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = getClass().hashCode();
+            result = prime * result + ((combiner == null) ? 0 : combiner.hashCode());
+            result = prime * result + ((sourceStreamIds == null) ? 0 : sourceStreamIds.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        NaryStreamId<?, ?> other = (NaryStreamId<?, ?>) obj;
+        if (combiner == null) {
+            if (other.combiner != null) {
+                return false;
+            }
+        } else if (!combiner.equals(other.combiner)) {
+            return false;
+        }
+        if (sourceStreamIds == null) {
+            if (other.sourceStreamIds != null) {
+                return false;
+            }
+        } else if (!sourceStreamIds.equals(other.sourceStreamIds)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [sourceStreamIds=" + sourceStreamIds + ", combiner=" + combiner + "]";
+    }
+
+    /**
+     * The identity combiner as a serializable singleton, so that the ids using it stay serializable and equal.
+     */
+    private enum ToList implements Function<List<Object>, List<Object>> {
+        INSTANCE;
+
+        @Override
+        public List<Object> apply(List<Object> values) {
+            return values;
+        }
+    }
+
+}
@@ -48,6 +48,8 @@ public class OverlapBufferStreamId<T> implements StreamId<List<T>>, Serializable
     private final BufferSpecification bufferSpecification;
     private final StreamId<T> sourceId;
 
+    private transient int hash;
+
     public static <T> OverlapBufferStreamId<T> of(StreamId<T> sourceId, BufferSpecification bufferSpecification) {
         return new OverlapBufferStreamId<>(sourceId, bufferSpecification);
     }
@@ -67,10 +69,14 @@ public class OverlapBufferStreamId<T> implements StreamId<List<T>>, Serializable
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((bufferSpecification == null) ? 0 : bufferSpecification.hashCode());
-        result = prime * result + ((sourceId == null) ? 0 : sourceId.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((bufferSpecification == null) ? 0 : bufferSpecification.hashCode());
+            result = prime * result + ((sourceId == null) ? 0 : sourceId.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -0,0 +1,145 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.PartitionedStreamFactory;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+
+/**
+ * A stream id which identifies one partition of a source stream: the resulting stream emits all the elements of the
+ * source for which the key function returns the given key. In contrast to one {@link FilteredStreamId} per key, the
+ * source is split only once for all the partitions with the same source and key function, so that each element is
+ * dispatched by one hash lookup instead of being tested against the predicates of all partitions.
+ * <p>
+ * The partitions are only shared if the key functions are equal. Therefore the key function should either be the same
+ * instance for all the partitions or be identified by a key (see {@link #partition(StreamId, String, Function, Object)}
+ * and {@link KeyedFunction}).
+ *
+ * @see PartitionedStreamFactory
+ * @param <T> the type of the source stream (and of the partition)
+ * @param <K> the type of the partition keys
+ */
+public class PartitionedStreamId<T, K> implements StreamId<T>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final Function<T, K> keyFunction;
+    private final K key;
+
+    private transient int hash;
+
+    private PartitionedStreamId(StreamId<T> sourceStreamId, Function<T, K> keyFunction, K key) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.keyFunction = requireNonNull(keyFunction, "keyFunction must not be null");
+        this.key = requireNonNull(key, "key must not be null");
+    }
+
+    public static <T, K> PartitionedStreamId<T, K> partition(StreamId<T> sourceStreamId, Function<T, K> keyFunction,
+            K key) {
+        return new PartitionedStreamId<>(sourceStreamId, keyFunction, key);
+    }
+
+    /**
+     * Creates a partition id whose key function is identified by the given function key. All the partitions with the
+     * same source and the same function key are served by the same split of the source.
+     */
+    public static <T, K> PartitionedStreamId<T, K> partition(StreamId<T> sourceStreamId, String keyFunctionKey,
+            Function<T, K> keyFunction, K key) {
+        return new PartitionedStreamId<>(sourceStreamId, KeyedFunction.keyed(keyFunctionKey, keyFunction), key);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public Function<T, K> keyFunction() {
+        return keyFunction;
+    }
+
+    public K key() {
+        return key;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((key == null) ? 0 : key.hashCode());
+            result = prime * result + ((keyFunction == null) ? 0 : keyFunction.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        PartitionedStreamId<?, ?> other = (PartitionedStreamId<?, ?>) obj;
+        if (key == null) {
+            if (other.key != null) {
+                return false;
+            }
+        } else if (!key.equals(other.key)) {
+            return false;
+        }
+        if (keyFunction == null) {
+            if (other.keyFunction != null) {
+                return false;
+            }
+        } else if (!keyFunction.equals(other.keyFunction)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionedStreamId [sourceStreamId=" + sourceStreamId + ", keyFunction=" + keyFunction + ", key="
+                + key + "]";
+    }
+
+}
@@ -0,0 +1,117 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.HistoryStreamFactory;
+
+/**
+ * A stream id which replays the recorded values of a {@link HistoryStreamId} from a given instant on and then
+ * continues with the live values, without gaps or duplicates between the two. Values which were already discarded
+ * from the history (see {@link HistoryRetention}) are not replayed.
+ * <p>
+ * As every instant results in a separate stream in the pool, these ids are meant for occasional replays (e.g. for
+ * post-mortem analysis), not to be created continuously.
+ *
+ * @see HistoryStreamFactory
+ * @param <T> the type of the recorded stream
+ */
+public class ReplayFromStreamId<T> implements StreamId<Timestamped<T>>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final HistoryStreamId<T> historyStreamId;
+    private final Instant from;
+
+    private transient int hash;
+
+    private ReplayFromStreamId(HistoryStreamId<T> historyStreamId, Instant from) {
+        this.historyStreamId = requireNonNull(historyStreamId, "historyStreamId must not be null");
+        this.from = requireNonNull(from, "from must not be null");
+    }
+
+    public static <T> ReplayFromStreamId<T> replayFrom(HistoryStreamId<T> historyStreamId, Instant from) {
+        return new ReplayFromStreamId<>(historyStreamId, from);
+    }
+
+    public HistoryStreamId<T> historyStreamId() {
+        return historyStreamId;
+    }
+
+    public Instant from() {
+        return from;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((from == null) ? 0 : from.hashCode());
+            result = prime * result + ((historyStreamId == null) ? 0 : historyStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ReplayFromStreamId<?> other = (ReplayFromStreamId<?>) obj;
+        if (from == null) {
+            if (other.from != null) {
+                return false;
+            }
+        } else if (!from.equals(other.from)) {
+            return false;
+        }
+        if (historyStreamId == null) {
+            if (other.historyStreamId != null) {
+                return false;
+            }
+        } else if (!historyStreamId.equals(other.historyStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ReplayFromStreamId [historyStreamId=" + historyStreamId + ", from=" + from + "]";
+    }
+
+}
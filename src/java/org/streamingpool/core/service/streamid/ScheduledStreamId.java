@@ -0,0 +1,116 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.ScheduledStreamFactory;
+
+/**
+ * A stream id which delivers the values of a source stream according to an {@link ExecutionPolicy}. Everything
+ * downstream of the resulting stream (e.g. the conversion of a {@link DerivedStreamId} derived from it) runs on the
+ * threads of the policy, so that e.g. CPU heavy conversions can be moved away from the threads of a device:
+ *
+ * <pre>
+ * derive(scheduledOn(deviceStream, boundedPool("analysis", 4)), heavyConversion)
+ * </pre>
+ *
+ * @see ScheduledStreamFactory
+ * @param <T> the type of the source stream (and of the scheduled stream)
+ */
+public class ScheduledStreamId<T> implements StreamId<T>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final ExecutionPolicy policy;
+
+    private transient int hash;
+
+    private ScheduledStreamId(StreamId<T> sourceStreamId, ExecutionPolicy policy) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.policy = requireNonNull(policy, "policy must not be null");
+    }
+
+    public static <T> ScheduledStreamId<T> scheduledOn(StreamId<T> sourceStreamId, ExecutionPolicy policy) {
+        return new ScheduledStreamId<>(sourceStreamId, policy);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public ExecutionPolicy policy() {
+        return policy;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((policy == null) ? 0 : policy.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        ScheduledStreamId<?> other = (ScheduledStreamId<?>) obj;
+        if (policy == null) {
+            if (other.policy != null) {
+                return false;
+            }
+        } else if (!policy.equals(other.policy)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledStreamId [sourceStreamId=" + sourceStreamId + ", policy=" + policy + "]";
+    }
+
+}
@@ -0,0 +1,216 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Specifies how the elements of a stream are grouped into windows for a {@link WindowedAggregationStreamId}. Windows
+ * can be tumbling (adjacent, not overlapping), sliding (a new window is opened every given number of elements or
+ * every given time shift) or session windows (a window is closed as soon as no element arrived for a given gap).
+ */
+public final class WindowSpecification implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private enum Kind {
+        COUNT,
+        TIME,
+        SESSION
+    }
+
+    private final Kind kind;
+    private final long count;
+    private final long countSkip;
+    private final Duration span;
+    private final Duration shift;
+
+    private WindowSpecification(Kind kind, long count, long countSkip, Duration span, Duration shift) {
+        this.kind = kind;
+        this.count = count;
+        this.countSkip = countSkip;
+        this.span = span;
+        this.shift = shift;
+    }
+
+    public static WindowSpecification tumblingCount(long count) {
+        return slidingCount(count, count);
+    }
+
+    /**
+     * Creates a specification of windows containing the given number of elements, a new window being opened every
+     * skip elements.
+     */
+    public static WindowSpecification slidingCount(long count, long skip) {
+        if (count <= 0 || skip <= 0) {
+            throw new IllegalArgumentException("count and skip must be positive, but were " + count + " and " + skip);
+        }
+        return new WindowSpecification(Kind.COUNT, count, skip, null, null);
+    }
+
+    public static WindowSpecification tumblingTime(Duration span) {
+        return slidingTime(span, span);
+    }
+
+    /**
+     * Creates a specification of windows spanning the given duration, a new window being opened every shift.
+     */
+    public static WindowSpecification slidingTime(Duration span, Duration shift) {
+        requirePositive(span, "span");
+        requirePositive(shift, "shift");
+        return new WindowSpecification(Kind.TIME, 0, 0, span, shift);
+    }
+
+    /**
+     * Creates a specification of windows which are closed as soon as no element arrived for the given gap.
+     */
+    public static WindowSpecification session(Duration gap) {
+        requirePositive(gap, "gap");
+        return new WindowSpecification(Kind.SESSION, 0, 0, gap, null);
+    }
+
+    private static void requirePositive(Duration duration, String name) {
+        requireNonNull(duration, name + " must not be null");
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive, but was " + duration);
+        }
+    }
+
+    /**
+     * Returns true if this specifies count windows of which each element belongs to more than one (i.e. the windows
+     * are opened more often than every {@link #count()} elements).
+     */
+    public boolean isOverlappingCount() {
+        return kind == Kind.COUNT && countSkip < count;
+    }
+
+    /**
+     * Returns the number of elements of count windows, 0 for time and session windows.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of elements after which a new count window is opened, 0 for time and session windows.
+     */
+    public long skip() {
+        return countSkip;
+    }
+
+    /**
+     * Splits the given stream into windows according to this specification, timing time and session windows on the
+     * {@link Schedulers#computation() computation} scheduler.
+     */
+    public <T> Flowable<Flowable<T>> windows(Flowable<T> source) {
+        return windows(source, Schedulers.computation());
+    }
+
+    /**
+     * Splits the given stream into windows according to this specification, timing time and session windows on the
+     * given scheduler.
+     */
+    public <T> Flowable<Flowable<T>> windows(Flowable<T> source, Scheduler scheduler) {
+        requireNonNull(scheduler, "scheduler must not be null");
+        switch (kind) {
+        case COUNT:
+            return source.window(count, countSkip);
+        case TIME:
+            return source.window(span.toNanos(), shift.toNanos(), NANOSECONDS, scheduler);
+        case SESSION:
+            return source.publish(s -> s.window(s.debounce(span.toNanos(), NANOSECONDS, scheduler)));
+        default:
+            throw new IllegalStateException("Unknown window kind " + kind);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (int) (count ^ (count >>> 32));
+        result = prime * result + (int) (countSkip ^ (countSkip >>> 32));
+        result = prime * result + ((kind == null) ? 0 : kind.hashCode());
+        result = prime * result + ((shift == null) ? 0 : shift.hashCode());
+        result = prime * result + ((span == null) ? 0 : span.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        WindowSpecification other = (WindowSpecification) obj;
+        if (count != other.count) {
+            return false;
+        }
+        if (countSkip != other.countSkip) {
+            return false;
+        }
+        if (kind != other.kind) {
+            return false;
+        }
+        if (shift == null) {
+            if (other.shift != null) {
+                return false;
+            }
+        } else if (!shift.equals(other.shift)) {
+            return false;
+        }
+        if (span == null) {
+            if (other.span != null) {
+                return false;
+            }
+        } else if (!span.equals(other.span)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+        case COUNT:
+            return "WindowSpecification [count=" + count + ", skip=" + countSkip + "]";
+        case TIME:
+            return "WindowSpecification [span=" + span + ", shift=" + shift + "]";
+        default:
+            return "WindowSpecification [sessionGap=" + span + "]";
+        }
+    }
+
+}
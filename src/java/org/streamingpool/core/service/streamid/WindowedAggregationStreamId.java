@@ -0,0 +1,134 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.WindowedAggregationStreamFactory;
+import org.streamingpool.core.service.streamid.aggregation.Aggregator;
+import org.streamingpool.core.service.streamid.aggregation.Aggregators;
+
+/**
+ * A stream id which groups the elements of a source stream into windows (see {@link WindowSpecification}) and emits
+ * one aggregated value for each non-empty window. In contrast to buffering the elements (e.g. by an
+ * {@link OverlapBufferStreamId}) and deriving a value from the buffers, the aggregation is computed incrementally while
+ * the elements arrive and the elements are not retained.
+ *
+ * @see WindowedAggregationStreamFactory
+ * @see Aggregators
+ * @param <T> the type of the source stream
+ * @param <R> the type of the aggregated values
+ */
+public class WindowedAggregationStreamId<T, R> implements StreamId<R>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final StreamId<T> sourceStreamId;
+    private final WindowSpecification windowSpecification;
+    private final Aggregator<? super T, R> aggregator;
+
+    private transient int hash;
+
+    private WindowedAggregationStreamId(StreamId<T> sourceStreamId, WindowSpecification windowSpecification,
+            Aggregator<? super T, R> aggregator) {
+        this.sourceStreamId = requireNonNull(sourceStreamId, "sourceStreamId must not be null");
+        this.windowSpecification = requireNonNull(windowSpecification, "windowSpecification must not be null");
+        this.aggregator = requireNonNull(aggregator, "aggregator must not be null");
+    }
+
+    public static <T, R> WindowedAggregationStreamId<T, R> aggregate(StreamId<T> sourceStreamId,
+            WindowSpecification windowSpecification, Aggregator<? super T, R> aggregator) {
+        return new WindowedAggregationStreamId<>(sourceStreamId, windowSpecification, aggregator);
+    }
+
+    public StreamId<T> sourceStreamId() {
+        return sourceStreamId;
+    }
+
+    public WindowSpecification windowSpecification() {
+        return windowSpecification;
+    }
+
+    public Aggregator<? super T, R> aggregator() {
+        return aggregator;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((aggregator == null) ? 0 : aggregator.hashCode());
+            result = prime * result + ((sourceStreamId == null) ? 0 : sourceStreamId.hashCode());
+            result = prime * result + ((windowSpecification == null) ? 0 : windowSpecification.hashCode());
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        WindowedAggregationStreamId<?, ?> other = (WindowedAggregationStreamId<?, ?>) obj;
+        if (aggregator == null) {
+            if (other.aggregator != null) {
+                return false;
+            }
+        } else if (!aggregator.equals(other.aggregator)) {
+            return false;
+        }
+        if (sourceStreamId == null) {
+            if (other.sourceStreamId != null) {
+                return false;
+            }
+        } else if (!sourceStreamId.equals(other.sourceStreamId)) {
+            return false;
+        }
+        if (windowSpecification == null) {
+            if (other.windowSpecification != null) {
+                return false;
+            }
+        } else if (!windowSpecification.equals(other.windowSpecification)) {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowedAggregationStreamId [sourceStreamId=" + sourceStreamId + ", windowSpecification="
+                + windowSpecification + ", aggregator=" + aggregator + "]";
+    }
+
+}
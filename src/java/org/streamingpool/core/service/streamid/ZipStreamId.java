@@ -0,0 +1,73 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.ZipStreamFactory;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+
+/**
+ * A stream id which zips an arbitrary number of source streams: The n-th emission of the resulting stream combines the
+ * n-th values of all the sources (see {@link io.reactivex.Flowable#zip(Iterable, io.reactivex.functions.Function)}).
+ * <p>
+ * The combiner receives the values as a list in the order of the source stream ids. This list is only a view on the
+ * array of values provided by the underlying operator; it is a new one for every emission, so the combiner may keep it.
+ * As for the other function based ids, the combiner is part of the identity of the stream and can be identified by a
+ * key (see {@link KeyedFunction}).
+ *
+ * @see ZipStreamFactory
+ * @param <T> the type of the source streams
+ * @param <R> the type of the resulting stream
+ */
+public class ZipStreamId<T, R> extends NaryStreamId<T, R> {
+    private static final long serialVersionUID = 1L;
+
+    private ZipStreamId(List<StreamId<T>> sourceStreamIds, Function<List<T>, R> combiner) {
+        super(sourceStreamIds, combiner);
+    }
+
+    /**
+     * Creates a stream id which emits the zipped values of all the given sources as a list.
+     */
+    public static <T> ZipStreamId<T, List<T>> zip(List<StreamId<T>> sourceStreamIds) {
+        return new ZipStreamId<>(sourceStreamIds, toList());
+    }
+
+    public static <T, R> ZipStreamId<T, R> zip(List<StreamId<T>> sourceStreamIds,
+            Function<List<T>, R> combiner) {
+        return new ZipStreamId<>(sourceStreamIds, combiner);
+    }
+
+    /**
+     * Creates a stream id whose combiner is identified by the given key. Two such stream ids with the same sources and
+     * the same combiner key are equal and thus result in the same stream.
+     */
+    public static <T, R> ZipStreamId<T, R> zip(List<StreamId<T>> sourceStreamIds, String combinerKey,
+            Function<List<T>, R> combiner) {
+        return new ZipStreamId<>(sourceStreamIds, KeyedFunction.keyed(combinerKey, combiner));
+    }
+
+}
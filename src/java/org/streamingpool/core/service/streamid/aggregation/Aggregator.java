@@ -0,0 +1,61 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.aggregation;
+
+import java.io.Serializable;
+
+import org.streamingpool.core.service.streamid.WindowedAggregationStreamId;
+
+/**
+ * Describes an aggregation of the elements of a window (see {@link WindowedAggregationStreamId}). The aggregation is
+ * computed incrementally: for each window a new {@link Accumulator} is created, which is updated for each element in
+ * constant time and without retaining the elements themselves.
+ * <p>
+ * As aggregators are part of stream ids, implementations should be serializable and have a proper equality.
+ *
+ * @see Aggregators
+ * @param <T> the type of the aggregated elements
+ * @param <R> the type of the aggregation result
+ */
+public interface Aggregator<T, R> extends Serializable {
+
+    Accumulator<T, R> newAccumulator();
+
+    /**
+     * The state of an aggregation of one window. Accumulators are used by one window only and thus do not need to be
+     * thread safe.
+     *
+     * @param <T> the type of the aggregated elements
+     * @param <R> the type of the aggregation result
+     */
+    interface Accumulator<T, R> {
+
+        void add(T element);
+
+        /**
+         * Returns the result of the aggregation. This is only called if at least one element was added.
+         */
+        R result();
+    }
+
+}
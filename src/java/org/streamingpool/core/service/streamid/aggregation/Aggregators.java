@@ -0,0 +1,316 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.aggregation;
+
+import java.util.Arrays;
+
+import org.streamingpool.core.service.streamid.aggregation.Aggregator.Accumulator;
+
+/**
+ * Factory methods for the commonly used {@link Aggregator}s. All of them need constant time per element and constant
+ * memory per window. The {@link #sum()}, {@link #min()} and {@link #max()} aggregators are
+ * {@link AssociativeAggregator}s and can therefore be maintained over overlapping windows without aggregating each
+ * element once per window.
+ */
+public final class Aggregators {
+
+    private Aggregators() {
+        /* Only static methods */
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Aggregator<T, Long> count() {
+        return (Aggregator<T, Long>) (Aggregator<?, ?>) BasicAggregator.COUNT;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Aggregator<Number, Double> sum() {
+        return (Aggregator<Number, Double>) (Aggregator<?, ?>) AssociativeBasicAggregator.SUM;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Aggregator<Number, Double> average() {
+        return (Aggregator<Number, Double>) (Aggregator<?, ?>) BasicAggregator.AVERAGE;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> Aggregator<T, T> min() {
+        return (Aggregator<T, T>) (Aggregator<?, ?>) AssociativeBasicAggregator.MIN;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<? super T>> Aggregator<T, T> max() {
+        return (Aggregator<T, T>) (Aggregator<?, ?>) AssociativeBasicAggregator.MAX;
+    }
+
+    /**
+     * Returns an aggregator estimating the given quantile of the elements of a window, using the P-square algorithm
+     * (Jain and Chlamtac, 1985). The estimation only keeps five markers per window, independent of the window size.
+     * For windows with less than five elements, the exact quantile is returned.
+     *
+     * @param quantile the quantile to estimate, between 0 and 1 (e.g. 0.99 for the 99th percentile)
+     */
+    public static Aggregator<Number, Double> quantile(double quantile) {
+        return new QuantileAggregator(quantile);
+    }
+
+    private enum BasicAggregator implements Aggregator<Object, Object> {
+        COUNT {
+            @Override
+            public Accumulator<Object, Object> newAccumulator() {
+                return new Accumulator<Object, Object>() {
+                    private long count;
+
+                    @Override
+                    public void add(Object element) {
+                        count++;
+                    }
+
+                    @Override
+                    public Object result() {
+                        return count;
+                    }
+                };
+            }
+        },
+        AVERAGE {
+            @Override
+            public Accumulator<Object, Object> newAccumulator() {
+                return new Accumulator<Object, Object>() {
+                    private double sum;
+                    private long count;
+
+                    @Override
+                    public void add(Object element) {
+                        sum += ((Number) element).doubleValue();
+                        count++;
+                    }
+
+                    @Override
+                    public Object result() {
+                        return sum / count;
+                    }
+                };
+            }
+        };
+    }
+
+    private enum AssociativeBasicAggregator implements AssociativeAggregator<Object, Object, Object> {
+        SUM {
+            @Override
+            public Object lift(Object element) {
+                return ((Number) element).doubleValue();
+            }
+
+            @Override
+            public Object combine(Object left, Object right) {
+                return (Double) left + (Double) right;
+            }
+        },
+        MIN {
+            @Override
+            public Object combine(Object left, Object right) {
+                return compare(right, left) < 0 ? right : left;
+            }
+        },
+        MAX {
+            @Override
+            public Object combine(Object left, Object right) {
+                return compare(right, left) > 0 ? right : left;
+            }
+        };
+
+        @Override
+        public Object lift(Object element) {
+            return element;
+        }
+
+        @Override
+        public Object result(Object aggregate) {
+            return aggregate;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static int compare(Object left, Object right) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+    }
+
+    private static final class QuantileAggregator implements Aggregator<Number, Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final double quantile;
+
+        QuantileAggregator(double quantile) {
+            if (!(quantile >= 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("quantile must be between 0 and 1, but was " + quantile);
+            }
+            this.quantile = quantile;
+        }
+
+        @Override
+        public Accumulator<Number, Double> newAccumulator() {
+            return new P2QuantileAccumulator(quantile);
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(quantile);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            QuantileAggregator other = (QuantileAggregator) obj;
+            return Double.doubleToLongBits(quantile) == Double.doubleToLongBits(other.quantile);
+        }
+
+        @Override
+        public String toString() {
+            return "QuantileAggregator [quantile=" + quantile + "]";
+        }
+    }
+
+    /**
+     * Quantile estimation by the P-square algorithm. Five markers are maintained: the minimum, the maximum, the
+     * estimated quantile and two intermediate ones. Their heights are adjusted by a piecewise-parabolic interpolation
+     * whenever their positions drift away from the desired ones.
+     */
+    private static final class P2QuantileAccumulator implements Accumulator<Number, Double> {
+        private static final int MARKERS = 5;
+
+        private final double quantile;
+        private final double[] heights = new double[MARKERS];
+        private final double[] positions = new double[MARKERS];
+        private final double[] desiredPositions = new double[MARKERS];
+        private final double[] increments = new double[MARKERS];
+        private int count;
+
+        P2QuantileAccumulator(double quantile) {
+            this.quantile = quantile;
+        }
+
+        @Override
+        public void add(Number element) {
+            double value = element.doubleValue();
+            if (count < MARKERS) {
+                heights[count++] = value;
+                if (count == MARKERS) {
+                    initializeMarkers();
+                }
+                return;
+            }
+            count++;
+
+            int cell;
+            if (value < heights[0]) {
+                heights[0] = value;
+                cell = 0;
+            } else if (value >= heights[MARKERS - 1]) {
+                heights[MARKERS - 1] = value;
+                cell = MARKERS - 2;
+            } else {
+                cell = 0;
+                while (value >= heights[cell + 1]) {
+                    cell++;
+                }
+            }
+
+            for (int i = cell + 1; i < MARKERS; i++) {
+                positions[i]++;
+            }
+            for (int i = 0; i < MARKERS; i++) {
+                desiredPositions[i] += increments[i];
+            }
+            for (int i = 1; i < MARKERS - 1; i++) {
+                adjustMarker(i);
+            }
+        }
+
+        private void initializeMarkers() {
+            Arrays.sort(heights);
+            for (int i = 0; i < MARKERS; i++) {
+                positions[i] = i;
+            }
+            desiredPositions[0] = 0;
+            desiredPositions[1] = 2 * quantile;
+            desiredPositions[2] = 4 * quantile;
+            desiredPositions[3] = 2 + 2 * quantile;
+            desiredPositions[4] = 4;
+            increments[0] = 0;
+            increments[1] = quantile / 2;
+            increments[2] = quantile;
+            increments[3] = (1 + quantile) / 2;
+            increments[4] = 1;
+        }
+
+        private void adjustMarker(int i) {
+            double drift = desiredPositions[i] - positions[i];
+            boolean mayMoveUp = drift >= 1 && positions[i + 1] - positions[i] > 1;
+            boolean mayMoveDown = drift <= -1 && positions[i - 1] - positions[i] < -1;
+            if (!mayMoveUp && !mayMoveDown) {
+                return;
+            }
+            int step = mayMoveUp ? 1 : -1;
+            double candidate = parabolic(i, step);
+            if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                heights[i] = candidate;
+            } else {
+                heights[i] = linear(i, step);
+            }
+            positions[i] += step;
+        }
+
+        private double parabolic(int i, int step) {
+            return heights[i] + step / (positions[i + 1] - positions[i - 1])
+                    * ((positions[i] - positions[i - 1] + step) * (heights[i + 1] - heights[i])
+                            / (positions[i + 1] - positions[i])
+                            + (positions[i + 1] - positions[i] - step) * (heights[i] - heights[i - 1])
+                                    / (positions[i] - positions[i - 1]));
+        }
+
+        private double linear(int i, int step) {
+            return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+        }
+
+        @Override
+        public Double result() {
+            if (count >= MARKERS) {
+                return heights[2];
+            }
+            double[] sorted = Arrays.copyOf(heights, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+}
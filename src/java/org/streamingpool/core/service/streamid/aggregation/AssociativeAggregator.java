@@ -0,0 +1,67 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.aggregation;
+
+/**
+ * An {@link Aggregator} whose aggregation is an associative combination of partial aggregates (e.g. a sum, a minimum
+ * or a maximum). Such aggregations can also be maintained over sliding windows in amortized constant time per element,
+ * independent of the number of windows an element belongs to, as the partial aggregates of the elements leaving the
+ * window never have to be undone.
+ *
+ * @param <T> the type of the aggregated elements
+ * @param <A> the type of the partial aggregates
+ * @param <R> the type of the aggregation result
+ */
+public interface AssociativeAggregator<T, A, R> extends Aggregator<T, R> {
+
+    /**
+     * Returns the partial aggregate of the single given element.
+     */
+    A lift(T element);
+
+    /**
+     * Combines the partial aggregates of two adjacent sequences of elements, the left one preceding the right one.
+     */
+    A combine(A left, A right);
+
+    R result(A aggregate);
+
+    @Override
+    default Accumulator<T, R> newAccumulator() {
+        return new Accumulator<T, R>() {
+            private A aggregate;
+
+            @Override
+            public void add(T element) {
+                A lifted = lift(element);
+                aggregate = (aggregate == null) ? lifted : combine(aggregate, lifted);
+            }
+
+            @Override
+            public R result() {
+                return AssociativeAggregator.this.result(aggregate);
+            }
+        };
+    }
+
+}
@@ -22,7 +22,6 @@
 package org.streamingpool.core.service.streamid.factory;
 
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -39,14 +38,13 @@ import org.streamingpool.core.service.streamid.CompositionStreamId;
 import org.streamingpool.core.service.streamid.DelayedStreamId;
 import org.streamingpool.core.service.streamid.DerivedStreamId;
 import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.service.streamid.MergedStreamId;
 import org.streamingpool.core.service.streamid.factory.function.DelayCompositionFunction;
 import org.streamingpool.core.service.streamid.factory.function.FilterCompositionFunction;
 import org.streamingpool.core.service.streamid.factory.function.FlatMapCompositionFunction;
 import org.streamingpool.core.service.streamid.factory.function.MapCompositionFunction;
 import org.streamingpool.core.service.streamid.factory.function.ZipCompositionFunction;
 
-import io.reactivex.Flowable;
-
 /**
  * Factory class which provides {@link StreamId}s that identify general purpose {@link org.reactivestreams.Publisher}s
  * based on stream composition. This class is experimental.
@@ -110,17 +108,11 @@ public final class ComposedStreams {
      *            that will be used as the source of the new {@link org.reactivestreams.Publisher}.
      * @return A {@link StreamId}.
      * @throws IllegalArgumentException If the provided list of source stream ids is null or empty.
-     * @see Flowable#merge(Iterable)
+     * @see MergedStreamId
      */
     public static final <X> StreamId<X> mergedStream(final List<StreamId<X>> sourceStreamIds) {
         checkCollectionAndThrow(sourceStreamIds, "sourceStreamIds");
-        return new CompositionStreamId<>(sourceStreamIds, reactiveStreams -> {
-            List<Flowable<X>> observablesToMerge = new ArrayList<>();
-            for (Publisher<X> reactiveStream : reactiveStreams) {
-                observablesToMerge.add(Flowable.fromPublisher(reactiveStream));
-            }
-            return Flowable.merge(observablesToMerge);
-        });
+        return MergedStreamId.merge(sourceStreamIds);
     }
 
     /**
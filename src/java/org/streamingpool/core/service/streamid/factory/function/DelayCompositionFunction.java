@@ -31,22 +31,36 @@ import java.util.function.Function;
 import org.reactivestreams.Publisher;
 
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 
 /**
+ * Delays the items of the first of the composed streams. As the function is part of the id of the composed stream, it
+ * is not affected by the scheduler of the pool (see
+ * {@link org.streamingpool.core.service.impl.LocalPoolBuilder#scheduler(Scheduler)}): it delays on the computation
+ * scheduler, unless it is created with another one.
+ * <p>
  * Created by timartin on 06/10/2016.
  */
 public class DelayCompositionFunction<X> implements Function<List<Publisher<X>>, Publisher<X>> {
 
     private final Duration duration;
+    private final Scheduler scheduler;
 
     public DelayCompositionFunction(Duration duration) {
+        this(duration, Schedulers.computation());
+    }
+
+    public DelayCompositionFunction(Duration duration, Scheduler scheduler) {
         Objects.requireNonNull(duration, "duration");
+        Objects.requireNonNull(scheduler, "scheduler");
         this.duration = duration;
+        this.scheduler = scheduler;
     }
 
     @Override
     public Publisher<X> apply(List<Publisher<X>> reactiveStreams) {
-        return Flowable.fromPublisher(reactiveStreams.get(0)).delay(duration.toMillis(), MILLISECONDS);
+        return Flowable.fromPublisher(reactiveStreams.get(0)).delay(duration.toMillis(), MILLISECONDS, scheduler);
     }
 
     @Override
@@ -58,12 +72,12 @@ public class DelayCompositionFunction<X> implements Function<List<Publisher<X>>,
 
         DelayCompositionFunction<?> that = (DelayCompositionFunction<?>) o;
 
-        return duration.equals(that.duration);
+        return duration.equals(that.duration) && scheduler.equals(that.scheduler);
 
     }
 
     @Override
     public int hashCode() {
-        return duration.hashCode();
+        return 31 * duration.hashCode() + scheduler.hashCode();
     }
 }
@@ -0,0 +1,90 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.function;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.BiFunction;
+
+/**
+ * A {@link BiFunction} which is identified by a stable key. Two keyed bi-functions are equal if (and only if) their
+ * keys are equal.
+ *
+ * @see KeyedFunction
+ * @param <T> the type of the first argument of the function
+ * @param <U> the type of the second argument of the function
+ * @param <R> the type of the result of the function
+ */
+public final class KeyedBiFunction<T, U, R> implements BiFunction<T, U, R> {
+
+    private final String key;
+    private final BiFunction<T, U, R> function;
+
+    private KeyedBiFunction(String key, BiFunction<T, U, R> function) {
+        this.key = requireNonNull(key, "key must not be null");
+        this.function = requireNonNull(function, "function must not be null");
+    }
+
+    public static <T, U, R> KeyedBiFunction<T, U, R> keyed(String key, BiFunction<T, U, R> function) {
+        return new KeyedBiFunction<>(key, function);
+    }
+
+    @Override
+    public R apply(T first, U second) {
+        return function.apply(first, second);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public BiFunction<T, U, R> function() {
+        return function;
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        KeyedBiFunction<?, ?, ?> other = (KeyedBiFunction<?, ?, ?>) obj;
+        return key.equals(other.key);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedBiFunction [key=" + key + "]";
+    }
+
+}
@@ -0,0 +1,98 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.function;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Function;
+
+/**
+ * A {@link Function} which is identified by a stable key. Two keyed functions are equal if (and only if) their keys are
+ * equal, independent of the actual function instances. Stream ids which contain a keyed function (e.g.
+ * {@link org.streamingpool.core.service.streamid.DerivedStreamId}) are therefore equal if they are created with the
+ * same key, even if the function was written as a lambda at different places. This way, equal derivations end up in
+ * only one stream in the pool.
+ * <p>
+ * It is the responsibility of the caller to ensure that the same key is only used for functions with the same
+ * behaviour.
+ * <p>
+ * Keyed functions are not {@link java.io.Serializable}, as the wrapped functions (typically lambdas) are usually not.
+ * Ids containing them are transported by the key of the function instead (see
+ * {@link org.streamingpool.core.service.codec.StreamIdCodecRegistry#registerFunction(KeyedFunction)}).
+ *
+ * @param <S> the type of the input of the function
+ * @param <T> the type of the result of the function
+ */
+public final class KeyedFunction<S, T> implements Function<S, T> {
+
+    private final String key;
+    private final Function<S, T> function;
+
+    private KeyedFunction(String key, Function<S, T> function) {
+        this.key = requireNonNull(key, "key must not be null");
+        this.function = requireNonNull(function, "function must not be null");
+    }
+
+    public static <S, T> KeyedFunction<S, T> keyed(String key, Function<S, T> function) {
+        return new KeyedFunction<>(key, function);
+    }
+
+    @Override
+    public T apply(S input) {
+        return function.apply(input);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Function<S, T> function() {
+        return function;
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        KeyedFunction<?, ?> other = (KeyedFunction<?, ?>) obj;
+        return key.equals(other.key);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedFunction [key=" + key + "]";
+    }
+
+}
@@ -0,0 +1,88 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.function;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link Predicate} which is identified by a stable key. Two keyed predicates are equal if (and only if) their keys
+ * are equal.
+ *
+ * @see KeyedFunction
+ * @param <T> the type of the input of the predicate
+ */
+public final class KeyedPredicate<T> implements Predicate<T> {
+
+    private final String key;
+    private final Predicate<T> predicate;
+
+    private KeyedPredicate(String key, Predicate<T> predicate) {
+        this.key = requireNonNull(key, "key must not be null");
+        this.predicate = requireNonNull(predicate, "predicate must not be null");
+    }
+
+    public static <T> KeyedPredicate<T> keyed(String key, Predicate<T> predicate) {
+        return new KeyedPredicate<>(key, predicate);
+    }
+
+    @Override
+    public boolean test(T input) {
+        return predicate.test(input);
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Predicate<T> predicate() {
+        return predicate;
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        KeyedPredicate<?> other = (KeyedPredicate<?>) obj;
+        return key.equals(other.key);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedPredicate [key=" + key + "]";
+    }
+
+}
@@ -0,0 +1,101 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.util;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import io.reactivex.Scheduler;
+
+/**
+ * A {@link Clock} which tells the time of a {@link Scheduler}, so that components timestamping with a clock (e.g. the
+ * {@link org.streamingpool.core.service.streamfactory.HistoryStreamFactory}) follow the virtual time of an
+ * {@link io.reactivex.schedulers.TestScheduler}.
+ */
+public final class SchedulerClock extends Clock {
+
+    private final Scheduler scheduler;
+    private final ZoneId zone;
+
+    private SchedulerClock(Scheduler scheduler, ZoneId zone) {
+        this.scheduler = requireNonNull(scheduler, "scheduler must not be null");
+        this.zone = requireNonNull(zone, "zone must not be null");
+    }
+
+    /**
+     * Returns a UTC clock telling the time of the given scheduler.
+     */
+    public static SchedulerClock of(Scheduler scheduler) {
+        return new SchedulerClock(scheduler, ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId newZone) {
+        return new SchedulerClock(scheduler, newZone);
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(scheduler.now(MILLISECONDS));
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((scheduler == null) ? 0 : scheduler.hashCode());
+        result = prime * result + ((zone == null) ? 0 : zone.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        SchedulerClock other = (SchedulerClock) obj;
+        return scheduler.equals(other.scheduler) && zone.equals(other.zone);
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerClock [scheduler=" + scheduler + ", zone=" + zone + "]";
+    }
+
+}
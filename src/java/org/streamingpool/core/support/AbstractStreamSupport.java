@@ -22,6 +22,8 @@
 
 package org.streamingpool.core.support;
 
+import static java.util.Objects.requireNonNull;
+
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.streamingpool.core.service.CreatorProvidingService;
@@ -39,6 +41,7 @@ import org.streamingpool.core.service.StreamId;
  * <li>{@link ProvidingService}</li>
  * <li>{@link CreatorProvidingService}</li>
  * </ul>
+ * The services can also be given to the constructor, if no dependency injection is used.
  * 
  * @author kfuchsbe
  */
@@ -51,6 +54,21 @@ public class AbstractStreamSupport implements StreamSupport {
     @Autowired
     private CreatorProvidingService lazyProvidingService;
 
+    public AbstractStreamSupport() {
+        /* The services are injected */
+    }
+
+    /**
+     * Creates a stream support which uses the given services instead of injected ones, e.g. for a pool built by a
+     * {@link org.streamingpool.core.service.impl.LocalPoolBuilder}.
+     */
+    protected AbstractStreamSupport(DiscoveryService discoveryService, ProvidingService providingService,
+            CreatorProvidingService lazyProvidingService) {
+        this.discoveryService = requireNonNull(discoveryService, "discoveryService must not be null");
+        this.providingService = requireNonNull(providingService, "providingService must not be null");
+        this.lazyProvidingService = requireNonNull(lazyProvidingService, "lazyProvidingService must not be null");
+    }
+
     @Override
     public <T> Publisher<T> discover(StreamId<T> id) {
         return discoveryService.discover(id);
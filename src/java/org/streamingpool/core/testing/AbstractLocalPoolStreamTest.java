@@ -0,0 +1,59 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.LocalPoolBuilder;
+import org.streamingpool.core.service.impl.PoolSnapshot;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+import org.streamingpool.core.support.AbstractStreamSupport;
+
+/**
+ * Spring-free alternative to {@link AbstractStreamTest}: all the tests share one {@link LocalPool} with the default
+ * factories, which is {@link LocalPool#rollback(PoolSnapshot) rolled back} to its initial state before each test
+ * method instead of recreating a whole application context. The streams created by the pool during a test are
+ * completed by the rollback. As the pool is shared, the subclasses must not run their test methods in parallel.
+ */
+public abstract class AbstractLocalPoolStreamTest extends AbstractStreamSupport {
+
+    private static final CreatorStreamFactory CREATORS = new CreatorStreamFactory(Collections.emptyList());
+    private static final LocalPool POOL = LocalPoolBuilder.withDefaultFactories().addFactory(CREATORS).build();
+    private static final PoolSnapshot INITIAL_STATE = POOL.snapshot();
+
+    protected AbstractLocalPoolStreamTest() {
+        super(POOL, POOL, CREATORS);
+    }
+
+    @Before
+    public final void resetPool() {
+        POOL.rollback(INITIAL_STATE);
+    }
+
+    protected LocalPool pool() {
+        return POOL;
+    }
+
+}
@@ -0,0 +1,81 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.LocalPoolBuilder;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+import org.streamingpool.core.support.AbstractStreamSupport;
+
+import io.reactivex.schedulers.TestScheduler;
+
+/**
+ * Spring-free base class for tests of time based streams: each test method gets its own {@link LocalPool} with the
+ * default factories, which all run on the virtual time of a {@link TestScheduler}. Instead of waiting for delays and
+ * timeouts, the tests {@link #advanceTimeBy(Duration) advance the time}, which makes them fast and deterministic. Note
+ * that only the timing done by the pool is virtual: provided streams have to use the {@link #testScheduler()} as well,
+ * if they are time based.
+ * 
+ * @see LocalPoolBuilder#scheduler(io.reactivex.Scheduler)
+ */
+public abstract class AbstractVirtualTimeStreamTest extends AbstractStreamSupport {
+
+    private final TestScheduler testScheduler;
+    private final LocalPool pool;
+
+    protected AbstractVirtualTimeStreamTest() {
+        this(new TestScheduler(), new CreatorStreamFactory(Collections.emptyList()));
+    }
+
+    private AbstractVirtualTimeStreamTest(TestScheduler testScheduler, CreatorStreamFactory creators) {
+        this(testScheduler, creators,
+                LocalPoolBuilder.withDefaultFactories().scheduler(testScheduler).addFactory(creators).build());
+    }
+
+    private AbstractVirtualTimeStreamTest(TestScheduler testScheduler, CreatorStreamFactory creators, LocalPool pool) {
+        super(pool, pool, creators);
+        this.testScheduler = testScheduler;
+        this.pool = pool;
+    }
+
+    /**
+     * Moves the virtual time forward, triggering all the actions scheduled up to the new time on the calling thread.
+     */
+    protected void advanceTimeBy(Duration duration) {
+        testScheduler.advanceTimeBy(duration.toNanos(), NANOSECONDS);
+    }
+
+    protected TestScheduler testScheduler() {
+        return testScheduler;
+    }
+
+    protected LocalPool pool() {
+        return pool;
+    }
+
+}
@@ -25,6 +25,10 @@ package org.streamingpool.core.testing;
 import java.io.Serializable;
 
 import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.codec.StreamIdCodec;
+import org.streamingpool.core.service.codec.StreamIdCodecRegistry;
+import org.streamingpool.core.service.codec.StreamIdInput;
+import org.streamingpool.core.service.codec.StreamIdOutput;
 
 public class NamedStreamId<T> implements StreamId<T>, Serializable {
     private static final long serialVersionUID = 1L;
@@ -39,6 +43,28 @@ public class NamedStreamId<T> implements StreamId<T>, Serializable {
         return new NamedStreamId<>(name);
     }
 
+    public String name() {
+        return id;
+    }
+
+    /**
+     * Returns a codec for named ids. As these are not production ids, it is not part of the built-in codecs, but can be
+     * registered with a custom tag (see {@link StreamIdCodecRegistry#register(int, Class, StreamIdCodec)}).
+     */
+    public static StreamIdCodec<NamedStreamId<?>> codec() {
+        return new StreamIdCodec<NamedStreamId<?>>() {
+            @Override
+            public void encode(NamedStreamId<?> namedId, StreamIdOutput out) {
+                out.writeString(namedId.name());
+            }
+
+            @Override
+            public NamedStreamId<?> decode(StreamIdInput in) {
+                return ofName(in.readString());
+            }
+        };
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,185 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing.load;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.LatencyHistogram;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.LocalPoolBuilder;
+import org.streamingpool.core.service.streamid.CombineLatestStreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.service.streamid.WindowSpecification;
+import org.streamingpool.core.service.streamid.WindowedAggregationStreamId;
+import org.streamingpool.core.service.streamid.aggregation.Aggregators;
+import org.streamingpool.core.testing.NamedStreamId;
+import org.streamingpool.core.testing.util.UncheckedWaits;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.CompositeDisposable;
+
+/**
+ * Runs the synthetic topology of a {@link TopologySpec} in a pool and measures it. The sources emit the
+ * {@link System#nanoTime()} of their emission, which all the derived streams keep (a combination or a buffer keeps
+ * the newest one), so that each subscriber can record the end-to-end latency of every received value. Sources which
+ * can not keep up with the subscribers drop values instead of buffering them.
+ * <p>
+ * The derived streams are identified by keys, so that equal chains share their streams in the pool, as they would in
+ * a real application.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * LoadReport report = LoadHarness.run(TopologySpec.builder().sources(10).ratePerSource(5000).maxDepth(4)
+ *         .subscribers(100).duration(Duration.ofSeconds(30)).build());
+ * </pre>
+ */
+public final class LoadHarness {
+
+    private static final String SOURCE_NAME_PREFIX = "load-source-";
+    private static final WindowSpecification BUFFER_WINDOW = WindowSpecification.tumblingCount(4);
+
+    private LoadHarness() {
+        /* Only static methods */
+    }
+
+    /**
+     * Runs the given topology in a new pool with the default factories.
+     */
+    public static LoadReport run(TopologySpec spec) {
+        return run(spec, LocalPoolBuilder.withDefaultFactories().build());
+    }
+
+    /**
+     * Runs the given topology in the given pool, which must contain the default factories and none of the source ids of
+     * the harness. The streams stay in the pool after the run.
+     */
+    public static LoadReport run(TopologySpec spec, LocalPool pool) {
+        requireNonNull(spec, "spec must not be null");
+        requireNonNull(pool, "pool must not be null");
+
+        List<StreamId<Long>> sources = provideSources(spec, pool);
+        List<StreamId<Long>> subscribedIds = randomChains(spec, sources);
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder received = new LongAdder();
+        LongAdder errors = new LongAdder();
+        CompositeDisposable subscriptions = new CompositeDisposable();
+        for (StreamId<Long> id : subscribedIds) {
+            subscriptions.add(Flowable.fromPublisher(pool.discover(id)).subscribe(emission -> {
+                latencies.record(System.nanoTime() - emission);
+                received.increment();
+            }, error -> errors.increment()));
+        }
+        int poolEntries = pool.streamIds().size();
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        UncheckedWaits.waitFor(spec.duration().toNanos(), NANOSECONDS);
+        subscriptions.dispose();
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : Math.max(0, allocatedAfter - allocatedBefore);
+        return new LoadReport(spec, Duration.ofNanos(elapsed), received.sum(), errors.sum(), poolEntries, allocated,
+                latencies);
+    }
+
+    private static List<StreamId<Long>> provideSources(TopologySpec spec, LocalPool pool) {
+        long periodNanos = Math.max(1, (long) (1e9 / spec.ratePerSource()));
+        List<StreamId<Long>> sources = new ArrayList<>(spec.sourceCount());
+        for (int i = 0; i < spec.sourceCount(); i++) {
+            StreamId<Long> id = NamedStreamId.ofName(SOURCE_NAME_PREFIX + i);
+            pool.provide(id, Flowable.interval(periodNanos, NANOSECONDS).map(tick -> System.nanoTime())
+                    .onBackpressureDrop().share());
+            sources.add(id);
+        }
+        return sources;
+    }
+
+    /**
+     * Returns the ids to subscribe to, one per subscriber. Streams created for previous subscribers are reused as
+     * inputs of the combinations, so that the resulting graph is not only a set of independent chains.
+     */
+    static List<StreamId<Long>> randomChains(TopologySpec spec, List<StreamId<Long>> sources) {
+        Random random = new Random(spec.seed());
+        List<StreamId<Long>> nodes = new ArrayList<>(sources);
+        List<StreamId<Long>> subscribedIds = new ArrayList<>(spec.subscriberCount());
+        for (int i = 0; i < spec.subscriberCount(); i++) {
+            StreamId<Long> id = sources.get(random.nextInt(sources.size()));
+            int depth = random.nextInt(spec.maxDepth() + 1);
+            for (int level = 0; level < depth; level++) {
+                id = randomOperation(random, id, nodes);
+                nodes.add(id);
+            }
+            subscribedIds.add(id);
+        }
+        return subscribedIds;
+    }
+
+    private static StreamId<Long> randomOperation(Random random, StreamId<Long> id, List<StreamId<Long>> nodes) {
+        switch (random.nextInt(4)) {
+        case 0:
+            return DerivedStreamId.derive(id, "load-derive-identity", emission -> emission);
+        case 1:
+            return FilteredStreamId.filterBy(id, "load-filter-even", emission -> (emission & 1) == 0);
+        case 2:
+            StreamId<Long> other = nodes.get(random.nextInt(nodes.size()));
+            return CombineLatestStreamId.combineLatest(Arrays.asList(id, other), "load-combine-newest",
+                    emissions -> emissions.stream().mapToLong(Long::longValue).max().getAsLong());
+        default:
+            return WindowedAggregationStreamId.aggregate(id, BUFFER_WINDOW, Aggregators.<Long> max());
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : allocations.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+}
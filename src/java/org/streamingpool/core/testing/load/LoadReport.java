@@ -0,0 +1,132 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing.load;
+
+import java.time.Duration;
+
+import org.streamingpool.core.service.diagnostic.LatencyHistogram;
+
+/**
+ * The result of a run of the {@link LoadHarness}. The latencies are measured from the emission of a source value to
+ * its reception by a subscriber (for combined or buffered values, from the emission of the newest source value in
+ * them).
+ */
+public final class LoadReport {
+
+    private final TopologySpec spec;
+    private final Duration elapsed;
+    private final long receivedCount;
+    private final long errorCount;
+    private final int poolEntries;
+    private final long allocatedBytes;
+    private final LatencyHistogram latencies;
+
+    LoadReport(TopologySpec spec, Duration elapsed, long receivedCount, long errorCount, int poolEntries,
+            long allocatedBytes, LatencyHistogram latencies) {
+        this.spec = spec;
+        this.elapsed = elapsed;
+        this.receivedCount = receivedCount;
+        this.errorCount = errorCount;
+        this.poolEntries = poolEntries;
+        this.allocatedBytes = allocatedBytes;
+        this.latencies = latencies;
+    }
+
+    public TopologySpec spec() {
+        return spec;
+    }
+
+    /**
+     * Returns the measured duration of the run.
+     */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of values received by all the subscribers together.
+     */
+    public long receivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * Returns the number of subscribers which terminated with an error.
+     */
+    public long errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the values received by all the subscribers together per second.
+     */
+    public double throughput() {
+        return receivedCount / (elapsed.toNanos() / 1e9);
+    }
+
+    /**
+     * Returns the number of streams (including the error streams and the hooks) in the pool during the run.
+     */
+    public int poolEntries() {
+        return poolEntries;
+    }
+
+    /**
+     * Returns the bytes allocated by the live threads during the run, or -1 if the JVM does not support this
+     * measurement. Allocations of threads which terminated during the run are not included.
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the allocated bytes per second, or -1 if the JVM does not support this measurement.
+     */
+    public double allocationRate() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        return allocatedBytes / (elapsed.toNanos() / 1e9);
+    }
+
+    /**
+     * Returns the end-to-end latency below or at which the given percentage of the received values are.
+     */
+    public Duration latencyAtPercentile(double percentile) {
+        return Duration.ofNanos(latencies.valueAtPercentile(percentile));
+    }
+
+    public Duration maxLatency() {
+        return Duration.ofNanos(latencies.maxValue());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "LoadReport [elapsed=%s, received=%d, errors=%d, throughput=%.1f/s, latency p50=%s p99=%s p99.9=%s"
+                        + " max=%s, poolEntries=%d, allocationRate=%.0fB/s, spec=%s]",
+                elapsed, receivedCount, errorCount, throughput(), latencyAtPercentile(50), latencyAtPercentile(99),
+                latencyAtPercentile(99.9), maxLatency(), poolEntries, allocationRate(), spec);
+    }
+
+}
@@ -0,0 +1,162 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing.load;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+/**
+ * Describes a synthetic pool topology to be run by the {@link LoadHarness}: a number of sources emitting at a given
+ * rate, a number of subscribers, each one subscribed at the end of a random chain of derived streams (derive, filter,
+ * combine with another stream or buffer) of at most the given depth. The random choices are reproducible for a given
+ * seed.
+ */
+public final class TopologySpec {
+
+    private final int sourceCount;
+    private final double ratePerSource;
+    private final int maxDepth;
+    private final int subscriberCount;
+    private final Duration duration;
+    private final long seed;
+
+    private TopologySpec(Builder builder) {
+        this.sourceCount = builder.sourceCount;
+        this.ratePerSource = builder.ratePerSource;
+        this.maxDepth = builder.maxDepth;
+        this.subscriberCount = builder.subscriberCount;
+        this.duration = builder.duration;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int sourceCount() {
+        return sourceCount;
+    }
+
+    /**
+     * Returns the number of values emitted per second by each source.
+     */
+    public double ratePerSource() {
+        return ratePerSource;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount;
+    }
+
+    /**
+     * Returns how long the topology is run, once all the subscribers are subscribed.
+     */
+    public Duration duration() {
+        return duration;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "TopologySpec [sourceCount=" + sourceCount + ", ratePerSource=" + ratePerSource + ", maxDepth="
+                + maxDepth + ", subscriberCount=" + subscriberCount + ", duration=" + duration + ", seed=" + seed
+                + "]";
+    }
+
+    /**
+     * Builder for {@link TopologySpec}. By default, one source emitting 1000 values per second is subscribed once
+     * through a chain of at most 3 derived streams, for one second.
+     */
+    public static final class Builder {
+        private int sourceCount = 1;
+        private double ratePerSource = 1000;
+        private int maxDepth = 3;
+        private int subscriberCount = 1;
+        private Duration duration = Duration.ofSeconds(1);
+        private long seed;
+
+        private Builder() {
+            /* Use TopologySpec.builder() */
+        }
+
+        public Builder sources(int count) {
+            this.sourceCount = requirePositive(count, "source count");
+            return this;
+        }
+
+        public Builder ratePerSource(double valuesPerSecond) {
+            if (!(valuesPerSecond > 0) || Double.isInfinite(valuesPerSecond)) {
+                throw new IllegalArgumentException("rate must be positive and finite, but was " + valuesPerSecond);
+            }
+            this.ratePerSource = valuesPerSecond;
+            return this;
+        }
+
+        public Builder maxDepth(int depth) {
+            if (depth < 0) {
+                throw new IllegalArgumentException("depth must not be negative, but was " + depth);
+            }
+            this.maxDepth = depth;
+            return this;
+        }
+
+        public Builder subscribers(int count) {
+            this.subscriberCount = requirePositive(count, "subscriber count");
+            return this;
+        }
+
+        public Builder duration(Duration newDuration) {
+            requireNonNull(newDuration, "duration must not be null");
+            if (newDuration.isNegative() || newDuration.isZero()) {
+                throw new IllegalArgumentException("duration must be positive, but was " + newDuration);
+            }
+            this.duration = newDuration;
+            return this;
+        }
+
+        public Builder seed(long newSeed) {
+            this.seed = newSeed;
+            return this;
+        }
+
+        public TopologySpec build() {
+            return new TopologySpec(this);
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " must be positive, but was " + value);
+            }
+            return value;
+        }
+    }
+
+}
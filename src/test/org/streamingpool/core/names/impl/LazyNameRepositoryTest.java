@@ -0,0 +1,114 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.impl;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.streamingpool.core.names.ConstantsContainer;
+import org.streamingpool.core.names.NameRepositories;
+
+public class LazyNameRepositoryTest {
+
+    @Test
+    public void namesOfTheInitialContainersAreFound() {
+        LazyNameRepository repository = new LazyNameRepository(singletonList(new FirstConstants()));
+
+        assertThat(repository.nameFor(FirstConstants.A)).isEqualTo("A");
+        assertThat(repository.nameFor(FirstConstants.B)).isEqualTo("B");
+        assertThat(repository.nameFor("unknown")).isNull();
+    }
+
+    @Test
+    public void nonConstantFieldsAreIgnored() {
+        LazyNameRepository repository = new LazyNameRepository(singletonList(new FirstConstants()));
+
+        assertThat(repository.nameFor(FirstConstants.notConstant)).isNull();
+        assertThat(repository.content()).hasSize(2);
+    }
+
+    @Test
+    public void containersCanBeAddedAfterTheFirstLookup() {
+        LazyNameRepository repository = new LazyNameRepository(Collections.emptyList());
+        assertThat(repository.nameFor(SecondConstants.C)).isNull();
+
+        repository.addContainer(new SecondConstants());
+
+        assertThat(repository.nameFor(SecondConstants.C)).isEqualTo("C");
+    }
+
+    @Test
+    public void sameContainerClassIsIndexedOnce() {
+        LazyNameRepository repository = new LazyNameRepository(asList(new FirstConstants(), new FirstConstants()));
+
+        assertThat(repository.nameFor(FirstConstants.A)).isEqualTo("A");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void conflictingNamesAreReportedOnLookup() {
+        LazyNameRepository repository = new LazyNameRepository(
+                asList(new FirstConstants(), new ConflictingConstants()));
+
+        repository.nameFor(FirstConstants.A);
+    }
+
+    @Test
+    public void conflictsAreReportedByAllTheLaterLookups() {
+        LazyNameRepository repository = new LazyNameRepository(
+                asList(new FirstConstants(), new ConflictingConstants(), new SecondConstants()));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> repository.nameFor(FirstConstants.A)).isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("ALSO_A");
+        }
+        assertThatThrownBy(repository::content).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void lazyRepositoryHasTheSameContentAsTheEagerOne() {
+        assertThat(NameRepositories.newLazyFromConstantContainers(asList(new FirstConstants(), new SecondConstants()))
+                .content()).isEqualTo(
+                        NameRepositories.newFromConstantContainers(asList(new FirstConstants(), new SecondConstants()))
+                                .content());
+    }
+
+    public static final class FirstConstants implements ConstantsContainer {
+        public static final Object A = new Object();
+        public static final Object B = new Object();
+        public static Object notConstant = new Object();
+    }
+
+    public static final class SecondConstants implements ConstantsContainer {
+        public static final Object C = new Object();
+    }
+
+    public static final class ConflictingConstants implements ConstantsContainer {
+        public static final Object ALSO_A = FirstConstants.A;
+    }
+
+}
@@ -0,0 +1,171 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.streamingpool.core.names.ConstantsContainer;
+import org.streamingpool.core.names.NameIndex;
+import org.streamingpool.core.names.NameIndices;
+import org.streamingpool.core.names.NameRepositories;
+
+/**
+ * Compiles containers with the {@link NameIndexProcessor} and checks the generated indices.
+ */
+public class NameIndexProcessorTest {
+
+    private static final String CONSTANTS_SOURCE = String.join("\n", //
+            "package test.constants;", //
+            "import org.streamingpool.core.names.ConstantsContainer;", //
+            "import org.streamingpool.core.names.GenerateNameIndex;", //
+            "@GenerateNameIndex", //
+            "public class TestConstants extends BaseConstants implements ConstantsContainer {", //
+            "    public static final String A = \"a\";", //
+            "    public static final Object B = new Object();", //
+            "    static final String NOT_PUBLIC = \"x\";", //
+            "    public static String notFinal = \"y\";", //
+            "    public final String notStatic = \"z\";", //
+            "}", //
+            "class BaseConstants {", //
+            "    public static final String INHERITED = \"inherited\";", //
+            "}");
+
+    private static final String NOT_A_CONTAINER_SOURCE = String.join("\n", //
+            "package test.constants;", //
+            "@org.streamingpool.core.names.GenerateNameIndex", //
+            "public class NotAContainer {", //
+            "}");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JavaCompiler compiler;
+
+    @Before
+    public void setUp() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(compiler);
+    }
+
+    @Test
+    public void generatedIndexContainsThePublicConstants() throws Exception {
+        Path classes = compileSuccessfully("TestConstants", CONSTANTS_SOURCE);
+
+        try (URLClassLoader loader = loaderOf(classes)) {
+            Class<? extends ConstantsContainer> containerClass = loader.loadClass("test.constants.TestConstants")
+                    .asSubclass(ConstantsContainer.class);
+            Optional<NameIndex> index = NameIndices.forContainer(containerClass);
+
+            assertThat(index).isPresent();
+            Map<Object, String> names = index.get().names();
+            assertThat(names).hasSize(3);
+            assertThat(names.get("a")).isEqualTo("A");
+            assertThat(names.get("inherited")).isEqualTo("INHERITED");
+            assertThat(names.get(containerClass.getField("B").get(null))).isEqualTo("B");
+        }
+    }
+
+    @Test
+    public void generatedIndexIsUsedByTheNameRepositories() throws Exception {
+        Path classes = compileSuccessfully("TestConstants", CONSTANTS_SOURCE);
+
+        try (URLClassLoader loader = loaderOf(classes)) {
+            ConstantsContainer container = (ConstantsContainer) loader.loadClass("test.constants.TestConstants")
+                    .newInstance();
+
+            assertThat(NameRepositories.constantNamesOf(container))
+                    .isEqualTo(NameIndices.forContainer(container.getClass()).get().names());
+        }
+    }
+
+    @Test
+    public void generatedServiceFileListsTheIndex() throws Exception {
+        Path classes = compileSuccessfully("TestConstants", CONSTANTS_SOURCE);
+
+        List<String> services = Files
+                .readAllLines(classes.resolve("META-INF/services/" + NameIndex.class.getName()), UTF_8);
+
+        assertThat(services).containsExactly("test.constants.TestConstants_NameIndex");
+    }
+
+    @Test
+    public void annotatedClassesMustBeContainers() throws Exception {
+        StringWriter diagnostics = new StringWriter();
+
+        compile("NotAContainer", NOT_A_CONTAINER_SOURCE, diagnostics);
+
+        assertThat(diagnostics.toString()).contains("must implement " + ConstantsContainer.class.getName());
+    }
+
+    private Path compileSuccessfully(String className, String source) throws IOException {
+        StringWriter diagnostics = new StringWriter();
+        Path classes = compile(className, source, diagnostics);
+        assertThat(diagnostics.toString()).isEmpty();
+        return classes;
+    }
+
+    private Path compile(String className, String source, StringWriter diagnostics) throws IOException {
+        Path sources = folder.newFolder("sources").toPath();
+        Path classes = folder.newFolder("classes").toPath();
+        Path sourceFile = sources.resolve(className + ".java");
+        Files.write(sourceFile, source.getBytes(UTF_8));
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile.toFile());
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d",
+                    classes.toString(), "-processor", NameIndexProcessor.class.getName());
+            compiler.getTask(diagnostics, fileManager, null, options, null, units).call();
+        }
+        return classes;
+    }
+
+    private static URLClassLoader loaderOf(Path classes) throws IOException {
+        File directory = classes.toFile();
+        return new URLClassLoader(new URL[] { directory.toURI().toURL() },
+                NameIndexProcessorTest.class.getClassLoader());
+    }
+
+}
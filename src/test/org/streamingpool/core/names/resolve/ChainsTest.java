@@ -22,6 +22,8 @@
 
 package org.streamingpool.core.names.resolve;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.function.Function;
 
 import org.junit.Rule;
@@ -40,4 +42,70 @@ public class ChainsTest {
         Chains.<String> chain().or((Function<Object, String>) null);
     }
 
+    @Test
+    public void branchCasesAreTriedInTheOrderTheyWereAdded() {
+        Function<Object, String> chain = Chains.<String> chain()
+                .branchCase(Number.class, n -> "number").orElseNull()
+                .branchCase(Integer.class, i -> "integer").orElseNull()
+                .orElseNull();
+
+        assertThat(chain.apply(1)).isEqualTo("number");
+        assertThat(chain.apply(1L)).isEqualTo("number");
+        assertThat(chain.apply("a")).isNull();
+    }
+
+    @Test
+    public void branchCasesFallThroughWhenReturningNull() {
+        Function<Object, String> chain = Chains.<String> chain()
+                .branchCase(Integer.class, i -> i > 0 ? null : "non-positive").orElseNull()
+                .branchCase(Number.class, n -> "number").orElseNull()
+                .or(Names::fromSimpleClassName)
+                .orElseNull();
+
+        assertThat(chain.apply(-1)).isEqualTo("non-positive");
+        assertThat(chain.apply(1)).isEqualTo("number");
+        assertThat(chain.apply("a")).isEqualTo("String");
+    }
+
+    @Test
+    public void branchCasesMatchInterfacesAndSuperclasses() {
+        Function<Object, String> chain = Chains.<String> chain()
+                .branchCase(CharSequence.class, c -> "chars:" + c).orElseNull()
+                .branchCase(Object.class, o -> "object").orElseNull()
+                .orElseNull();
+
+        assertThat(chain.apply("a")).isEqualTo("chars:a");
+        assertThat(chain.apply(new StringBuilder("b"))).isEqualTo("chars:b");
+        assertThat(chain.apply(1)).isEqualTo("object");
+    }
+
+    @Test
+    public void branchCasesAfterOtherMappersKeepTheirOrder() {
+        Function<Object, String> chain = Chains.<String> chain()
+                .or(o -> "a".equals(o) ? "first" : null)
+                .branchCase(String.class, s -> "string").orElseNull()
+                .orElseNull();
+
+        assertThat(chain.apply("a")).isEqualTo("first");
+        assertThat(chain.apply("b")).isEqualTo("string");
+    }
+
+    @Test
+    public void branchCasesCanUseTheCallback() {
+        Function<Object, String> chain = Chains.<String> chain()
+                .branchCase(Wrapper.class, (w, callback) -> "wrapped(" + callback.apply(w.wrapped) + ")").orElseNull()
+                .branchCase(String.class, s -> s).orElseNull()
+                .orElseNull();
+
+        assertThat(chain.apply(new Wrapper(new Wrapper("x")))).isEqualTo("wrapped(wrapped(x))");
+    }
+
+    private static final class Wrapper {
+        private final Object wrapped;
+
+        Wrapper(Object wrapped) {
+            this.wrapped = wrapped;
+        }
+    }
+
 }
@@ -0,0 +1,114 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.names.resolve;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.testing.NamedStreamId;
+
+public class MemoizingFunctionTest {
+
+    private final AtomicInteger evaluations = new AtomicInteger();
+    private final Function<Object, String> chain = Chains.<String> chain().or(this::countingName)
+            .or(Names::fromSimpleClassName).orElseNull();
+
+    @Test
+    public void sameInputIsResolvedOnlyOnce() {
+        MemoizingFunction<String> memoized = MemoizingFunction.memoize(chain).build();
+
+        assertThat(memoized.apply("a")).isEqualTo("name-a");
+        assertThat(memoized.apply("a")).isEqualTo("name-a");
+
+        assertThat(evaluations.get()).isEqualTo(1);
+        assertThat(memoized.stats().hitCount()).isEqualTo(1);
+        assertThat(memoized.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void nullResultsAreCached() {
+        MemoizingFunction<String> memoized = MemoizingFunction.memoize(o -> {
+            evaluations.incrementAndGet();
+            return (String) null;
+        }).build();
+
+        assertThat(memoized.apply("a")).isNull();
+        assertThat(memoized.apply("a")).isNull();
+
+        assertThat(evaluations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void capacityIsBounded() {
+        MemoizingFunction<String> memoized = MemoizingFunction.memoize(chain).maximumSize(2).build();
+
+        for (int i = 0; i < 10; i++) {
+            memoized.apply("id-" + i);
+        }
+
+        assertThat(memoized.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void weakKeysCompareByIdentity() {
+        MemoizingFunction<String> memoized = MemoizingFunction.memoize(chain).weakKeys().build();
+        String first = new String("a");
+        String second = new String("a");
+
+        memoized.apply(first);
+        memoized.apply(second);
+
+        assertThat(evaluations.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void canonicalizedWeakKeysShareTheResultsOfEqualInputs() {
+        LocalPool pool = new LocalPool();
+        MemoizingFunction<String> memoized = MemoizingFunction.memoize(chain)
+                .weakKeys(input -> input instanceof StreamId ? pool.intern((StreamId<?>) input) : input).build();
+
+        StreamId<Integer> first = pool.intern(NamedStreamId.ofName("a"));
+        memoized.apply(first);
+        memoized.apply(NamedStreamId.ofName("a"));
+
+        assertThat(evaluations.get()).isEqualTo(1);
+        assertThat(memoized.stats().hitCount()).isEqualTo(1);
+        assertThat(memoized.apply(first)).isEqualTo(memoized.apply(NamedStreamId.ofName("a")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exceptionsOfTheDelegateArePropagated() {
+        MemoizingFunction.memoize(Chains.<String> chain().or(o -> null).orElseThrow()).build().apply("a");
+    }
+
+    private String countingName(Object object) {
+        evaluations.incrementAndGet();
+        return object instanceof String ? "name-" + object : null;
+    }
+
+}
@@ -53,6 +53,84 @@ public class NamesTest {
         assertThat(name).isEqualTo("EmptyTestClass");
     }
 
+    @Test
+    public void nameIsResolvedFromTheNameMethod() {
+        assertThat(Names.fromNameMethod(new NameTestClass("first"))).isEqualTo("first");
+        assertThat(Names.fromNameMethod(new NameTestClass("second"))).isEqualTo("second");
+    }
+
+    @Test
+    public void nameIsResolvedFromTheGetNameMethod() {
+        assertThat(Names.fromGetNameMethod(new GetNameTestClass())).isEqualTo("fromGetName");
+        assertThat(Names.fromNameMethod(new GetNameTestClass())).isNull();
+    }
+
+    @Test
+    public void nameMethodsNotReturningStringsAreIgnored() {
+        assertThat(Names.fromNameMethod(new NonStringNameTestClass())).isNull();
+    }
+
+    @Test
+    public void failingNameMethodsResolveToNull() {
+        assertThat(Names.fromNameMethod(new FailingNameTestClass())).isNull();
+    }
+
+    @Test
+    public void enumNamesAreResolved() {
+        assertThat(Names.fromNameMethod(TestEnum.CONSTANT)).isEqualTo("CONSTANT");
+    }
+
+    @Test
+    public void classesWithoutNameMethodsResolveToNullRepeatedly() {
+        assertThat(Names.fromNameMethod(new EmptyTestClass())).isNull();
+        assertThat(Names.fromNameMethod(new EmptyTestClass())).isNull();
+        assertThat(Names.fromGetNameMethod(new EmptyTestClass())).isNull();
+    }
+
+    @Test
+    public void overriddenToStringIsUsed() {
+        assertThat(Names.fromOverriddenToString(new NameTestClass("any"))).isEqualTo("NameTestClass");
+    }
+
+    public static final class NameTestClass {
+        private final String name;
+
+        NameTestClass(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "NameTestClass";
+        }
+    }
+
+    public static final class GetNameTestClass {
+        public String getName() {
+            return "fromGetName";
+        }
+    }
+
+    public static final class NonStringNameTestClass {
+        public int name() {
+            return 1;
+        }
+    }
+
+    public static final class FailingNameTestClass {
+        public String name() {
+            throw new IllegalStateException("no name");
+        }
+    }
+
+    private enum TestEnum {
+        CONSTANT
+    }
+
     private static final class EmptyTestClass {
         /* empty on purpose */
     }
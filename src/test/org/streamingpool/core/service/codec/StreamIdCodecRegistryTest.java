@@ -0,0 +1,252 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.codec;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.journal.ElementSerializer;
+import org.streamingpool.core.service.journal.ElementSerializers;
+import org.streamingpool.core.service.streamid.CombineWithLatestStreamId;
+import org.streamingpool.core.service.streamid.DelayedStreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.HistoryRetention;
+import org.streamingpool.core.service.streamid.HistoryStreamId;
+import org.streamingpool.core.service.streamid.JournalReplayStreamId;
+import org.streamingpool.core.service.streamid.JournaledStreamId;
+import org.streamingpool.core.service.streamid.MergedStreamId;
+import org.streamingpool.core.service.streamid.PartitionedStreamId;
+import org.streamingpool.core.service.streamid.ReplayFromStreamId;
+import org.streamingpool.core.service.streamid.ZipStreamId;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+import org.streamingpool.core.testing.NamedStreamId;
+
+/**
+ * Unit tests for {@link StreamIdCodecRegistry}
+ */
+public class StreamIdCodecRegistryTest {
+
+    private static final StreamId<Integer> SOURCE_A = NamedStreamId.ofName("a");
+    private static final StreamId<Integer> SOURCE_B = NamedStreamId.ofName("b");
+    private static final int NAMED_ID_TAG = StreamIdCodecRegistry.FIRST_CUSTOM_TAG + 1;
+    private static final KeyedFunction<Integer, Integer> DOUBLED = KeyedFunction.keyed("doubled", i -> i * 2);
+
+    private StreamIdCodecRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = withNamedIds(StreamIdCodecRegistry.withBuiltInCodecs()).registerJournalCodecs()
+                .registerFunction(DOUBLED);
+    }
+
+    @Test
+    public void builtInIdsAreDecodedToEqualIds() {
+        assertRoundTrip(SOURCE_A);
+        assertRoundTrip(ErrorStreamId.of(SOURCE_A));
+        assertRoundTrip(DerivedStreamId.derive(SOURCE_A, DOUBLED));
+        assertRoundTrip(DelayedStreamId.delayBy(SOURCE_A, Duration.ofMillis(1500)));
+        assertRoundTrip(CombineWithLatestStreamId.dataPropagated(SOURCE_A, SOURCE_B));
+        assertRoundTrip(ZipStreamId.zip(asList(SOURCE_A, SOURCE_B)));
+        assertRoundTrip(MergedStreamId.merge(asList(SOURCE_A, SOURCE_B), 16));
+        assertRoundTrip(PartitionedStreamId.partition(SOURCE_A, DOUBLED, -42));
+        HistoryStreamId<Integer> history = HistoryStreamId.historyOf(SOURCE_A,
+                HistoryRetention.ofMaxAge(Duration.ofMinutes(5)));
+        assertRoundTrip(history);
+        assertRoundTrip(ReplayFromStreamId.replayFrom(history, Instant.parse("2017-01-01T12:00:00.123456789Z")));
+        JournaledStreamId<Integer> journaled = JournaledStreamId.journaled(SOURCE_A, "/tmp/journal",
+                ElementSerializers.javaSerialization());
+        assertRoundTrip(journaled);
+        assertRoundTrip(JournalReplayStreamId.replayFrom(journaled, 1234));
+    }
+
+    @Test
+    public void builtInCodecsDoNotIncludeTestingIds() {
+        assertThatThrownBy(() -> StreamIdCodecRegistry.withBuiltInCodecs().encode(SOURCE_A))
+                .isInstanceOf(StreamIdEncodingException.class).hasMessageContaining("No codec");
+    }
+
+    @Test
+    public void journalIdsAreOnlyDecodedWithTheJournalCodecs() {
+        JournaledStreamId<Integer> journaled = JournaledStreamId.journaled(SOURCE_A, "/tmp/journal",
+                ElementSerializers.javaSerialization());
+        byte[] encoded = registry.encode(journaled);
+
+        assertThatThrownBy(() -> withNamedIds(StreamIdCodecRegistry.withBuiltInCodecs()).decode(encoded))
+                .isInstanceOf(StreamIdEncodingException.class).hasMessageContaining("No codec");
+    }
+
+    @Test
+    public void deeplyNestedIdsAreRejected() {
+        /* Error stream ids of error stream ids of ... far beyond the stack depth */
+        byte[] encoded = new byte[200_000];
+        Arrays.fill(encoded, (byte) 4);
+        encoded[0] = StreamIdCodecRegistry.FORMAT_VERSION;
+
+        assertThatThrownBy(() -> registry.decode(encoded)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("nested deeper than");
+    }
+
+    @Test
+    public void historyLimitedBySizeCannotBeEncoded() {
+        HistoryStreamId<Integer> history = HistoryStreamId.historyOf(SOURCE_A,
+                HistoryRetention.<Integer> ofMaxAge(Duration.ofMinutes(5)).withMaxBytes(1024, value -> 4));
+
+        assertThatThrownBy(() -> registry.encode(history)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("size estimator");
+    }
+
+    @Test
+    public void journalWithCustomSerializerCannotBeEncoded() {
+        ElementSerializer<Integer> custom = new ElementSerializer<Integer>() {
+            @Override
+            public byte[] serialize(Integer element) {
+                return new byte[] { element.byteValue() };
+            }
+
+            @Override
+            public Integer deserialize(ByteBuffer buffer) {
+                return (int) buffer.get();
+            }
+        };
+
+        assertThatThrownBy(() -> registry.encode(JournaledStreamId.journaled(SOURCE_A, "/tmp/journal", custom)))
+                .isInstanceOf(StreamIdEncodingException.class).hasMessageContaining("serializer");
+    }
+
+    @Test
+    public void numberOutOfIntRangeIsRejected() {
+        /* A class based id whose class name would be 2^40 bytes long */
+        byte[] encoded = concat(new byte[] { StreamIdCodecRegistry.FORMAT_VERSION, 2 }, varLong(1L << 40));
+
+        assertThatThrownBy(() -> registry.decode(encoded)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    public void listSizeBeyondTheInputIsRejectedBeforeAllocating() {
+        /* A merged id claiming Integer.MAX_VALUE sources */
+        byte[] encoded = concat(new byte[] { StreamIdCodecRegistry.FORMAT_VERSION, 12 }, varLong(Integer.MAX_VALUE));
+
+        assertThatThrownBy(() -> registry.decode(encoded)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("remaining");
+    }
+
+    @Test
+    public void idWithLambdaCannotBeEncoded() {
+        StreamId<Integer> id = DerivedStreamId.derive(SOURCE_A, i -> i * 2);
+
+        assertThatThrownBy(() -> registry.encode(id)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("conversion").hasMessageContaining("keyed");
+    }
+
+    @Test
+    public void idWithoutCodecCannotBeEncoded() {
+        StreamId<Object> id = new StreamId<Object>() {
+            /* Anonymous id without codec */
+        };
+
+        assertThatThrownBy(() -> registry.encode(id)).isInstanceOf(StreamIdEncodingException.class)
+                .hasMessageContaining("No codec");
+    }
+
+    @Test
+    public void unregisteredFunctionKeyCannotBeDecoded() {
+        byte[] encoded = registry.encode(DerivedStreamId.derive(SOURCE_A, DOUBLED));
+
+        assertThatThrownBy(() -> withNamedIds(StreamIdCodecRegistry.withBuiltInCodecs()).decode(encoded))
+                .isInstanceOf(StreamIdEncodingException.class).hasMessageContaining("doubled");
+    }
+
+    @Test
+    public void customCodecsCanBeRegistered() {
+        registry.register(StreamIdCodecRegistry.FIRST_CUSTOM_TAG, CustomId.class, new StreamIdCodec<CustomId>() {
+            @Override
+            public void encode(CustomId id, StreamIdOutput out) {
+                /* Nothing to write */
+            }
+
+            @Override
+            public CustomId decode(StreamIdInput in) {
+                return CustomId.INSTANCE;
+            }
+        });
+
+        assertRoundTrip(CustomId.INSTANCE);
+    }
+
+    @Test
+    public void encodingIsMuchSmallerThanJavaSerialization() throws IOException {
+        StreamId<?> id = MergedStreamId
+                .merge(asList(DelayedStreamId.delayBy(SOURCE_A, Duration.ofSeconds(1)), SOURCE_B));
+
+        ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(javaSerialized)) {
+            out.writeObject(id);
+        }
+
+        assertThat(registry.encode(id).length * 10).isLessThan(javaSerialized.size());
+    }
+
+    private void assertRoundTrip(StreamId<?> id) {
+        assertThat(registry.decode(registry.encode(id))).isEqualTo(id);
+    }
+
+    private static StreamIdCodecRegistry withNamedIds(StreamIdCodecRegistry registry) {
+        return registry.register(NAMED_ID_TAG, NamedStreamId.class, NamedStreamId.codec());
+    }
+
+    private static byte[] varLong(long value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bytes.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        bytes.write((int) remaining);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private enum CustomId implements StreamId<Object> {
+        INSTANCE
+    }
+
+}
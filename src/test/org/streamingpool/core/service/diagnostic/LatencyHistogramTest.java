@@ -0,0 +1,81 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.diagnostic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.valueAtPercentile(50)).isEqualTo(49);
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(99);
+        assertThat(histogram.maxValue()).isEqualTo(99);
+    }
+
+    @Test
+    public void largeValuesAreWithinRelativePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1_000_000);
+        }
+
+        assertThat((double) histogram.valueAtPercentile(50)).isCloseTo(500e6, within(500e6 / 64));
+        assertThat((double) histogram.valueAtPercentile(99)).isCloseTo(990e6, within(990e6 / 64));
+        assertThat((double) histogram.maxValue()).isCloseTo(1000e6, within(1000e6 / 64));
+    }
+
+    @Test
+    public void bucketsCoverTheWholeRange() {
+        for (long value : new long[] { 127, 128, 129, 1L << 40, Long.MAX_VALUE }) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat(highest - value).isLessThanOrEqualTo(value / 64);
+        }
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.maxValue()).isZero();
+        assertThat(histogram.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        assertThat(new LatencyHistogram().valueAtPercentile(99)).isZero();
+    }
+
+}
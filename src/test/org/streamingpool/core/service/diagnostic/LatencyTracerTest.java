@@ -0,0 +1,176 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.diagnostic;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.DerivedStreamId.derive;
+import static org.streamingpool.core.service.streamid.FilteredStreamId.filterBy;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.impl.LocalPoolBuilder;
+import org.streamingpool.core.service.streamid.CombineLatestStreamId;
+import org.streamingpool.core.service.streamid.DelayedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class LatencyTracerTest {
+
+    private static final StreamId<Integer> SOURCE_ID = NamedStreamId.ofName("source");
+    private static final StreamId<Integer> OTHER_ID = NamedStreamId.ofName("other");
+    private static final StreamId<Integer> DERIVED_ID = derive(SOURCE_ID, "double", i -> i * 2);
+    private static final StreamId<Integer> FILTERED_ID = filterBy(DERIVED_ID, "large", i -> i > 4);
+
+    private final PublishProcessor<Integer> source = PublishProcessor.create();
+
+    @Test
+    public void tracedElementsAreRecordedForEveryHop() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        LocalPool pool = poolTracedBy(tracer);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(FILTERED_ID)).test();
+        emit(1, 2, 3, 4);
+
+        subscriber.assertValues(6, 8);
+        assertThat(tracer.latencies()).containsOnlyKeys(DERIVED_ID, FILTERED_ID);
+        assertThat(tracer.latencies().get(DERIVED_ID).sinceSource().count()).isEqualTo(4);
+        assertThat(tracer.latencies().get(FILTERED_ID).sinceSource().count()).isEqualTo(2);
+        assertThat(tracer.latencies().get(FILTERED_ID).sinceUpstream().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void hopLatencyIsAtMostTheLatencySinceSource() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        LocalPool pool = poolTracedBy(tracer);
+
+        Flowable.fromPublisher(pool.discover(FILTERED_ID)).test();
+        emit(3);
+
+        LatencyTracer.HopLatencies latencies = tracer.latencies().get(FILTERED_ID);
+        assertThat(latencies.sinceUpstream().maxValue()).isLessThanOrEqualTo(latencies.sinceSource().maxValue());
+    }
+
+    @Test
+    public void onlySampledElementsAreTraced() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(3);
+        LocalPool pool = poolTracedBy(tracer);
+
+        Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        emit(1, 2, 3, 4, 5, 6, 7);
+
+        assertThat(tracer.latencies().get(DERIVED_ID).sinceSource().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void combinationsAreTracedByTheTriggeringElement() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        LocalPool pool = poolTracedBy(tracer);
+        PublishProcessor<Integer> other = PublishProcessor.create();
+        pool.provide(OTHER_ID, other);
+        StreamId<Integer> sumId = CombineLatestStreamId.combineLatest(Arrays.asList(SOURCE_ID, OTHER_ID), "sum",
+                values -> values.stream().mapToInt(Integer::intValue).sum());
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(sumId)).test();
+        source.onNext(1);
+        other.onNext(2);
+        source.onNext(3);
+
+        subscriber.assertValues(3, 5);
+        assertThat(tracer.latencies().get(sumId).sinceSource().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void tracesEndAtAsynchronousBoundaries() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        TestScheduler scheduler = new TestScheduler();
+        LocalPool pool = LocalPoolBuilder.withDefaultFactories().scheduler(scheduler).latencyTracer(tracer).build();
+        pool.provide(SOURCE_ID, source);
+        StreamId<Integer> delayedId = DelayedStreamId.delayBy(SOURCE_ID, Duration.ofSeconds(1));
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(delayedId)).test();
+        emit(1);
+        scheduler.advanceTimeBy(1, SECONDS);
+
+        subscriber.assertValues(1);
+        assertThat(tracer.latencies().get(delayedId).sinceSource().count()).isZero();
+    }
+
+    @Test
+    public void resetForgetsTheLatencies() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        LocalPool pool = poolTracedBy(tracer);
+        Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        emit(1);
+
+        tracer.reset();
+
+        assertThat(tracer.latencies().get(DERIVED_ID).sinceSource().count()).isZero();
+        assertThat(tracer.latencies().get(DERIVED_ID).sinceUpstream().count()).isZero();
+    }
+
+    @Test
+    public void streamsTracedBeforeResetKeepRecording() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(1);
+        LocalPool pool = poolTracedBy(tracer);
+        Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        emit(1);
+
+        tracer.reset();
+        emit(2, 3);
+
+        assertThat(tracer.latencies().get(DERIVED_ID).sinceSource().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void poolExposesItsTracer() {
+        LatencyTracer tracer = LatencyTracer.sampleEvery(10);
+
+        assertThat(poolTracedBy(tracer).latencyTracer()).contains(tracer);
+        assertThat(LocalPoolBuilder.withDefaultFactories().build().latencyTracer()).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveSamplingIntervalIsRejected() {
+        LatencyTracer.sampleEvery(0);
+    }
+
+    private LocalPool poolTracedBy(LatencyTracer tracer) {
+        LocalPool pool = LocalPoolBuilder.withDefaultFactories().latencyTracer(tracer).build();
+        pool.provide(SOURCE_ID, source);
+        return pool;
+    }
+
+    private void emit(Integer... values) {
+        Arrays.stream(values).forEach(source::onNext);
+    }
+
+}
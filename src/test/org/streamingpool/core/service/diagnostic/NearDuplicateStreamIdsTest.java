@@ -0,0 +1,81 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.diagnostic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.FilteredStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+/**
+ * Unit tests for {@link NearDuplicateStreamIds} and the keyed variants of the function based stream ids.
+ */
+public class NearDuplicateStreamIdsTest {
+
+    private static final StreamId<Integer> SOURCE_ID = NamedStreamId.ofName("source");
+    private static final StreamId<Integer> OTHER_SOURCE_ID = NamedStreamId.ofName("otherSource");
+
+    @Test
+    public void derivedIdsWithSameConversionKeyAreEqual() {
+        StreamId<Integer> first = DerivedStreamId.derive(SOURCE_ID, "doubled", i -> i * 2);
+        StreamId<Integer> second = DerivedStreamId.derive(SOURCE_ID, "doubled", i -> i * 2);
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+    }
+
+    @Test
+    public void filteredIdsWithDifferentPredicateKeysAreNotEqual() {
+        StreamId<Integer> first = FilteredStreamId.filterBy(SOURCE_ID, "positive", i -> i > 0);
+        StreamId<Integer> second = FilteredStreamId.filterBy(SOURCE_ID, "negative", i -> i < 0);
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    public void idsDifferingOnlyInLambdasAreReported() {
+        StreamId<Integer> first = DerivedStreamId.derive(SOURCE_ID, i -> i * 2);
+        StreamId<Integer> second = DerivedStreamId.derive(SOURCE_ID, i -> i * 2);
+        StreamId<Integer> otherSource = DerivedStreamId.derive(OTHER_SOURCE_ID, i -> i * 2);
+
+        Set<Set<StreamId<?>>> duplicates = NearDuplicateStreamIds.in(Arrays.asList(first, second, otherSource));
+
+        assertThat(duplicates).hasSize(1);
+        assertThat(duplicates.iterator().next()).containsOnly(first, second);
+    }
+
+    @Test
+    public void idsWithDifferentKeysAreNotReported() {
+        StreamId<Integer> first = DerivedStreamId.derive(SOURCE_ID, "doubled", i -> i * 2);
+        StreamId<Integer> second = DerivedStreamId.derive(SOURCE_ID, "tripled", i -> i * 3);
+
+        assertThat(NearDuplicateStreamIds.in(Arrays.asList(first, second))).isEmpty();
+    }
+
+}
@@ -0,0 +1,96 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.DerivedStreamId.derive;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.streamingpool.core.conf.DefaultStreamFactories;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+public class LocalPoolBuilderTest {
+
+    private static final StreamId<Integer> SOURCE_ID = NamedStreamId.ofName("source");
+
+    @Test
+    public void defaultFactoriesAreTheOnesOfTheSpringConfiguration() {
+        Set<Class<?>> springFactoryClasses;
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                DefaultStreamFactories.class)) {
+            springFactoryClasses = context.getBeansOfType(StreamFactory.class).values().stream()
+                    .map(Object::getClass).filter(c -> !CreatorStreamFactory.class.equals(c)).collect(toSet());
+        }
+
+        assertThat(LocalPoolBuilder.defaultFactories().stream().map(Object::getClass).collect(toSet()))
+                .isEqualTo(springFactoryClasses);
+    }
+
+    @Test
+    public void poolWithDefaultFactoriesCreatesDerivedStreams() {
+        LocalPool pool = LocalPoolBuilder.withDefaultFactories().build();
+        pool.provide(SOURCE_ID, Flowable.just(1, 2, 3));
+
+        Iterable<Integer> values = Flowable.fromPublisher(pool.discover(derive(SOURCE_ID, i -> i * 10)))
+                .blockingIterable();
+
+        assertThat(values).containsExactly(10, 20, 30);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void poolWithoutFactoriesCanNotCreateStreams() {
+        LocalPool pool = LocalPoolBuilder.withoutFactories().build();
+        pool.provide(SOURCE_ID, Flowable.just(1));
+
+        pool.discover(derive(SOURCE_ID, i -> i * 10));
+    }
+
+    @Test
+    public void addedFactoriesAreUsed() {
+        StreamId<Integer> createdId = NamedStreamId.ofName("created");
+        CreatorStreamFactory creators = new CreatorStreamFactory(Collections.emptyList());
+        LocalPool pool = LocalPoolBuilder.withoutFactories().addFactory(creators).build();
+        creators.provide(createdId, discovery -> Flowable.just(42));
+
+        assertThat(Flowable.fromPublisher(pool.discover(createdId)).blockingFirst()).isEqualTo(42);
+    }
+
+    @Test
+    public void givenInternerIsUsed() {
+        LocalPool pool = LocalPoolBuilder.withoutFactories().interner(StreamIdInterners.none()).build();
+        pool.provide(SOURCE_ID, Flowable.just(1));
+
+        assertThat(pool.streamIds()).contains(SOURCE_ID);
+    }
+
+}
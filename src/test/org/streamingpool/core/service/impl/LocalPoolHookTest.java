@@ -75,6 +75,22 @@ public class LocalPoolHookTest {
         subscriber.assertNoValues();
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void newStreamHookDoesNotReplayIdsProvidedBeforeReset() {
+        StreamId<?> oldStreamId = mock(StreamId.class);
+        StreamId<?> newStreamId = mock(StreamId.class);
+        pool.provide(oldStreamId, mock(Publisher.class));
+        pool.reset();
+        pool.provide(newStreamId, mock(Publisher.class));
+
+        TestSubscriber<StreamId<?>> subscriber = new TestSubscriber<>();
+        Flowable.fromPublisher(newStreamHook()).take(1).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(2, SECONDS);
+        subscriber.assertValues(newStreamId);
+    }
+
     private Publisher<StreamId<?>> newStreamHook() {
         return pool.discover(NEW_STREAM_HOOK);
     }
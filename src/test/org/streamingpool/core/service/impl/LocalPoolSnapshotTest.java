@@ -0,0 +1,231 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.stream.Collectors.toList;
+import static org.streamingpool.core.service.streamid.DerivedStreamId.derive;
+import static org.streamingpool.core.service.streamid.HistoryStreamId.historyOf;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.DiscoveryService;
+import org.streamingpool.core.service.StreamFactory;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.CreatorStreamFactory;
+import org.streamingpool.core.service.streamfactory.HistoryStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.service.streamid.HistoryRetention;
+import org.streamingpool.core.service.streamid.HistoryStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class LocalPoolSnapshotTest {
+
+    private static final StreamId<Integer> SOURCE_ID = NamedStreamId.ofName("source");
+    private static final StreamId<Integer> OTHER_ID = NamedStreamId.ofName("other");
+    private static final StreamId<Integer> CREATED_ID = NamedStreamId.ofName("created");
+    private static final DerivedStreamId<Integer, Integer> DERIVED_ID = derive(SOURCE_ID, i -> i + 1);
+
+    private CreatorStreamFactory creators;
+    private LocalPool pool;
+    private PublishProcessor<Integer> source;
+
+    @Before
+    public void setUp() {
+        creators = new CreatorStreamFactory(Collections.emptyList());
+        pool = LocalPoolBuilder.withDefaultFactories().addFactory(creators).build();
+        source = PublishProcessor.create();
+        pool.provide(SOURCE_ID, source);
+    }
+
+    @Test
+    public void rollbackRemovesStreamsProvidedAfterSnapshot() {
+        PoolSnapshot snapshot = pool.snapshot();
+        pool.provide(OTHER_ID, Flowable.just(1));
+
+        pool.rollback(snapshot);
+
+        assertThat(pool.streamIds()).doesNotContain(OTHER_ID).contains(SOURCE_ID);
+        assertThat(pool.streamIds()).isEqualTo(snapshot.streamIds());
+    }
+
+    @Test
+    public void rollbackKeepsStreamsCreatedBeforeSnapshot() {
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        PoolSnapshot snapshot = pool.snapshot();
+
+        pool.rollback(snapshot);
+        source.onNext(1);
+
+        subscriber.assertValues(2).assertNotComplete();
+        assertThat(pool.streamIds()).contains(DERIVED_ID);
+    }
+
+    @Test
+    public void rollbackCompletesStreamsCreatedAfterSnapshot() {
+        PoolSnapshot snapshot = pool.snapshot();
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        source.onNext(1);
+
+        pool.rollback(snapshot);
+
+        subscriber.assertValues(2).assertComplete();
+        assertThat(source.hasSubscribers()).isFalse();
+        assertThat(pool.streamIds()).doesNotContain(DERIVED_ID);
+    }
+
+    @Test
+    public void rollbackEndsTheSubscriptionsHeldByFactories() {
+        HistoryStreamFactory histories = new HistoryStreamFactory();
+        LocalPool statefulPool = LocalPoolBuilder.withoutFactories().addFactory(histories).build();
+        HistoryStreamId<Integer> historyId = historyOf(OTHER_ID, HistoryRetention.ofMaxAge(Duration.ofHours(1)));
+        PoolSnapshot snapshot = statefulPool.snapshot();
+        BehaviorProcessor<Integer> other = BehaviorProcessor.createDefault(42);
+        statefulPool.provide(OTHER_ID, other);
+        TestSubscriber<Timestamped<Integer>> subscriber = Flowable.fromPublisher(statefulPool.discover(historyId))
+                .test();
+        assertThat(historyValues(histories, historyId)).containsExactly(42);
+
+        statefulPool.rollback(snapshot);
+        other.onNext(43);
+
+        subscriber.assertComplete();
+        assertThat(other.hasSubscribers()).isFalse();
+        assertThat(historyValues(histories, historyId)).containsExactly(42);
+
+        statefulPool.provide(OTHER_ID, Flowable.never());
+        statefulPool.discover(historyId);
+        assertThat(historyValues(histories, historyId)).isEmpty();
+    }
+
+    @Test
+    public void streamsCreatedAgainAfterRollbackAreNotCompleted() {
+        PoolSnapshot snapshot = pool.snapshot();
+        pool.discover(DERIVED_ID);
+        pool.rollback(snapshot);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        source.onNext(1);
+
+        subscriber.assertValues(2).assertNotComplete();
+    }
+
+    @Test
+    public void snapshotCanBeRolledBackToSeveralTimes() {
+        PoolSnapshot snapshot = pool.snapshot();
+        for (int i = 0; i < 3; i++) {
+            pool.provide(OTHER_ID, Flowable.just(i));
+            TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+
+            pool.rollback(snapshot);
+
+            subscriber.assertComplete();
+            assertThat(pool.streamIds()).isEqualTo(snapshot.streamIds());
+        }
+    }
+
+    @Test
+    public void rollbackRestoresCreators() {
+        creators.provide(CREATED_ID, discovery -> Flowable.just(1));
+        PoolSnapshot snapshot = pool.snapshot();
+        creators.provide(OTHER_ID, discovery -> Flowable.just(2));
+
+        pool.rollback(snapshot);
+
+        assertThat(creators.creators()).containsOnlyKeys(CREATED_ID);
+    }
+
+    @Test
+    public void rollbackRestoresFactories() {
+        PoolSnapshot snapshot = pool.snapshot();
+        pool.addIntercept(new StreamFactory() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> ErrorStreamPair<T> create(StreamId<T> id, DiscoveryService discoveryService) {
+                return ErrorStreamPair.ofData((Flowable<T>) Flowable.just(42));
+            }
+        });
+
+        pool.rollback(snapshot);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(DERIVED_ID)).test();
+        source.onNext(1);
+        subscriber.assertValues(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotsTakenAfterRolledBackSnapshotAreInvalid() {
+        PoolSnapshot first = pool.snapshot();
+        PoolSnapshot second = pool.snapshot();
+        pool.rollback(first);
+
+        pool.rollback(second);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void discardedSnapshotStaysInvalidAfterNewSnapshots() {
+        PoolSnapshot first = pool.snapshot();
+        PoolSnapshot discarded = pool.snapshot();
+        pool.rollback(first);
+        pool.snapshot();
+
+        pool.rollback(discarded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotOfOtherPoolIsRejected() {
+        pool.rollback(LocalPoolBuilder.withoutFactories().build().snapshot());
+    }
+
+    @Test
+    public void newStreamHookOnlyReplaysIdsOfSnapshot() {
+        PoolSnapshot snapshot = pool.snapshot();
+        pool.provide(OTHER_ID, Flowable.just(1));
+
+        pool.rollback(snapshot);
+
+        TestSubscriber<StreamId<?>> subscriber = Flowable.fromPublisher(pool.discover(NEW_STREAM_HOOK)).test();
+        subscriber.awaitTerminalEvent(1, SECONDS);
+        assertThat(subscriber.values()).contains(SOURCE_ID).doesNotContain(OTHER_ID);
+    }
+
+    private static List<Integer> historyValues(HistoryStreamFactory histories, HistoryStreamId<Integer> historyId) {
+        return histories.historyBetween(historyId, Instant.EPOCH, Instant.now().plus(Duration.ofHours(1))).stream()
+                .map(Timestamped::value).collect(toList());
+    }
+
+}
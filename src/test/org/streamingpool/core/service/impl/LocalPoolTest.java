@@ -22,8 +22,10 @@
 
 package org.streamingpool.core.service.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -96,4 +98,19 @@ public class LocalPoolTest {
     public void testClear() {
         pool.discover(ID_NOT_PROVIDED);
     }
+
+    @Test
+    public void resetRemovesProvidedStreams() {
+        pool.reset();
+
+        assertThat(pool.streamIds()).containsOnly(NEW_STREAM_HOOK);
+    }
+
+    @Test
+    public void resetAllowsToProvideTheSameIdAgain() {
+        pool.reset();
+        pool.provide(ID_A, STREAM_B);
+
+        assertEquals(STREAM_B, pool.discover(ID_A));
+    }
 }
@@ -0,0 +1,111 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.streamingpool.core.domain.ErrorStreamPair;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.PoolContent.CreationLocking;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Unit tests for {@link PoolContent}
+ */
+public class PoolContentTest {
+
+    private static final int THREAD_COUNT = 8;
+
+    private final PoolContent content = new PoolContent(StreamIdInterners.weak(), CreationLocking.PER_ID);
+
+    @Test
+    public void failedCreationsDoNotKeepTheirLocks() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(content.synchronousCreateIfAbsent(NamedStreamId.ofName("absent" + i), ErrorStreamPair::empty))
+                    .isFalse();
+        }
+        assertThat(content.creationLockCount()).isZero();
+    }
+
+    @Test
+    public void failingSupplierReleasesItsLock() {
+        StreamId<Integer> id = NamedStreamId.ofName("failing");
+        try {
+            content.synchronousCreateIfAbsent(id, () -> {
+                throw new IllegalStateException("creation failure");
+            });
+        } catch (IllegalStateException e) {
+            /* Expected */
+        }
+        assertThat(content.creationLockCount()).isZero();
+        assertThat(content.synchronousCreateIfAbsent(id, () -> ErrorStreamPair.ofData(Flowable.just(1)))).isTrue();
+    }
+
+    @Test
+    public void concurrentCreationsOfTheSameIdCallTheSupplierOnce() throws Exception {
+        StreamId<Integer> id = NamedStreamId.ofName("contended");
+        AtomicInteger supplierCalls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Callable<Boolean>> creations = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                creations.add(() -> {
+                    start.await();
+                    return content.synchronousCreateIfAbsent(id, () -> {
+                        supplierCalls.incrementAndGet();
+                        return ErrorStreamPair.ofData(Flowable.just(1));
+                    });
+                });
+            }
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Callable<Boolean> creation : creations) {
+                results.add(executor.submit(creation));
+            }
+            start.countDown();
+
+            int createdCount = 0;
+            for (Future<Boolean> result : results) {
+                createdCount += result.get() ? 1 : 0;
+            }
+            assertThat(createdCount).isEqualTo(1);
+            assertThat(supplierCalls.get()).isEqualTo(1);
+            assertThat(content.creationLockCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
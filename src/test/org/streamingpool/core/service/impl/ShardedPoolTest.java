@@ -0,0 +1,164 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.StreamingPoolHook.NEW_STREAM_HOOK;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.diagnostic.ErrorStreamId;
+import org.streamingpool.core.service.impl.ShardedPool.ShardStatistics;
+import org.streamingpool.core.service.streamfactory.DerivedStreamFactory;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Unit tests for {@link ShardedPool}
+ */
+public class ShardedPoolTest {
+
+    private static final int SHARD_COUNT = 8;
+    private static final int ID_COUNT = 64;
+
+    private final ShardedPool pool = new ShardedPool(SHARD_COUNT, singletonList(new DerivedStreamFactory()));
+
+    @Test
+    public void providedStreamsAreDiscoveredFromTheirShard() {
+        for (int i = 0; i < ID_COUNT; i++) {
+            pool.provide(sourceId(i), Flowable.just(i));
+        }
+
+        for (int i = 0; i < ID_COUNT; i++) {
+            assertThat(Flowable.fromPublisher(pool.discover(sourceId(i))).blockingFirst()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void idsAreSpreadOverTheShards() {
+        Set<Integer> usedShards = new HashSet<>();
+        for (int i = 0; i < ID_COUNT; i++) {
+            usedShards.add(pool.shardIndexOf(sourceId(i)));
+        }
+
+        assertThat(usedShards).hasSize(SHARD_COUNT);
+    }
+
+    @Test
+    public void errorStreamsAreOwnedByTheShardOfTheirId() {
+        StreamId<Integer> id = sourceId(1);
+
+        assertThat(pool.shardIndexOf(ErrorStreamId.of(id))).isEqualTo(pool.shardIndexOf(id));
+    }
+
+    @Test
+    public void recursiveDiscoveryCrossesShards() {
+        for (int i = 0; i < ID_COUNT; i++) {
+            pool.provide(sourceId(i), Flowable.just(i));
+        }
+
+        int crossShardDerivations = 0;
+        for (int i = 0; i < ID_COUNT; i++) {
+            StreamId<Integer> derived = doubled(sourceId(i));
+            if (pool.shardIndexOf(derived) != pool.shardIndexOf(sourceId(i))) {
+                crossShardDerivations++;
+            }
+            assertThat(Flowable.fromPublisher(pool.discover(derived)).blockingFirst()).isEqualTo(2 * i);
+        }
+        assertThat(crossShardDerivations).isPositive();
+    }
+
+    @Test
+    public void concurrentDiscoveriesOfTheSameIdReturnTheSameStream() throws Exception {
+        for (int i = 0; i < ID_COUNT; i++) {
+            pool.provide(sourceId(i), Flowable.just(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Publisher<Integer>>> discoveries = new ArrayList<>();
+            for (int i = 0; i < 8 * ID_COUNT; i++) {
+                StreamId<Integer> id = doubled(doubled(sourceId(i % ID_COUNT)));
+                discoveries.add(() -> pool.discover(id));
+            }
+            List<Future<Publisher<Integer>>> results = executor.invokeAll(discoveries);
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isSameAs(results.get(i % ID_COUNT).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void statisticsReportTheLoadOfEachShard() {
+        for (int i = 0; i < ID_COUNT; i++) {
+            pool.provide(sourceId(i), Flowable.just(i));
+            pool.discover(sourceId(i));
+        }
+
+        List<ShardStatistics> statistics = pool.shardStatistics();
+
+        assertThat(statistics).hasSize(SHARD_COUNT);
+        /* Every provided id comes with its error stream, every shard has a hook */
+        assertThat(statistics.stream().mapToInt(ShardStatistics::streamCount).sum())
+                .isEqualTo(2 * ID_COUNT + SHARD_COUNT);
+        assertThat(statistics.stream().mapToLong(ShardStatistics::discoveryCount).sum()).isEqualTo(ID_COUNT);
+    }
+
+    @Test
+    public void newStreamHookMergesTheHooksOfAllShards() {
+        for (int i = 0; i < ID_COUNT; i++) {
+            pool.provide(sourceId(i), Flowable.just(i));
+        }
+
+        List<StreamId<?>> newIds = Flowable.fromPublisher(pool.discover(NEW_STREAM_HOOK)).take(2 * ID_COUNT)
+                .toList().timeout(5, SECONDS).blockingGet();
+
+        assertThat(newIds).containsAll(pool.streamIds().stream()
+                .filter(id -> !NEW_STREAM_HOOK.equals(id))::iterator);
+    }
+
+    private static StreamId<Integer> sourceId(int index) {
+        return NamedStreamId.ofName("source-" + index);
+    }
+
+    private static StreamId<Integer> doubled(StreamId<Integer> source) {
+        return DerivedStreamId.derive(source, "doubled", value -> 2 * value);
+    }
+
+}
@@ -0,0 +1,95 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.impl;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.BufferSpecification.EndStreamMatcher.endingOnEvery;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.BufferSpecification;
+import org.streamingpool.core.service.streamid.OverlapBufferStreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+
+/**
+ * Unit tests for {@link StreamIdInterners}
+ */
+public class StreamIdInternersTest {
+
+    private static final StreamId<Object> SOURCE_ID = NamedStreamId.ofName("source");
+    private static final StreamId<Object> START_ID = NamedStreamId.ofName("start");
+    private static final StreamId<Object> END_ID = NamedStreamId.ofName("end");
+
+    @Test
+    public void weakInternerReturnsSameInstanceForEqualIds() {
+        StreamIdInterner interner = StreamIdInterners.weak();
+
+        StreamId<?> first = interner.intern(overlapBufferId());
+        StreamId<?> second = interner.intern(overlapBufferId());
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void noneInternerReturnsTheGivenInstance() {
+        StreamId<?> id = overlapBufferId();
+
+        assertThat(StreamIdInterners.none().intern(id)).isSameAs(id);
+    }
+
+    @Test
+    public void bufferSpecificationsWithSameTimeoutDurationAreEqual() {
+        assertThat(overlapBufferId()).isEqualTo(overlapBufferId());
+        assertThat(overlapBufferId().hashCode()).isEqualTo(overlapBufferId().hashCode());
+    }
+
+    @Test
+    public void poolReturnsTheCanonicalInstanceOfItsIds() {
+        LocalPool pool = new LocalPool();
+        pool.provide(overlapBufferId(), Flowable.never());
+
+        StreamId<?> interned = pool.intern(overlapBufferId());
+
+        assertThat(interned).isSameAs(pool.intern(overlapBufferId()));
+        assertThat(pool.streamIds().stream().anyMatch(id -> id == interned)).isTrue();
+    }
+
+    @Test
+    public void lookupsWithNonInternedIdsFindTheStream() {
+        LocalPool pool = new LocalPool();
+        pool.provide(overlapBufferId(), Flowable.never());
+
+        assertThat(pool.discover(overlapBufferId())).isNotNull();
+    }
+
+    private static OverlapBufferStreamId<Object> overlapBufferId() {
+        return OverlapBufferStreamId.of(SOURCE_ID, BufferSpecification.ofStartEndTimeout(START_ID,
+                singleton(endingOnEvery(END_ID)), Duration.ofSeconds(1)));
+    }
+
+}
@@ -0,0 +1,226 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link Journal}
+ */
+public class JournalTest {
+
+    private static final int SMALL_SEGMENT_SIZE = 256;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void recordsAreReadAcrossSegments() throws IOException {
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            for (int i = 0; i < 100; i++) {
+                assertThat(journal.append("value" + i)).isEqualTo(i);
+            }
+
+            assertThat(valuesOf(journal.read(40, 43).toList().blockingGet())).containsExactly("value40", "value41",
+                    "value42");
+        }
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertThat(segments.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    public void recordsAreRecoveredWhenReopening() {
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            for (int i = 0; i < 30; i++) {
+                journal.append("value" + i);
+            }
+        }
+
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            assertThat(journal.nextOffset()).isEqualTo(30);
+            assertThat(journal.append("afterRestart")).isEqualTo(30);
+            assertThat(valuesOf(journal.read(28, 31).toList().blockingGet())).containsExactly("value28", "value29",
+                    "afterRestart");
+        }
+    }
+
+    @Test
+    public void staleBytesOfATornRecordAreNotRecovered() throws IOException {
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            journal.append("first");
+        }
+        /* A torn record after the first one (21 bytes): its size was never written, but its payload contains what
+         * looks like a complete record right after the end of the shorter record appended below (17 bytes) */
+        Path segment;
+        try (Stream<Path> segments = Files.list(directory)) {
+            segment = segments.findFirst().get();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer staleRecord = ByteBuffer.allocate(17);
+            staleRecord.putInt(17).putLong(0).putInt(0).put((byte) 'z').flip();
+            channel.write(staleRecord, 21 + 17);
+        }
+
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            assertThat(journal.nextOffset()).isEqualTo(1);
+            journal.append("x");
+        }
+
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            assertThat(journal.nextOffset()).isEqualTo(2);
+            assertThat(valuesOf(journal.read(0, 2).toList().blockingGet())).containsExactly("first", "x");
+        }
+    }
+
+    @Test
+    public void replayIsFollowedByLiveRecords() {
+        try (Journal<Integer> journal = Journal.open(directory, ElementSerializers.javaSerialization(),
+                SMALL_SEGMENT_SIZE)) {
+            journal.append(1);
+            journal.append(2);
+
+            TestSubscriber<JournalRecord<Integer>> subscriber = journal.replayFrom(1).test();
+            journal.append(3);
+
+            assertThat(valuesOf(subscriber.values())).containsExactly(2, 3);
+            assertThat(subscriber.values().get(1).offset()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void offsetAtFindsFirstRecordNotBeforeInstant() {
+        Instant start = Instant.parse("2017-01-01T00:00:00Z");
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE,
+                Clock.fixed(start, ZoneOffset.UTC))) {
+            journal.append("a");
+            journal.append("b");
+
+            assertThat(journal.offsetAt(start)).isEqualTo(0);
+            assertThat(journal.offsetAt(start.plusSeconds(1))).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void offsetAtFindsRecordsBetweenIndexedOnes() {
+        Instant start = Instant.parse("2017-01-01T00:00:00Z");
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), 64 * 1024,
+                new TickingClock(start))) {
+            for (int i = 0; i < 1000; i++) {
+                journal.append("value" + i);
+            }
+
+            for (int i : new int[] { 0, 1, 63, 64, 65, 500, 999 }) {
+                assertThat(journal.offsetAt(start.plusSeconds(i))).as("offset at second " + i).isEqualTo(i);
+                assertThat(journal.offsetAt(start.plusSeconds(i).minusMillis(1))).isEqualTo(i);
+            }
+            assertThat(journal.offsetAt(start.plusSeconds(1000))).isEqualTo(1000);
+        }
+    }
+
+    @Test
+    public void replayIsUnsubscribedFromLiveRecordsWhenCancelled() {
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            journal.append("a");
+
+            TestSubscriber<JournalRecord<String>> subscriber = journal.replayFrom(0).test();
+            assertThat(journal.hasLiveSubscribers()).isTrue();
+
+            subscriber.cancel();
+            assertThat(journal.hasLiveSubscribers()).isFalse();
+        }
+    }
+
+    @Test
+    public void failSignalsTheErrorToLiveSubscribers() {
+        try (Journal<String> journal = Journal.open(directory, ElementSerializers.utf8(), SMALL_SEGMENT_SIZE)) {
+            TestSubscriber<JournalRecord<String>> subscriber = journal.live().test();
+            IllegalStateException error = new IllegalStateException("source failed");
+
+            journal.fail(error);
+
+            subscriber.assertError(error);
+        }
+    }
+
+    private static <T> List<T> valuesOf(List<JournalRecord<T>> records) {
+        return records.stream().map(JournalRecord::value).collect(Collectors.toList());
+    }
+
+    /**
+     * A clock advancing by one second on each access, starting at the given instant.
+     */
+    private static class TickingClock extends Clock {
+        private Instant next;
+
+        TickingClock(Instant start) {
+            this.next = start;
+        }
+
+        @Override
+        public Instant instant() {
+            Instant now = next;
+            next = next.plusSeconds(1);
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.remote;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.codec.StreamIdCodecRegistry;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.journal.ElementSerializers;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Tests two {@link LocalPool}s in the same JVM, connected by a {@link RemoteStreamFactory} and a
+ * {@link RemotePoolServer} over the loopback {@link TcpTransport}.
+ */
+public class RemoteStreamFactoryTest {
+
+    private static final StreamId<Integer> NUMBERS = NamedStreamId.ofName("numbers");
+    private static final StreamId<Integer> OTHER_NUMBERS = NamedStreamId.ofName("otherNumbers");
+    private static final StreamId<Integer> FAILING = NamedStreamId.ofName("failing");
+    private static final StreamId<Integer> WATCHED = NamedStreamId.ofName("watched");
+    private static final int COUNT = 1000;
+
+    private final AtomicLong requestedFromNumbers = new AtomicLong();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicBoolean refuseNextConnection = new AtomicBoolean();
+    private final AtomicInteger watchedSubscriptions = new AtomicInteger();
+    private final AtomicInteger watchedCancellations = new AtomicInteger();
+    private int serverPort;
+    private RemotePoolServer server;
+    private RemoteStreamFactory remoteFactory;
+    private LocalPool clientPool;
+
+    @Before
+    public void setUp() {
+        LocalPool serverPool = new LocalPool();
+        serverPool.provide(NUMBERS, Flowable.range(0, COUNT).doOnRequest(requestedFromNumbers::addAndGet));
+        serverPool.provide(OTHER_NUMBERS, Flowable.range(COUNT, COUNT));
+        serverPool.provide(FAILING, Flowable.error(new IllegalStateException("remote failure")));
+        serverPool.provide(WATCHED, Flowable.<Integer> never()
+                .doOnSubscribe(subscription -> watchedSubscriptions.incrementAndGet())
+                .doOnCancel(watchedCancellations::incrementAndGet));
+
+        TcpTransport serverTransport = TcpTransport.server(0);
+        server = RemotePoolServer.serve(serverPool, serverTransport, codecs(),
+                ElementSerializers.javaSerialization());
+        serverPort = serverTransport.port();
+
+        TcpTransport clientTransport = TcpTransport.client("localhost", serverTransport.port());
+        RemoteTransport countingTransport = handler -> {
+            connections.incrementAndGet();
+            if (refuseNextConnection.getAndSet(false)) {
+                throw new UncheckedIOException(new ConnectException("connection refused"));
+            }
+            return clientTransport.connect(handler);
+        };
+        remoteFactory = new RemoteStreamFactory(countingTransport, codecs(),
+                ElementSerializers.javaSerialization(), id -> true);
+        clientPool = new LocalPool();
+        clientPool.addFallback(remoteFactory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        remoteFactory.close();
+        server.close();
+    }
+
+    @Test
+    public void allElementsOfARemoteStreamArriveInOrder() throws InterruptedException {
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(clientPool.discover(NUMBERS)).test();
+
+        assertThat(subscriber.await(5, SECONDS)).isTrue();
+        subscriber.assertComplete();
+        assertThat(subscriber.values()).isEqualTo(Flowable.range(0, COUNT).toList().blockingGet());
+    }
+
+    @Test
+    public void requestsAreForwardedToTheRemoteStream() throws InterruptedException {
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(clientPool.discover(NUMBERS)).test(0);
+
+        subscriber.request(2);
+        awaitValueCount(subscriber, 2);
+        Thread.sleep(100);
+
+        subscriber.assertValues(0, 1);
+        subscriber.assertNotComplete();
+        assertThat(requestedFromNumbers.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void manyStreamsAreMultiplexedOnOneConnection() throws InterruptedException {
+        TestSubscriber<Integer> numbers = Flowable.fromPublisher(clientPool.discover(NUMBERS)).test();
+        TestSubscriber<Integer> otherNumbers = Flowable.fromPublisher(clientPool.discover(OTHER_NUMBERS)).test();
+
+        assertThat(numbers.await(5, SECONDS)).isTrue();
+        assertThat(otherNumbers.await(5, SECONDS)).isTrue();
+        numbers.assertValueCount(COUNT);
+        List<Integer> otherValues = otherNumbers.values();
+        assertThat(otherValues).hasSize(COUNT);
+        assertThat(otherValues.get(0)).isEqualTo(COUNT);
+        assertThat(connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void remoteErrorsArePropagated() throws InterruptedException {
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(clientPool.discover(FAILING)).test();
+
+        assertThat(subscriber.await(5, SECONDS)).isTrue();
+        subscriber.assertError(RemoteStreamException.class);
+        assertThat(subscriber.errors().get(0)).hasMessageContaining("remote failure");
+    }
+
+    @Test
+    public void aFailedConnectionIsRetriedOnTheNextSubscription() throws InterruptedException {
+        refuseNextConnection.set(true);
+        TestSubscriber<Integer> refused = Flowable.fromPublisher(clientPool.discover(NUMBERS)).test();
+        refused.assertError(RemoteStreamException.class);
+
+        TestSubscriber<Integer> retried = Flowable.fromPublisher(clientPool.discover(NUMBERS)).test();
+        assertThat(retried.await(5, SECONDS)).isTrue();
+        retried.assertComplete();
+        retried.assertValueCount(COUNT);
+        assertThat(connections.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidFrameLengthClosesTheConnectionAndCancelsItsChannels() throws Exception {
+        try (Socket socket = new Socket("localhost", serverPort)) {
+            socket.setSoTimeout(5000);
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            writeFrame(output, FrameType.SUBSCRIBE, 1, codecs().encode(WATCHED));
+            awaitCount(watchedSubscriptions, 1);
+
+            output.writeByte(FrameType.REQUEST.ordinal());
+            output.writeInt(1);
+            output.writeInt(Integer.MAX_VALUE);
+            output.flush();
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+            awaitCount(watchedCancellations, 1);
+            assertThat(watchedCancellations.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void secondSubscriptionOfAChannelCancelsItAndIsRejected() throws Exception {
+        try (Socket socket = new Socket("localhost", serverPort)) {
+            socket.setSoTimeout(5000);
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            writeFrame(output, FrameType.SUBSCRIBE, 1, codecs().encode(WATCHED));
+            writeFrame(output, FrameType.SUBSCRIBE, 1, codecs().encode(WATCHED));
+
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            assertThat(input.readUnsignedByte()).isEqualTo(FrameType.ERROR.ordinal());
+            assertThat(input.readInt()).isEqualTo(1);
+            awaitCount(watchedCancellations, 1);
+            assertThat(watchedSubscriptions.get()).isEqualTo(1);
+            assertThat(watchedCancellations.get()).isEqualTo(1);
+        }
+    }
+
+    private static void writeFrame(DataOutputStream output, FrameType type, int channel, byte[] payload)
+            throws IOException {
+        output.writeByte(type.ordinal());
+        output.writeInt(channel);
+        output.writeInt(payload.length);
+        output.write(payload);
+        output.flush();
+    }
+
+    private static void awaitCount(AtomicInteger counter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitValueCount(TestSubscriber<?> subscriber, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.valueCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static StreamIdCodecRegistry codecs() {
+        return StreamIdCodecRegistry.withBuiltInCodecs().register(StreamIdCodecRegistry.FIRST_CUSTOM_TAG,
+                NamedStreamId.class, NamedStreamId.codec());
+    }
+
+}
@@ -0,0 +1,76 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.ConflatedStreamFactory;
+import org.streamingpool.core.service.streamid.ConflatedStreamId;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link ConflatedStreamFactory}
+ */
+public class ConflatedStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    @Test
+    public void slowSubscriberGetsLatestValueWithoutBackpressureError() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source).withUniqueStreamId();
+        TestSubscriber<Integer> subscriber = TestSubscriber.create(1);
+        rxFrom(ConflatedStreamId.conflate(sourceId)).subscribe(subscriber);
+
+        for (int i = 0; i < 1000; i++) {
+            source.onNext(i);
+        }
+        subscriber.requestMore(1);
+
+        subscriber.assertNoErrors();
+        subscriber.assertValues(0, 999);
+    }
+
+    @Test
+    public void minIntervalLimitsTheRate() {
+        Flowable<Long> fast = Flowable.interval(1, MILLISECONDS).take(500);
+        StreamId<Long> sourceId = provide(fast).withUniqueStreamId();
+
+        TestSubscriber<Long> subscriber = rxFrom(ConflatedStreamId.conflate(sourceId, Duration.ofMillis(100)))
+                .test();
+        subscriber.awaitTerminalEvent();
+
+        subscriber.assertNoErrors();
+        assertThat(subscriber.values().size()).isBetween(1, 10);
+        assertThat(subscriber.values()).endsWith(499L);
+    }
+
+}
@@ -22,6 +22,7 @@
 
 package org.streamingpool.core.service.stream;
 
+import static java.util.concurrent.TimeUnit.HOURS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -39,6 +40,7 @@ import org.streamingpool.core.service.streamfactory.DelayedStreamFactory;
 import org.streamingpool.core.service.streamid.DelayedStreamId;
 
 import io.reactivex.Flowable;
+import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subscribers.TestSubscriber;
 
 public class DelayedStreamIdStreamTest {
@@ -72,6 +74,33 @@ public class DelayedStreamIdStreamTest {
         assertThat(Duration.between(before, after).toMillis()).isBetween(delay - deltaDelay, delay + deltaDelay);
     }
 
+    @Test
+    public void testThatSubMillisecondDelaysAreNotTruncated() throws InterruptedException {
+        Duration delay = Duration.ofNanos(800_000);
+
+        DelayedStreamId<Integer> delayedId = DelayedStreamId.delayBy(SOURCE_STREAM_ID, delay);
+        long before = System.nanoTime();
+        publisherFrom(delayedId).subscribe(subscriber);
+        subscriber.await();
+        long after = System.nanoTime();
+
+        assertThat(subscriber.values()).containsOnly(SOURCE_VALUE);
+        assertThat(after - before).isGreaterThanOrEqualTo(delay.toNanos());
+    }
+
+    @Test
+    public void testThatTheDelayRunsOnTheGivenScheduler() {
+        TestScheduler scheduler = new TestScheduler();
+        factory = new DelayedStreamFactory(scheduler);
+
+        publisherFrom(DelayedStreamId.delayBy(SOURCE_STREAM_ID, Duration.ofDays(1))).subscribe(subscriber);
+        scheduler.advanceTimeBy(23, HOURS);
+        subscriber.assertNoValues();
+        scheduler.advanceTimeBy(1, HOURS);
+
+        subscriber.assertValues(SOURCE_VALUE).assertComplete();
+    }
+
     private Publisher<Integer> publisherFrom(DelayedStreamId<Integer> delayedId) {
         return factory.create(delayedId, mockDiscoveryService()).data();
     }
@@ -0,0 +1,135 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.LastValueCachedStreamFactory;
+import org.streamingpool.core.service.streamid.LastValueCachedStreamId;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link LastValueCachedStreamFactory}
+ */
+public class LastValueCachedStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    @Autowired
+    private LastValueCachedStreamFactory factory;
+
+    @Test
+    public void lateSubscriberGetsLastValueFollowedByLiveValues() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> cachedId = LastValueCachedStreamId.cachingLastValueOf(provide(source).withUniqueStreamId());
+        TestSubscriber<Integer> early = rxFrom(cachedId).test();
+
+        source.onNext(1);
+        source.onNext(2);
+        TestSubscriber<Integer> late = rxFrom(cachedId).test();
+        source.onNext(3);
+
+        early.assertValues(1, 2, 3);
+        late.assertValues(2, 3);
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> cachedId = LastValueCachedStreamId.cachingLastValueOf(provide(source).withUniqueStreamId());
+
+        rxFrom(cachedId).test();
+        source.onNext(1);
+        rxFrom(cachedId).test();
+
+        assertThat(factory.stats().missCount()).isEqualTo(1);
+        assertThat(factory.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void sourceIsUnsubscribedButValueKeptWhenLastSubscriberLeaves() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> cachedId = LastValueCachedStreamId.cachingLastValueOf(provide(source).withUniqueStreamId());
+        TestSubscriber<Integer> first = rxFrom(cachedId).test();
+        source.onNext(1);
+
+        first.cancel();
+        assertThat(source.hasSubscribers()).isFalse();
+
+        TestSubscriber<Integer> second = rxFrom(cachedId).test();
+        second.assertValues(1);
+        source.onNext(2);
+        second.assertValues(1, 2);
+        assertThat(factory.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void subscriberAfterCompletionIsCompleted() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> cachedId = LastValueCachedStreamId.cachingLastValueOf(provide(source).withUniqueStreamId());
+        rxFrom(cachedId).test();
+        source.onNext(1);
+        source.onComplete();
+
+        rxFrom(cachedId).test().assertComplete();
+    }
+
+    @Test
+    public void concurrentSubscribersNeitherMissNorRepeatValues() throws InterruptedException {
+        int lastValue = 5_000;
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> cachedId = LastValueCachedStreamId.cachingLastValueOf(provide(source).withUniqueStreamId());
+        rxFrom(cachedId).test();
+        source.onNext(0);
+
+        Thread emitter = new Thread(() -> {
+            for (int i = 1; i <= lastValue; i++) {
+                source.onNext(i);
+            }
+        });
+        emitter.start();
+        List<TestSubscriber<Integer>> subscribers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            subscribers.add(rxFrom(cachedId).test());
+        }
+        emitter.join();
+
+        for (TestSubscriber<Integer> subscriber : subscribers) {
+            subscriber.assertNoErrors();
+            List<Integer> values = subscriber.values();
+            for (int i = 1; i < values.size(); i++) {
+                assertThat(values.get(i)).isEqualTo(values.get(i - 1) + 1);
+            }
+            assertThat(values).last().isEqualTo(lastValue);
+        }
+    }
+
+}
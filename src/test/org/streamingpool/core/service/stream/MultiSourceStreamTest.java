@@ -0,0 +1,102 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.CombineLatestStreamFactory;
+import org.streamingpool.core.service.streamfactory.MergedStreamFactory;
+import org.streamingpool.core.service.streamfactory.ZipStreamFactory;
+import org.streamingpool.core.service.streamid.CombineLatestStreamId;
+import org.streamingpool.core.service.streamid.MergedStreamId;
+import org.streamingpool.core.service.streamid.ZipStreamId;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link CombineLatestStreamFactory}, {@link ZipStreamFactory} and {@link MergedStreamFactory}
+ */
+public class MultiSourceStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    @Test
+    public void zipCombinesValuesOfSameIndex() {
+        List<StreamId<Integer>> sources = asList(provide(Flowable.just(1, 2, 3)).withUniqueStreamId(),
+                provide(Flowable.just(10, 20, 30)).withUniqueStreamId(),
+                provide(Flowable.just(100, 200)).withUniqueStreamId());
+
+        List<Integer> sums = rxFrom(ZipStreamId.zip(sources, "sum", MultiSourceStreamTest::sum)).toList()
+                .blockingGet();
+
+        assertThat(sums).containsExactly(111, 222);
+    }
+
+    @Test
+    public void combineLatestEmitsListsOfLatestValues() {
+        List<StreamId<Integer>> sources = asList(provide(Flowable.just(1)).withUniqueStreamId(),
+                provide(Flowable.just(2)).withUniqueStreamId());
+
+        List<List<Integer>> values = rxFrom(CombineLatestStreamId.combineLatest(sources)).toList().blockingGet();
+
+        assertThat(values).containsExactly(asList(1, 2));
+    }
+
+    @Test
+    public void mergeRespectsDownstreamDemand() {
+        List<StreamId<Integer>> sources = asList(provide(Flowable.range(0, 1000)).withUniqueStreamId(),
+                provide(Flowable.range(1000, 1000)).withUniqueStreamId());
+        TestSubscriber<Integer> subscriber = TestSubscriber.create(5);
+
+        rxFrom(MergedStreamId.merge(sources, 2)).subscribe(subscriber);
+
+        subscriber.assertValueCount(5);
+        subscriber.requestMore(2000);
+        subscriber.awaitTerminalEvent();
+        subscriber.assertValueCount(2000);
+    }
+
+    @Test
+    public void idsWithSameSourcesAndKeysAreEqual() {
+        List<StreamId<Integer>> sources = asList(provide(Flowable.just(1)).withUniqueStreamId(),
+                provide(Flowable.just(2)).withUniqueStreamId());
+
+        assertThat(ZipStreamId.zip(sources, "sum", MultiSourceStreamTest::sum))
+                .isEqualTo(ZipStreamId.zip(sources, "sum", MultiSourceStreamTest::sum));
+        assertThat(CombineLatestStreamId.combineLatest(sources))
+                .isEqualTo(CombineLatestStreamId.combineLatest(sources));
+        assertThat(MergedStreamId.merge(sources)).isEqualTo(MergedStreamId.merge(sources));
+        assertThat(MergedStreamId.merge(sources, 1)).isNotEqualTo(MergedStreamId.merge(sources, 2));
+    }
+
+    private static int sum(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sum();
+    }
+
+}
@@ -0,0 +1,193 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.impl.LocalPool;
+import org.streamingpool.core.service.streamfactory.PartitionedStreamFactory;
+import org.streamingpool.core.service.streamid.PartitionedStreamId;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+import org.streamingpool.core.testing.NamedStreamId;
+
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link PartitionedStreamFactory}
+ */
+public class PartitionedStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    private static final String PARITY = "parity";
+
+    @Test
+    public void elementsAreDispatchedToThePartitionOfTheirKey() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source).withUniqueStreamId();
+        TestSubscriber<Integer> even = rxFrom(partition(sourceId, 0)).test();
+        TestSubscriber<Integer> odd = rxFrom(partition(sourceId, 1)).test();
+
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+        source.onNext(4);
+        source.onComplete();
+
+        even.assertResult(2, 4);
+        odd.assertResult(1, 3);
+    }
+
+    @Test
+    public void sourceIsSubscribedOnlyOnceForAllPartitions() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source.doOnSubscribe(s -> subscriptions.incrementAndGet()))
+                .withUniqueStreamId();
+
+        rxFrom(partition(sourceId, 0)).test();
+        rxFrom(partition(sourceId, 1)).test();
+
+        assertThat(subscriptions.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictedPartitionsAreRecreatedOnSubscription() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source).withUniqueStreamId();
+        for (int i = 0; i < 2000; i++) {
+            rxFrom(PartitionedStreamId.partition(sourceId, "identity", (Integer v) -> v, i)).test().cancel();
+        }
+
+        TestSubscriber<Integer> subscriber = rxFrom(
+                PartitionedStreamId.partition(sourceId, "identity", (Integer v) -> v, 7)).test();
+        source.onNext(7);
+        source.onNext(8);
+
+        subscriber.assertValues(7);
+    }
+
+    @Test
+    public void sourceIsUnsubscribedWhenTheLastPartitionIsCancelled() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source).withUniqueStreamId();
+        TestSubscriber<Integer> even = rxFrom(partition(sourceId, 0)).test();
+        TestSubscriber<Integer> odd = rxFrom(partition(sourceId, 1)).test();
+
+        even.cancel();
+        assertThat(source.hasSubscribers()).isTrue();
+        odd.cancel();
+        assertThat(source.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    public void partitionsResubscribeToTheSourceAfterAllWereCancelled() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        StreamId<Integer> sourceId = provide(source).withUniqueStreamId();
+        rxFrom(partition(sourceId, 0)).test().cancel();
+
+        TestSubscriber<Integer> even = rxFrom(partition(sourceId, 0)).test();
+        source.onNext(2);
+
+        even.assertValues(2);
+    }
+
+    @Test
+    public void poolsSharingTheFactoryDoNotShareDispatchers() {
+        PartitionedStreamFactory factory = new PartitionedStreamFactory();
+        LocalPool firstPool = new LocalPool(singletonList(factory));
+        LocalPool secondPool = new LocalPool(singletonList(factory));
+        StreamId<Integer> sourceId = NamedStreamId.ofName("partitionedSource");
+        PublishProcessor<Integer> firstSource = PublishProcessor.create();
+        PublishProcessor<Integer> secondSource = PublishProcessor.create();
+        firstPool.provide(sourceId, firstSource);
+        secondPool.provide(sourceId, secondSource);
+
+        TestSubscriber<Integer> first = Flowable.fromPublisher(firstPool.discover(partition(sourceId, 0))).test();
+        TestSubscriber<Integer> second = Flowable.fromPublisher(secondPool.discover(partition(sourceId, 0))).test();
+        firstSource.onNext(2);
+        secondSource.onNext(4);
+
+        first.assertValues(2);
+        second.assertValues(4);
+    }
+
+    @Test
+    public void slowSubscriberOverflowingTheBufferGetsAnError() {
+        PartitionedStreamFactory factory = new PartitionedStreamFactory(2);
+        LocalPool pool = new LocalPool(singletonList(factory));
+        StreamId<Integer> sourceId = NamedStreamId.ofName("partitionedSource");
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        pool.provide(sourceId, source);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(pool.discover(partition(sourceId, 0))).test(0);
+        source.onNext(2);
+        source.onNext(4);
+        source.onNext(6);
+
+        subscriber.assertError(MissingBackpressureException.class);
+        assertThat(source.hasSubscribers()).isFalse();
+    }
+
+    @Test
+    public void partitionsShareOneSourceSubscriptionAfterASnapshot() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicInteger keyCalls = new AtomicInteger();
+        LocalPool pool = new LocalPool(singletonList(new PartitionedStreamFactory()));
+        StreamId<Integer> sourceId = NamedStreamId.ofName("snapshotPartitionedSource");
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        pool.provide(sourceId, source.doOnSubscribe(s -> subscriptions.incrementAndGet()));
+        pool.snapshot();
+
+        TestSubscriber<Integer> even = Flowable.fromPublisher(pool.discover(countingPartition(sourceId, keyCalls, 0)))
+                .test();
+        TestSubscriber<Integer> odd = Flowable.fromPublisher(pool.discover(countingPartition(sourceId, keyCalls, 1)))
+                .test();
+        source.onNext(1);
+        source.onNext(2);
+
+        even.assertValues(2);
+        odd.assertValues(1);
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(keyCalls.get()).isEqualTo(2);
+    }
+
+    private static StreamId<Integer> countingPartition(StreamId<Integer> sourceId, AtomicInteger keyCalls, int key) {
+        return PartitionedStreamId.partition(sourceId, "countingParity", (Integer v) -> {
+            keyCalls.incrementAndGet();
+            return v % 2;
+        }, key);
+    }
+
+    private static StreamId<Integer> partition(StreamId<Integer> sourceId, int key) {
+        return PartitionedStreamId.partition(sourceId, PARITY, (Integer v) -> v % 2, key);
+    }
+
+}
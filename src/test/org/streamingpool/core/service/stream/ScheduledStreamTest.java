@@ -0,0 +1,109 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.streamingpool.core.service.streamid.DerivedStreamId.derive;
+import static org.streamingpool.core.service.streamid.ExecutionPolicy.boundedPool;
+import static org.streamingpool.core.service.streamid.ExecutionPolicy.dedicatedThread;
+import static org.streamingpool.core.service.streamid.ExecutionPolicy.onExecutor;
+import static org.streamingpool.core.service.streamid.ExecutionPolicy.sameThread;
+import static org.streamingpool.core.service.streamid.ScheduledStreamId.scheduledOn;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.ScheduledStreamFactory;
+import org.streamingpool.core.service.streamid.ExecutionPolicy;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+
+import io.reactivex.Flowable;
+
+/**
+ * Unit tests for {@link ScheduledStreamFactory}
+ */
+public class ScheduledStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    @Test
+    public void valuesAreDeliveredOnTheDedicatedThread() {
+        StreamId<Integer> sourceId = provide(Flowable.range(0, 10)).withUniqueStreamId();
+
+        String thread = rxFrom(scheduledOn(sourceId, dedicatedThread("scheduled-test")))
+                .map(any -> Thread.currentThread().getName()).distinct().blockingSingle();
+
+        assertThat(thread).isEqualTo("scheduled-test-0");
+    }
+
+    @Test
+    public void conversionsDerivedFromAScheduledStreamRunOnThePolicyThreads() {
+        StreamId<Integer> sourceId = provide(Flowable.range(0, 100)).withUniqueStreamId();
+        StreamId<String> threadId = derive(scheduledOn(sourceId, boundedPool("conversion-test", 2)),
+                any -> Thread.currentThread().getName());
+
+        assertThat(rxFrom(threadId).toList().blockingGet()).allMatch(name -> name.startsWith("conversion-test-"));
+    }
+
+    @Test
+    public void sameThreadPolicyDoesNotHandOff() {
+        StreamId<Integer> sourceId = provide(Flowable.range(0, 10)).withUniqueStreamId();
+
+        assertThat(discover(scheduledOn(sourceId, sameThread()))).isSameAs(discover(sourceId));
+    }
+
+    @Test
+    public void schedulingTwiceOnTheSamePolicyDoesNotHandOffAgain() {
+        StreamId<Integer> sourceId = provide(Flowable.range(0, 10)).withUniqueStreamId();
+        StreamId<Integer> scheduledOnce = scheduledOn(sourceId, dedicatedThread("twice-test"));
+
+        assertThat(discover(scheduledOn(scheduledOnce, dedicatedThread("twice-test"))))
+                .isSameAs(discover(scheduledOnce));
+    }
+
+    @Test
+    public void executorPolicyUsesTheGivenExecutor() {
+        ExecutorService executor = Executors
+                .newSingleThreadExecutor(runnable -> new Thread(runnable, "custom-executor-test"));
+        try {
+            StreamId<Integer> sourceId = provide(Flowable.range(0, 10)).withUniqueStreamId();
+            ExecutionPolicy policy = onExecutor("custom-executor-test", executor);
+
+            String thread = rxFrom(scheduledOn(sourceId, policy)).map(any -> Thread.currentThread().getName())
+                    .distinct().blockingSingle();
+
+            assertThat(thread).isEqualTo("custom-executor-test");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void equalPoliciesShareTheirScheduler() {
+        assertThat(dedicatedThread("shared-test")).isEqualTo(dedicatedThread("shared-test"));
+        assertThat(dedicatedThread("shared-test").scheduler()).isSameAs(dedicatedThread("shared-test").scheduler());
+        assertThat(dedicatedThread("shared-test")).isNotEqualTo(boundedPool("shared-test", 1));
+    }
+
+}
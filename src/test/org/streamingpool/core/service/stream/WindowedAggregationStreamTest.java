@@ -0,0 +1,126 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamfactory.WindowedAggregationStreamFactory;
+import org.streamingpool.core.service.streamid.WindowSpecification;
+import org.streamingpool.core.service.streamid.WindowedAggregationStreamId;
+import org.streamingpool.core.service.streamid.aggregation.Aggregator;
+import org.streamingpool.core.service.streamid.aggregation.Aggregators;
+import org.streamingpool.core.support.RxStreamSupport;
+import org.streamingpool.core.testing.AbstractStreamTest;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Unit tests for {@link WindowedAggregationStreamFactory}
+ */
+public class WindowedAggregationStreamTest extends AbstractStreamTest implements RxStreamSupport {
+
+    @Test
+    public void tumblingCountWindowsAreSummed() {
+        StreamId<Integer> sourceId = provide(Flowable.range(1, 7)).withUniqueStreamId();
+
+        List<Double> sums = aggregated(sourceId, WindowSpecification.tumblingCount(3));
+
+        assertThat(sums).containsExactly(6.0, 15.0, 7.0);
+    }
+
+    @Test
+    public void slidingCountWindowsAreSummedInOrder() {
+        StreamId<Integer> sourceId = provide(Flowable.range(1, 4)).withUniqueStreamId();
+
+        List<Double> sums = aggregated(sourceId, WindowSpecification.slidingCount(2, 1));
+
+        assertThat(sums).containsExactly(3.0, 5.0, 7.0, 4.0);
+    }
+
+    @Test
+    public void overlappingCountWindowsMatchTheWindowsOfRx() {
+        List<Integer> values = Flowable.range(0, 50).map(i -> (i * 37) % 23).toList().blockingGet();
+        StreamId<Integer> sourceId = provide(Flowable.fromIterable(values)).withUniqueStreamId();
+
+        for (int skip = 1; skip <= 5; skip++) {
+            WindowSpecification windowSpecification = WindowSpecification.slidingCount(5, skip);
+            assertThat(aggregated(sourceId, windowSpecification, Aggregators.<Integer> min()))
+                    .as("min with skip " + skip)
+                    .isEqualTo(rxWindows(values, skip, Flowable::sorted).map(window -> window.get(0)).toList()
+                            .blockingGet());
+            assertThat(aggregated(sourceId, windowSpecification, Aggregators.<Integer> max()))
+                    .as("max with skip " + skip)
+                    .isEqualTo(rxWindows(values, skip, Flowable::sorted)
+                            .map(window -> window.get(window.size() - 1)).toList().blockingGet());
+            assertThat(aggregated(sourceId, windowSpecification)).as("sum with skip " + skip)
+                    .isEqualTo(rxWindows(values, skip, window -> window)
+                            .map(window -> window.stream().mapToDouble(Integer::doubleValue).sum()).toList()
+                            .blockingGet());
+        }
+    }
+
+    @Test
+    public void sessionWindowsAreClosedAfterGap() {
+        Flowable<Integer> bursts = Flowable.concat(Flowable.just(1, 2, 3),
+                Flowable.just(10, 20).delay(300, MILLISECONDS));
+        StreamId<Integer> sourceId = provide(bursts).withUniqueStreamId();
+
+        List<Double> sums = aggregated(sourceId, WindowSpecification.session(Duration.ofMillis(100)));
+
+        assertThat(sums).containsExactly(6.0, 30.0);
+    }
+
+    @Test
+    public void idsWithSameSpecificationAndAggregatorAreEqual() {
+        StreamId<Integer> sourceId = provide(Flowable.range(1, 7)).withUniqueStreamId();
+
+        WindowSpecification everySecond = WindowSpecification.tumblingTime(Duration.ofSeconds(1));
+
+        assertThat(WindowedAggregationStreamId.aggregate(sourceId, everySecond, Aggregators.quantile(0.5)))
+                .isEqualTo(WindowedAggregationStreamId.aggregate(sourceId, everySecond, Aggregators.quantile(0.5)));
+    }
+
+    private List<Double> aggregated(StreamId<Integer> sourceId, WindowSpecification windowSpecification) {
+        return aggregated(sourceId, windowSpecification, Aggregators.sum());
+    }
+
+    private <R> List<R> aggregated(StreamId<Integer> sourceId, WindowSpecification windowSpecification,
+            Aggregator<? super Integer, R> aggregator) {
+        return rxFrom(WindowedAggregationStreamId.aggregate(sourceId, windowSpecification, aggregator)).toList()
+                .blockingGet();
+    }
+
+    private static Flowable<List<Integer>> rxWindows(List<Integer> values, int skip,
+            Function<Flowable<Integer>, Flowable<Integer>> ordering) {
+        return Flowable.fromIterable(values).window(5, skip)
+                .concatMapSingle(window -> ordering.apply(window).toList());
+    }
+
+}
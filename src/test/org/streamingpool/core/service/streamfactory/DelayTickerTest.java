@@ -0,0 +1,112 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link DelayTicker}
+ */
+public class DelayTickerTest {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final Duration DELAY = Duration.ofMillis(50);
+
+    private final DelayTicker ticker = DelayTicker.withTick(TICK);
+
+    @Test
+    public void elementsAreReleasedNotBeforeTheirDelayInOrder() throws InterruptedException {
+        PublishProcessor<Long> source = PublishProcessor.create();
+        TestSubscriber<Long> subscriber = ticker.delay(source, DELAY).map(emitted -> System.nanoTime() - emitted)
+                .test();
+
+        for (int i = 0; i < 10; i++) {
+            source.onNext(System.nanoTime());
+            Thread.sleep(2);
+        }
+        source.onComplete();
+
+        assertThat(subscriber.await(5, SECONDS)).isTrue();
+        subscriber.assertValueCount(10);
+        assertThat(subscriber.values()).allMatch(latency -> latency >= DELAY.toNanos());
+    }
+
+    @Test
+    public void manyStreamsShareTheTicker() throws InterruptedException {
+        List<TestSubscriber<Integer>> subscribers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            subscribers.add(ticker.delay(Flowable.range(0, 100), DELAY).test());
+        }
+
+        for (TestSubscriber<Integer> subscriber : subscribers) {
+            assertThat(subscriber.await(5, SECONDS)).isTrue();
+            subscriber.assertValueCount(100);
+            subscriber.assertComplete();
+        }
+        assertThat(ticker.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void errorsAreNotDelayed() throws InterruptedException {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = ticker.delay(source, Duration.ofSeconds(10)).test();
+
+        source.onNext(1);
+        source.onError(new IllegalStateException("failure"));
+
+        assertThat(subscriber.await(1, SECONDS)).isTrue();
+        subscriber.assertNoValues();
+        subscriber.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void cancelledSubscribersAreUnregistered() {
+        TestSubscriber<Integer> subscriber = ticker.delay(Flowable.<Integer> never(), DELAY).test();
+        assertThat(ticker.subscriberCount()).isEqualTo(1);
+
+        subscriber.cancel();
+
+        assertThat(ticker.subscriberCount()).isZero();
+    }
+
+    @Test
+    public void backpressureIsForwardedToTheSource() throws InterruptedException {
+        TestSubscriber<Integer> subscriber = ticker.delay(Flowable.range(0, 100), DELAY).test(3);
+
+        Thread.sleep(3 * DELAY.toMillis());
+
+        subscriber.assertValues(0, 1, 2);
+    }
+
+}
@@ -13,6 +13,8 @@ import org.streamingpool.core.service.StreamId;
 import org.streamingpool.core.service.streamid.FlattenedStreamId;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -95,6 +97,54 @@ public class FlattenedStreamFactoryTest {
         testErrorsSubscriber.assertNotTerminated();
     }
 
+    @Test
+    public void testCreateStreamFromNonRandomAccessIterablesWithNulls() {
+        Flowable<Iterable<Integer>> sourceStream = Flowable.just(
+                new LinkedList<>(Arrays.asList(null, 1, null, 2, null)), new LinkedList<>(Arrays.asList(3, null)));
+        doReturn(sourceStream).when(discoveryService).discover(sourceStreamId);
+        StreamId<Integer> flattenedStreamId = FlattenedStreamId.flatten(sourceStreamId);
+        ErrorStreamPair<Integer> errorStreamPair = flattenedStreamFactory.create(flattenedStreamId, discoveryService);
+
+        errorStreamPair.data().subscribe(testValuesSubscriber);
+        testValuesSubscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        testValuesSubscriber.assertComplete();
+        testValuesSubscriber.assertValues(1, 2, 3);
+    }
+
+    @Test
+    public void testOnlyNullSourceValuesEmitNothing() {
+        Flowable<Iterable<Integer>> sourceStream = Flowable.just(Arrays.asList(null, null),
+                Collections.singletonList(null));
+        doReturn(sourceStream).when(discoveryService).discover(sourceStreamId);
+        StreamId<Integer> flattenedStreamId = FlattenedStreamId.flatten(sourceStreamId);
+        ErrorStreamPair<Integer> errorStreamPair = flattenedStreamFactory.create(flattenedStreamId, discoveryService);
+
+        errorStreamPair.data().subscribe(testValuesSubscriber);
+        testValuesSubscriber.awaitTerminalEvent(1, TimeUnit.SECONDS);
+
+        testValuesSubscriber.assertComplete();
+        testValuesSubscriber.assertNoValues();
+    }
+
+    @Test
+    public void testBackpressureIsHonouredWithinOneSourceValue() {
+        Integer[] samples = new Integer[10_000];
+        Arrays.fill(samples, 7);
+        Flowable<Iterable<Integer>> sourceStream = Flowable.just(Arrays.asList(samples));
+        doReturn(sourceStream).when(discoveryService).discover(sourceStreamId);
+        StreamId<Integer> flattenedStreamId = FlattenedStreamId.flatten(sourceStreamId);
+        ErrorStreamPair<Integer> errorStreamPair = flattenedStreamFactory.create(flattenedStreamId, discoveryService);
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(errorStreamPair.data()).test(5);
+
+        subscriber.assertValueCount(5);
+        subscriber.assertNotComplete();
+        subscriber.requestMore(Long.MAX_VALUE);
+        subscriber.assertValueCount(samples.length);
+        subscriber.assertComplete();
+    }
+
     @Test
     public void testWrongStreamIdType() {
         ErrorStreamPair errorStreamPair = flattenedStreamFactory.create(mock(StreamId.class), discoveryService);
@@ -0,0 +1,159 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamfactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.streamingpool.core.domain.Timestamped;
+import org.streamingpool.core.service.streamid.HistoryRetention;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Unit tests for {@link HistoryBuffer}
+ */
+public class HistoryBufferTest {
+
+    private static final Instant START = Instant.parse("2017-01-01T00:00:00Z");
+
+    private ManualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock();
+    }
+
+    @Test
+    public void rangeQueriesReturnValuesWithinRange() {
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(HistoryRetention.ofMaxAge(Duration.ofHours(1)), clock);
+        for (int i = 0; i < 200; i++) {
+            history.append(i);
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        assertThat(valuesOf(history.between(START.plusSeconds(10), START.plusSeconds(13)))).containsExactly(10, 11,
+                12);
+    }
+
+    @Test
+    public void valuesOlderThanMaxAgeAreDiscarded() {
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(HistoryRetention.ofMaxAge(Duration.ofSeconds(10)), clock);
+        for (int i = 0; i < 100; i++) {
+            history.append(i);
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        assertThat(valuesOf(history.between(Instant.MIN, Instant.MAX))).containsExactly(90, 91, 92, 93, 94, 95, 96,
+                97, 98, 99);
+    }
+
+    @Test
+    public void oldestValuesAreDiscardedWhenExceedingMaxBytes() {
+        HistoryRetention<Integer> retention = HistoryRetention.<Integer> ofMaxAge(Duration.ofHours(1))
+                .withMaxBytes(40, value -> 10);
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(retention, clock);
+        for (int i = 0; i < 10; i++) {
+            history.append(i);
+        }
+
+        assertThat(valuesOf(history.between(Instant.MIN, Instant.MAX))).containsExactly(6, 7, 8, 9);
+    }
+
+    @Test
+    public void replayIsFollowedByLiveValuesWithoutGap() {
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(HistoryRetention.ofMaxAge(Duration.ofHours(1)), clock);
+        history.append(0);
+        clock.advance(Duration.ofSeconds(1));
+        history.append(1);
+
+        TestSubscriber<Timestamped<Integer>> subscriber = history.replayFrom(START.plusSeconds(1)).test();
+        history.append(2);
+
+        assertThat(valuesOf(subscriber.values())).containsExactly(1, 2);
+    }
+
+    @Test
+    public void replayIsSubscribedToLiveValuesOnlyWhileSubscribed() {
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(HistoryRetention.ofMaxAge(Duration.ofHours(1)), clock);
+        history.append(0);
+
+        Flowable<Timestamped<Integer>> replay = history.replayFrom(START);
+        assertThat(history.hasLiveSubscribers()).isFalse();
+
+        TestSubscriber<Timestamped<Integer>> subscriber = replay.test();
+        assertThat(history.hasLiveSubscribers()).isTrue();
+
+        subscriber.cancel();
+        assertThat(history.hasLiveSubscribers()).isFalse();
+    }
+
+    @Test
+    public void replayCancelledWhileEmittingTheSnapshotIsUnsubscribedFromLiveValues() {
+        HistoryBuffer<Integer> history = new HistoryBuffer<>(HistoryRetention.ofMaxAge(Duration.ofHours(1)), clock);
+        history.append(0);
+        history.append(1);
+
+        history.replayFrom(START).take(1).test().assertValueCount(1);
+
+        assertThat(history.hasLiveSubscribers()).isFalse();
+    }
+
+    private static List<Integer> valuesOf(List<Timestamped<Integer>> timestamped) {
+        return timestamped.stream().map(Timestamped::value).collect(Collectors.toList());
+    }
+
+    private static class ManualClock extends Clock {
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
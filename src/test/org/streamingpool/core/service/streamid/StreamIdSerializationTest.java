@@ -0,0 +1,87 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.function.KeyedFunction;
+import org.streamingpool.core.testing.NamedStreamId;
+
+/**
+ * Java serialization round trips of the ids whose functions are provided by the library.
+ */
+public class StreamIdSerializationTest {
+
+    private static final StreamId<Integer> SOURCE_A = NamedStreamId.ofName("a");
+    private static final StreamId<Integer> SOURCE_B = NamedStreamId.ofName("b");
+
+    @Test
+    public void dataPropagatedIdIsSerializable() throws Exception {
+        assertRoundTrip(CombineWithLatestStreamId.dataPropagated(SOURCE_A, SOURCE_B));
+    }
+
+    @Test
+    public void combineLatestIdIsSerializable() throws Exception {
+        assertRoundTrip(CombineLatestStreamId.combineLatest(asList(SOURCE_A, SOURCE_B)));
+    }
+
+    @Test
+    public void zipIdIsSerializable() throws Exception {
+        assertRoundTrip(ZipStreamId.zip(asList(SOURCE_A, SOURCE_B)));
+    }
+
+    @Test
+    public void combineLatestAndZipOfSameSourcesAreNotEqual() {
+        assertThat(CombineLatestStreamId.combineLatest(asList(SOURCE_A, SOURCE_B)))
+                .isNotEqualTo(ZipStreamId.zip(asList(SOURCE_A, SOURCE_B)));
+    }
+
+    @Test
+    public void keyedFunctionsDoNotClaimToBeSerializable() {
+        assertThat(KeyedFunction.keyed("any", Function.identity())).isNotInstanceOf(Serializable.class);
+    }
+
+    static void assertRoundTrip(StreamId<?> id) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(id);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Object decoded = in.readObject();
+            assertThat(decoded).isEqualTo(id);
+            assertThat(decoded.hashCode()).isEqualTo(id.hashCode());
+        }
+    }
+
+}
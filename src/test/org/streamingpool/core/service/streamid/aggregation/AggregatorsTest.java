@@ -0,0 +1,79 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.streamid.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.streamingpool.core.service.streamid.aggregation.Aggregator.Accumulator;
+
+/**
+ * Unit tests for {@link Aggregators}
+ */
+public class AggregatorsTest {
+
+    @Test
+    public void basicAggregations() {
+        assertThat(aggregate(Aggregators.count(), 3, 1, 2)).isEqualTo(3L);
+        assertThat(aggregate(Aggregators.sum(), 3, 1, 2)).isEqualTo(6.0);
+        assertThat(aggregate(Aggregators.average(), 3, 1, 2)).isEqualTo(2.0);
+        assertThat(aggregate(Aggregators.<Integer> min(), 3, 1, 2)).isEqualTo(1);
+        assertThat(aggregate(Aggregators.<Integer> max(), 3, 1, 2)).isEqualTo(3);
+    }
+
+    @Test
+    public void quantileOfFewElementsIsExact() {
+        assertThat(aggregate(Aggregators.quantile(0.5), 4, 1, 3)).isEqualTo(3.0);
+        assertThat(aggregate(Aggregators.quantile(1), 4, 1, 3)).isEqualTo(4.0);
+    }
+
+    @Test
+    public void quantileIsEstimatedForUniformDistribution() {
+        Accumulator<Number, Double> accumulator = Aggregators.quantile(0.9).newAccumulator();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            accumulator.add(random.nextDouble());
+        }
+
+        assertThat(accumulator.result()).isCloseTo(0.9, within(0.01));
+    }
+
+    @Test
+    public void quantileAggregatorsAreEqualForSameQuantile() {
+        assertThat(Aggregators.quantile(0.99)).isEqualTo(Aggregators.quantile(0.99));
+        assertThat(Aggregators.quantile(0.99)).isNotEqualTo(Aggregators.quantile(0.9));
+    }
+
+    @SafeVarargs
+    private static <T, R> R aggregate(Aggregator<? super T, R> aggregator, T... elements) {
+        Accumulator<? super T, R> accumulator = aggregator.newAccumulator();
+        for (T element : elements) {
+            accumulator.add(element);
+        }
+        return accumulator.result();
+    }
+
+}
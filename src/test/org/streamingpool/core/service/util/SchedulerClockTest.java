@@ -0,0 +1,59 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.service.util;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+import io.reactivex.schedulers.TestScheduler;
+
+public class SchedulerClockTest {
+
+    @Test
+    public void clockFollowsTheTimeOfTheScheduler() {
+        TestScheduler scheduler = new TestScheduler();
+        SchedulerClock clock = SchedulerClock.of(scheduler);
+
+        assertThat(clock.instant()).isEqualTo(Instant.EPOCH);
+        scheduler.advanceTimeBy(42, SECONDS);
+        assertThat(clock.instant()).isEqualTo(Instant.ofEpochSecond(42));
+    }
+
+    @Test
+    public void withZoneKeepsTheScheduler() {
+        TestScheduler scheduler = new TestScheduler();
+        ZoneId zone = ZoneId.of("Europe/Zurich");
+
+        assertThat(SchedulerClock.of(scheduler).getZone()).isEqualTo(ZoneOffset.UTC);
+        assertThat(SchedulerClock.of(scheduler).withZone(zone).getZone()).isEqualTo(zone);
+        scheduler.advanceTimeBy(1, SECONDS);
+        assertThat(SchedulerClock.of(scheduler).withZone(zone).instant()).isEqualTo(Instant.ofEpochSecond(1));
+    }
+
+}
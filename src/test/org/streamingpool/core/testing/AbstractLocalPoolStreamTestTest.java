@@ -0,0 +1,73 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamCreator;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.DerivedStreamId;
+import org.streamingpool.core.support.RxStreamSupport;
+
+import io.reactivex.Flowable;
+
+/**
+ * The test methods provide the same ids, which only works if the shared pool is reset between them.
+ */
+public class AbstractLocalPoolStreamTestTest extends AbstractLocalPoolStreamTest implements RxStreamSupport {
+
+    private static final StreamId<Integer> PROVIDED_ID = NamedStreamId.ofName("provided");
+    private static final StreamId<Integer> CREATED_ID = NamedStreamId.ofName("created");
+
+    @Test
+    public void providedStreamIsDiscovered() {
+        provide(Flowable.just(1, 2)).as(PROVIDED_ID);
+        provide(creatorOf(3)).as(CREATED_ID);
+
+        assertThat(rxFrom(PROVIDED_ID).toList().blockingGet()).containsExactly(1, 2);
+        assertThat(rxFrom(CREATED_ID).blockingFirst()).isEqualTo(3);
+    }
+
+    @Test
+    public void sameIdsCanBeProvidedAgain() {
+        provide(Flowable.just(4)).as(PROVIDED_ID);
+        provide(creatorOf(5)).as(CREATED_ID);
+
+        assertThat(rxFrom(PROVIDED_ID).blockingFirst()).isEqualTo(4);
+        assertThat(rxFrom(CREATED_ID).blockingFirst()).isEqualTo(5);
+    }
+
+    @Test
+    public void defaultFactoriesAreAvailable() {
+        provide(Flowable.just(6)).as(PROVIDED_ID);
+
+        assertThat(rxFrom(DerivedStreamId.derive(PROVIDED_ID, i -> i + 1)).blockingFirst()).isEqualTo(7);
+        assertThat(pool().streamIds()).contains(PROVIDED_ID);
+    }
+
+    private static StreamCreator<Integer> creatorOf(Integer value) {
+        return discovery -> Flowable.just(value);
+    }
+
+}
@@ -0,0 +1,146 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.service.streamid.BufferSpecification;
+import org.streamingpool.core.service.streamid.BufferSpecification.EndStreamMatcher;
+import org.streamingpool.core.service.streamid.ConflatedStreamId;
+import org.streamingpool.core.service.streamid.DelayedStreamId;
+import org.streamingpool.core.service.streamid.OverlapBufferStreamId;
+import org.streamingpool.core.service.streamid.WindowSpecification;
+import org.streamingpool.core.service.streamid.WindowedAggregationStreamId;
+import org.streamingpool.core.service.streamid.aggregation.Aggregators;
+import org.streamingpool.core.service.streamid.factory.function.DelayCompositionFunction;
+import org.streamingpool.core.support.RxStreamSupport;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class AbstractVirtualTimeStreamTestTest extends AbstractVirtualTimeStreamTest implements RxStreamSupport {
+
+    private static final StreamId<Integer> SOURCE_ID = NamedStreamId.ofName("source");
+
+    @Test
+    public void delayedStreamRunsOnVirtualTime() {
+        provide(Flowable.just(1)).as(SOURCE_ID);
+
+        TestSubscriber<Integer> subscriber = rxFrom(DelayedStreamId.delayBy(SOURCE_ID, Duration.ofHours(1))).test();
+
+        advanceTimeBy(Duration.ofMinutes(59));
+        subscriber.assertNoValues();
+        advanceTimeBy(Duration.ofMinutes(1));
+        subscriber.assertValues(1).assertComplete();
+    }
+
+    @Test
+    public void overlapBufferTimeoutRunsOnVirtualTime() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        PublishProcessor<Object> start = PublishProcessor.create();
+        StreamId<Object> startId = NamedStreamId.ofName("start");
+        StreamId<Object> endId = NamedStreamId.ofName("end");
+        provide(source).as(SOURCE_ID);
+        provide(start).as(startId);
+        provide(Flowable.never()).as(endId);
+
+        TestSubscriber<List<Integer>> subscriber = rxFrom(OverlapBufferStreamId.of(SOURCE_ID, BufferSpecification
+                .ofStartEndTimeout(startId, singleton(EndStreamMatcher.endingOnEvery(endId)), Duration.ofDays(1))))
+                        .test();
+        start.onNext(new Object());
+        source.onNext(1);
+        source.onNext(2);
+
+        subscriber.assertNoValues();
+        advanceTimeBy(Duration.ofDays(1));
+        subscriber.assertValue(asList(1, 2));
+    }
+
+    @Test
+    public void conflationSamplesOnVirtualTime() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        provide(source).as(SOURCE_ID);
+
+        TestSubscriber<Integer> subscriber = rxFrom(ConflatedStreamId.conflate(SOURCE_ID, Duration.ofSeconds(10)))
+                .test();
+        source.onNext(1);
+        source.onNext(2);
+        advanceTimeBy(Duration.ofSeconds(10));
+
+        subscriber.assertValues(2);
+    }
+
+    @Test
+    public void timeWindowsRunOnVirtualTime() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        provide(source).as(SOURCE_ID);
+
+        TestSubscriber<Long> subscriber = rxFrom(WindowedAggregationStreamId.aggregate(SOURCE_ID,
+                WindowSpecification.tumblingTime(Duration.ofMinutes(1)), Aggregators.count())).test();
+        source.onNext(1);
+        source.onNext(2);
+        advanceTimeBy(Duration.ofMinutes(1));
+        source.onNext(3);
+
+        subscriber.assertValues(2L);
+    }
+
+    @Test
+    public void sessionWindowsRunOnVirtualTime() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        provide(source).as(SOURCE_ID);
+
+        TestSubscriber<Long> subscriber = rxFrom(WindowedAggregationStreamId.aggregate(SOURCE_ID,
+                WindowSpecification.session(Duration.ofMinutes(1)), Aggregators.count())).test();
+        source.onNext(1);
+        advanceTimeBy(Duration.ofSeconds(59));
+        source.onNext(2);
+        subscriber.assertNoValues();
+        advanceTimeBy(Duration.ofMinutes(1));
+
+        subscriber.assertValues(2L);
+    }
+
+    @Test
+    public void delayCompositionRunsOnTheGivenScheduler() {
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        DelayCompositionFunction<Integer> delay = new DelayCompositionFunction<>(Duration.ofHours(1), testScheduler());
+
+        TestSubscriber<Integer> subscriber = Flowable.fromPublisher(delay.apply(singletonList(source))).test();
+        source.onNext(1);
+
+        advanceTimeBy(Duration.ofMinutes(59));
+        subscriber.assertNoValues();
+        advanceTimeBy(Duration.ofMinutes(1));
+        subscriber.assertValues(1);
+    }
+
+}
@@ -0,0 +1,75 @@
+// @formatter:off
+/**
+*
+* This file is part of streaming pool (http://www.streamingpool.org).
+* 
+* Copyright (c) 2017-present, CERN. All rights reserved.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+* 
+*/
+// @formatter:on
+
+package org.streamingpool.core.testing.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.streamingpool.core.service.StreamId;
+import org.streamingpool.core.testing.NamedStreamId;
+
+public class LoadHarnessTest {
+
+    private static final List<StreamId<Long>> SOURCES = Arrays.asList(NamedStreamId.ofName("a"),
+            NamedStreamId.ofName("b"));
+
+    @Test
+    public void runReportsReceivedValuesAndLatencies() {
+        TopologySpec spec = TopologySpec.builder().sources(2).ratePerSource(500).maxDepth(3).subscribers(10)
+                .duration(Duration.ofMillis(500)).seed(42).build();
+
+        LoadReport report = LoadHarness.run(spec);
+
+        assertThat(report.receivedCount()).isPositive();
+        assertThat(report.errorCount()).isZero();
+        assertThat(report.throughput()).isPositive();
+        assertThat(report.poolEntries()).isGreaterThan(spec.sourceCount());
+        assertThat(report.elapsed()).isGreaterThanOrEqualTo(spec.duration());
+        assertThat(report.latencyAtPercentile(50)).isLessThanOrEqualTo(report.latencyAtPercentile(99));
+        assertThat(report.latencyAtPercentile(99)).isLessThanOrEqualTo(report.maxLatency());
+    }
+
+    @Test
+    public void chainsAreReproducibleForTheSameSeed() {
+        TopologySpec spec = TopologySpec.builder().maxDepth(5).subscribers(20).seed(7).build();
+
+        assertThat(LoadHarness.randomChains(spec, SOURCES)).isEqualTo(LoadHarness.randomChains(spec, SOURCES));
+    }
+
+    @Test
+    public void depthZeroSubscribesToTheSources() {
+        TopologySpec spec = TopologySpec.builder().maxDepth(0).subscribers(5).build();
+
+        assertThat(SOURCES).containsAll(LoadHarness.randomChains(spec, SOURCES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveRateIsRejected() {
+        TopologySpec.builder().ratePerSource(0);
+    }
+
+}